@@ -0,0 +1,69 @@
+package com.springboost.docs.index;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD dot product on the incubating Java Vector API, using the widest
+ * vector shape the CPU supports. Only loaded by {@link Vectors} when the JVM
+ * was started with {@code --add-modules jdk.incubator.vector}; referencing
+ * it otherwise fails to link.
+ */
+final class VectorApiSimilarityKernel implements SimilarityKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    // Bytes are widened to ints, so load as many bytes as there are int lanes
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTE_SPECIES = INT_SPECIES.length() * Byte.SIZE >= 64
+            ? VectorSpecies.of(byte.class, VectorShape.forBitSize(INT_SPECIES.length() * Byte.SIZE))
+            : null;
+
+    @Override
+    public String getName() {
+        return "vector-api-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            // mul + add rather than fma: fma is emulated, and very slow, on
+            // CPUs without FMA units
+            sum = va.mul(vb).add(sum);
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+
+    @Override
+    public int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        if (BYTE_SPECIES == null) {
+            return ScalarSimilarityKernel.INSTANCE.dot(a, aOffset, b, bOffset, length);
+        }
+        IntVector sum = IntVector.zero(INT_SPECIES);
+        int i = 0;
+        int bound = BYTE_SPECIES.loopBound(length);
+        for (; i < bound; i += BYTE_SPECIES.length()) {
+            IntVector va = (IntVector) ByteVector.fromArray(BYTE_SPECIES, a, aOffset + i).castShape(INT_SPECIES, 0);
+            IntVector vb = (IntVector) ByteVector.fromArray(BYTE_SPECIES, b, bOffset + i).castShape(INT_SPECIES, 0);
+            sum = va.mul(vb).add(sum);
+        }
+        int result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+}
@@ -59,16 +59,32 @@ public class SpringBoostProperties {
     @Data
     public static class DocumentationProperties {
         private boolean enabled = true;
-        private String embeddingsProvider = "simple";
-        private int cacheSize = 1000;
+        private String embeddingsProvider = "hashed";
+        private int hashedDimension = 512; // vector size of the "hashed" provider
+        private int cacheSize = 1000; // cached query/chunk embeddings
+        private long cacheMaxBytes = 16 * 1024 * 1024;
         private int searchTimeout = 5000;
         private boolean autoUpdate = false;
+        private boolean persistIndex = true;
+        private String indexDirectory; // defaults to ~/.spring-boost
+        private boolean bundledIndex = true; // load the guideline index pre-computed at build time, if it matches
+        private boolean prewarmIndex = true; // load or build the index in the background once the context is ready
+        private int ingestBatchSize = 64; // guideline chunks embedded and published per batch
         
         @NestedConfigurationProperty
         private Map<String, DocumentationSourceProperties> sources = Map.of();
         
         @NestedConfigurationProperty
         private SearchProperties search = new SearchProperties();
+        
+        @NestedConfigurationProperty
+        private ChunkingProperties chunking = new ChunkingProperties();
+        
+        @NestedConfigurationProperty
+        private CrawlerProperties crawler = new CrawlerProperties();
+        
+        @NestedConfigurationProperty
+        private LocalModelProperties localModel = new LocalModelProperties();
     }
     
     @Data
@@ -85,6 +101,45 @@ public class SpringBoostProperties {
         private boolean enableFuzzySearch = true;
         private boolean enableSemanticSearch = true;
         private boolean enableKeywordSearch = false;
+        // "hnsw" for approximate graph search, "exact" for a full scan,
+        // "int8" or "binary" for a quantized scan re-scored at full precision
+        private String semanticIndex = "hnsw";
+        private int hnswM = 16;
+        private int hnswEfConstruction = 200;
+        private int hnswEfSearch = 64;
+        private int quantizationRescoreFactor = 0; // candidates re-scored per result; 0 = encoding default
+        // How hybrid search combines the two modes: "rrf" (reciprocal-rank
+        // fusion), "weighted" (hybridSemanticWeight * semantic + the rest
+        // keyword) or "max" (better of the two scores)
+        private String hybridFusion = "rrf";
+        private double hybridSemanticWeight = 0.5;
+        private int rrfK = 60;
+        private int resultCacheSize = 256; // cached search results, dropped whenever the index changes; 0 disables
+        private boolean collapseNearDuplicates = true; // keep only the best of near-identical chunks in results
+    }
+
+    @Data
+    public static class ChunkingProperties {
+        private int maxTokens = 1024; // per markdown chunk, estimated at 4 characters a token
+        private int overlapTokens = 64; // trailing context repeated when a section continues in the next chunk
+        private int minTokens = 128; // a full chunk is only cut at a heading that leaves this much before it
+    }
+
+    @Data
+    public static class CrawlerProperties {
+        private int maxDepth = 3;
+        private int maxPagesPerSource = 200;
+        private int perHostConcurrency = 4;
+        private int parseConcurrency = 0; // 0 = one per available processor
+        private int requestTimeoutMs = 10000;
+        private int maxPageBytes = 5 * 1024 * 1024; // larger pages are downloaded and indexed up to this size
+    }
+
+    @Data
+    public static class LocalModelProperties {
+        private String path; // word2vec/GloVe-format static embedding model, optionally .gz
+        private int threads = 0; // 0 = min(4, available processors)
+        private int batchSize = 256;
     }
 
     @Data
@@ -0,0 +1,22 @@
+package com.springboost.docs.crawler;
+
+import com.springboost.docs.model.DocumentChunk;
+
+import java.util.List;
+
+/**
+ * One page visited by the crawler.
+ *
+ * @param source      documentation source the page was reached from
+ * @param url         normalized page URL
+ * @param depth       link distance from the source's seed URL
+ * @param notModified the server answered 304 to a conditional request; the
+ *                    chunks indexed on the previous visit are still current
+ *                    and {@code chunks} is empty
+ * @param gone        the server answered 404 or 410; whatever was indexed
+ *                    from the page is stale and {@code chunks} is empty
+ * @param chunks      chunks parsed (and embedded) from the page
+ */
+public record CrawledPage(String source, String url, int depth, boolean notModified, boolean gone,
+                          List<DocumentChunk> chunks) {
+}
@@ -0,0 +1,441 @@
+package com.springboost.docs.crawler;
+
+import com.springboost.config.SpringBoostProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Breadth-first crawler for documentation sites.
+ *
+ * <p>Starting from one seed URL per source, it follows links that stay on
+ * the seed's host and under the seed's directory, up to a maximum depth and
+ * page count per source. Discovered URLs go through a frontier queue. They
+ * are fetched with at most {@code perHostConcurrency} requests in flight
+ * per host. Parsing and embedding run on a separate bounded scheduler, so a
+ * slow page parse never holds up network I/O, or the other way round.
+ *
+ * <p>ETag and Last-Modified validators are remembered per URL for the
+ * lifetime of the crawler. Revisits send conditional requests, and a 304
+ * skips the download and parse while still following the page's
+ * previously seen links. A 404 or 410 is reported as a gone page, so the
+ * caller can drop what it indexed from it.
+ *
+ * <p>Page bodies are read buffer by buffer as they arrive, as raw bytes,
+ * and never grow past {@code maxPageBytes}: the download of a larger page
+ * is cut off at the limit and the part that arrived is parsed, so a huge
+ * single-page reference is indexed up to the limit rather than skipped.
+ * Jsoup decodes the bytes itself, using the charset from the Content-Type
+ * header or else the page's {@code <meta charset>}.
+ */
+@Slf4j
+public class DocumentationCrawler {
+
+    private static final String USER_AGENT = "spring-boost-docs-crawler";
+
+    // Obvious non-HTML resources, skipped before fetching
+    private static final Set<String> SKIPPED_EXTENSIONS = Set.of(
+            ".png", ".jpg", ".jpeg", ".gif", ".svg", ".ico", ".css", ".js", ".map",
+            ".woff", ".woff2", ".ttf", ".pdf", ".zip", ".gz", ".jar", ".epub");
+
+    private final WebClient webClient;
+    private final SpringBoostProperties.CrawlerProperties properties;
+    private final PageParser parser;
+
+    // url -> validators and outgoing links from the last successful fetch
+    private final Map<String, CachedPage> validators = new ConcurrentHashMap<>();
+
+    public DocumentationCrawler(WebClient.Builder webClientBuilder,
+                                SpringBoostProperties.CrawlerProperties properties,
+                                PageParser parser) {
+        this.webClient = webClientBuilder.clone()
+                .defaultHeader(HttpHeaders.USER_AGENT, USER_AGENT)
+                .build();
+        this.properties = properties;
+        this.parser = parser;
+    }
+
+    /**
+     * Crawl every source from its seed URL up to the configured depth.
+     *
+     * @param seeds source name to seed URL
+     */
+    public Flux<CrawledPage> crawl(Map<String, String> seeds) {
+        return crawl(seeds, properties.getMaxDepth());
+    }
+
+    /**
+     * Crawl every source from its seed URL, following links at most
+     * {@code maxDepth} hops away (0 fetches only the seeds).
+     */
+    public Flux<CrawledPage> crawl(Map<String, String> seeds, int maxDepth) {
+        return Flux.defer(() -> {
+            Frontier frontier = new Frontier(properties.getMaxPagesPerSource());
+            for (Map.Entry<String, String> seed : seeds.entrySet()) {
+                URI uri = normalize(seed.getValue(), null);
+                if (uri == null) {
+                    log.warn("Ignoring invalid seed URL for {}: {}", seed.getKey(), seed.getValue());
+                    continue;
+                }
+                frontier.offer(new CrawlTask(seed.getKey(), uri, scopeOf(uri), 0));
+            }
+            frontier.seeded();
+
+            int parseConcurrency = properties.getParseConcurrency() > 0
+                    ? properties.getParseConcurrency()
+                    : Runtime.getRuntime().availableProcessors();
+            Scheduler parseScheduler = Schedulers.newParallel("docs-crawl-parse", parseConcurrency, true);
+
+            return frontier.tasks()
+                    // Network stage: bounded concurrency per host. Hosts are
+                    // limited to the seeds' hosts, so the group count is small.
+                    .groupBy(task -> task.uri().getAuthority())
+                    .flatMap(host -> host.flatMap(this::fetch, properties.getPerHostConcurrency()), Integer.MAX_VALUE)
+                    // CPU stage: parse, embed and discover links off the network threads
+                    .flatMap(fetched -> Mono.fromCallable(() -> process(fetched, frontier, maxDepth))
+                            .subscribeOn(parseScheduler)
+                            .doFinally(signal -> frontier.done()), parseConcurrency)
+                    .doFinally(signal -> parseScheduler.dispose());
+        });
+    }
+
+    /**
+     * Number of URLs with remembered ETag/Last-Modified validators.
+     */
+    public int getValidatorCount() {
+        return validators.size();
+    }
+
+    /**
+     * Fetch one page, conditionally if it was fetched before. Never errors:
+     * failures come back as a {@link Fetched} without a body.
+     */
+    private Mono<Fetched> fetch(CrawlTask task) {
+        String url = task.uri().toString();
+        CachedPage cached = validators.get(url);
+
+        return webClient.get()
+                .uri(task.uri())
+                .headers(headers -> {
+                    if (cached != null && cached.etag() != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, cached.etag());
+                    }
+                    if (cached != null && cached.lastModified() != null) {
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    int status = response.statusCode().value();
+                    if (status == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+                        return response.releaseBody().thenReturn(Fetched.notModified(task, cached));
+                    }
+                    if (status == HttpStatus.NOT_FOUND.value() || status == HttpStatus.GONE.value()) {
+                        log.debug("Page gone: {} (status {})", url, status);
+                        return response.releaseBody().thenReturn(Fetched.gone(task));
+                    }
+                    boolean html = response.headers().contentType()
+                            .map(type -> type.isCompatibleWith(MediaType.TEXT_HTML))
+                            .orElse(true);
+                    if (!response.statusCode().is2xxSuccessful() || !html) {
+                        log.debug("Skipping {}: status {}, html {}", url, status, html);
+                        return response.releaseBody().thenReturn(Fetched.failed(task));
+                    }
+
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    String etag = headers.getETag();
+                    String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+                    String charset = charsetOf(headers.getContentType());
+                    PageBuffer body = new PageBuffer(properties.getMaxPageBytes(), headers.getContentLength());
+                    // Completing early cancels the rest of an oversized download
+                    return response.bodyToFlux(DataBuffer.class)
+                            .takeUntil(body::append)
+                            .then(Mono.fromSupplier(() -> {
+                                if (body.full()) {
+                                    log.debug("Truncated {} at {} bytes", url, body.size());
+                                }
+                                return new Fetched(task, body, charset, etag, lastModified, null, false);
+                            }));
+                })
+                .timeout(Duration.ofMillis(properties.getRequestTimeoutMs()))
+                .onErrorResume(error -> {
+                    log.debug("Failed to fetch {}: {}", url, error.getMessage());
+                    return Mono.just(Fetched.failed(task));
+                });
+    }
+
+    /**
+     * Parse a fetched page, enqueue its in-scope links and return the page,
+     * or null if the fetch failed for any reason other than the page being
+     * gone.
+     */
+    private CrawledPage process(Fetched fetched, Frontier frontier, int maxDepth) {
+        CrawlTask task = fetched.task();
+        String url = task.uri().toString();
+
+        if (fetched.notModified() != null) {
+            enqueue(fetched.notModified().links(), task, frontier, maxDepth);
+            return new CrawledPage(task.source(), url, task.depth(), true, false, List.of());
+        }
+        if (fetched.gone()) {
+            validators.remove(url);
+            return new CrawledPage(task.source(), url, task.depth(), false, true, List.of());
+        }
+        if (fetched.body() == null) {
+            return null;
+        }
+
+        Document page;
+        try (InputStream in = fetched.body().inputStream()) {
+            page = Jsoup.parse(in, fetched.charset(), url);
+        } catch (IOException e) {
+            log.debug("Failed to parse {}: {}", url, e.getMessage());
+            return null;
+        }
+        List<String> links = extractLinks(page);
+        if (fetched.etag() != null || fetched.lastModified() != null) {
+            validators.put(url, new CachedPage(fetched.etag(), fetched.lastModified(), links));
+        } else {
+            validators.remove(url);
+        }
+
+        enqueue(links, task, frontier, maxDepth);
+        return new CrawledPage(task.source(), url, task.depth(), false, false, parser.parse(page, task.source(), url));
+    }
+
+    private void enqueue(List<String> links, CrawlTask parent, Frontier frontier, int maxDepth) {
+        if (parent.depth() >= maxDepth) {
+            return;
+        }
+        for (String link : links) {
+            URI uri = normalize(link, null);
+            if (uri != null && inScope(uri, parent.scope())) {
+                frontier.offer(new CrawlTask(parent.source(), uri, parent.scope(), parent.depth() + 1));
+            }
+        }
+    }
+
+    /**
+     * Charset named by a Content-Type header, or null to let Jsoup detect it.
+     */
+    private static String charsetOf(MediaType contentType) {
+        String charset = contentType != null ? contentType.getParameter("charset") : null;
+        try {
+            return charset != null && Charset.isSupported(charset) ? charset : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static List<String> extractLinks(Document page) {
+        Set<String> links = new LinkedHashSet<>();
+        for (Element anchor : page.select("a[href]")) {
+            URI uri = normalize(anchor.absUrl("href"), null);
+            if (uri != null) {
+                links.add(uri.toString());
+            }
+        }
+        return new ArrayList<>(links);
+    }
+
+    /**
+     * Absolute http(s) URL without query or fragment, or null if the link
+     * can't be crawled.
+     */
+    static URI normalize(String url, URI base) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        try {
+            URI uri = base != null ? base.resolve(url.trim()) : new URI(url.trim());
+            String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : null;
+            if (!"http".equals(scheme) && !"https".equals(scheme) || uri.getHost() == null) {
+                return null;
+            }
+            String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+            String lowerPath = path.toLowerCase(Locale.ROOT);
+            for (String extension : SKIPPED_EXTENSIONS) {
+                if (lowerPath.endsWith(extension)) {
+                    return null;
+                }
+            }
+            return new URI(scheme, null, uri.getHost().toLowerCase(Locale.ROOT), uri.getPort(), path, null, null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Scope of a seed: its scheme, host and port, and its path up to the last '/'.
+     */
+    static URI scopeOf(URI seed) {
+        String path = seed.getPath();
+        return seed.resolve(path.substring(0, path.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * Whether a crawl seeded at {@code seedUrl} could reach {@code url}.
+     */
+    public static boolean inScopeOf(String url, String seedUrl) {
+        URI uri = normalize(url, null);
+        URI seed = normalize(seedUrl, null);
+        return uri != null && seed != null && inScope(uri, scopeOf(seed));
+    }
+
+    static boolean inScope(URI uri, URI scope) {
+        return uri.getScheme().equals(scope.getScheme())
+                && uri.getHost().equals(scope.getHost())
+                && uri.getPort() == scope.getPort()
+                && uri.getPath().startsWith(scope.getPath());
+    }
+
+    private record CrawlTask(String source, URI uri, URI scope, int depth) {
+    }
+
+    private record CachedPage(String etag, String lastModified, List<String> links) {
+    }
+
+    private record Fetched(CrawlTask task, PageBuffer body, String charset, String etag, String lastModified,
+                           CachedPage notModified, boolean gone) {
+
+        static Fetched notModified(CrawlTask task, CachedPage cached) {
+            return new Fetched(task, null, null, null, null, cached, false);
+        }
+
+        static Fetched gone(CrawlTask task) {
+            return new Fetched(task, null, null, null, null, null, true);
+        }
+
+        static Fetched failed(CrawlTask task) {
+            return new Fetched(task, null, null, null, null, null, false);
+        }
+    }
+
+    /**
+     * Raw bytes of one page body, copied out of each network buffer as it
+     * arrives and capped at a maximum size.
+     */
+    private static final class PageBuffer {
+        private static final int INITIAL_CAPACITY = 64 * 1024;
+
+        private final int maxBytes;
+        private byte[] bytes;
+        private int size;
+
+        PageBuffer(int maxBytes, long contentLength) {
+            this.maxBytes = Math.max(0, maxBytes);
+            // Sized up front when the server says how much is coming
+            long capacity = contentLength > 0 ? contentLength : INITIAL_CAPACITY;
+            this.bytes = new byte[(int) Math.min(capacity, this.maxBytes)];
+        }
+
+        /**
+         * Copy what fits of a buffer and release it.
+         *
+         * @return true once the page has reached the maximum size
+         */
+        boolean append(DataBuffer buffer) {
+            try {
+                int count = Math.min(buffer.readableByteCount(), maxBytes - size);
+                if (size + count > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(Math.max(2L * bytes.length, size + count), maxBytes));
+                }
+                buffer.read(bytes, size, count);
+                size += count;
+                return full();
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        boolean full() {
+            return size >= maxBytes;
+        }
+
+        int size() {
+            return size;
+        }
+
+        InputStream inputStream() {
+            return new ByteArrayInputStream(bytes, 0, size);
+        }
+    }
+
+    /**
+     * Frontier queue of URLs still to fetch, de-duplicated across the whole
+     * crawl and capped per source. Completes once every admitted URL has
+     * been fully processed and nothing new was discovered.
+     */
+    private static final class Frontier {
+        private final Sinks.Many<CrawlTask> queue = Sinks.many().unicast().onBackpressureBuffer();
+        private final Set<String> seen = new HashSet<>();
+        private final Map<String, Integer> admittedPerSource = new HashMap<>();
+        private final int maxPagesPerSource;
+        private int pending;
+
+        Frontier(int maxPagesPerSource) {
+            this.maxPagesPerSource = maxPagesPerSource;
+        }
+
+        Flux<CrawlTask> tasks() {
+            return queue.asFlux();
+        }
+
+        // Emission is serialized by the monitor, as Sinks.Many requires
+        synchronized void offer(CrawlTask task) {
+            int admitted = admittedPerSource.getOrDefault(task.source(), 0);
+            if (admitted >= maxPagesPerSource || !seen.add(task.uri().toString())) {
+                return;
+            }
+            admittedPerSource.put(task.source(), admitted + 1);
+            pending++;
+            queue.tryEmitNext(task);
+        }
+
+        /**
+         * All seeds have been offered; completes immediately if none were valid.
+         */
+        synchronized void seeded() {
+            if (pending == 0) {
+                queue.tryEmitComplete();
+            }
+        }
+
+        /**
+         * One admitted URL has been processed, including enqueueing its links.
+         */
+        synchronized void done() {
+            if (--pending == 0) {
+                queue.tryEmitComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.springboost.docs.crawler;
+
+import com.springboost.docs.model.DocumentChunk;
+import org.jsoup.nodes.Document;
+
+import java.util.List;
+
+/**
+ * Turns a fetched, already-parsed HTML page into indexable chunks. Called on
+ * the crawler's parse scheduler, never on a network thread.
+ */
+@FunctionalInterface
+public interface PageParser {
+
+    List<DocumentChunk> parse(Document page, String source, String url);
+}
@@ -0,0 +1,474 @@
+package com.springboost.docs.embeddings;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded embeddings cache with W-TinyLFU eviction.
+ *
+ * <p>New entries land in a small LRU window (1% of the capacity). Entries
+ * pushed out of the window compete for a place in the main segmented LRU:
+ * a candidate only replaces the main region's eviction victim if a
+ * count-min sketch has seen it more often. One-off queries therefore never
+ * flush the texts that are embedded again and again. The main region is
+ * split into probation and protected (80%) segments; a second hit promotes
+ * an entry to protected.
+ *
+ * <p>The cache is bounded both by entry count and by total vector bytes.
+ * Keys are 128-bit MurmurHash3 digests of the text, held as two longs.
+ * Structural operations run under a single monitor. Loads run outside it
+ * and are de-duplicated, so concurrent misses on the same text embed it
+ * once.
+ */
+public class EmbeddingsCache {
+
+    // Approximate per-entry overhead: node, key, map entries, array header
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final int windowMax;
+    private final int mainMax;
+    private final int protectedMax;
+
+    private final Map<Key, Node> data = new HashMap<>();
+    // Insertion-ordered; moving an entry to the MRU end is remove + put
+    private final LinkedHashMap<Key, Node> window = new LinkedHashMap<>();
+    private final LinkedHashMap<Key, Node> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<Key, Node> protectedSegment = new LinkedHashMap<>();
+    private final FrequencySketch sketch;
+    private long weightBytes;
+
+    private final Map<Key, CompletableFuture<float[]>> loading = new ConcurrentHashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long loads;
+
+    /**
+     * @param maxEntries maximum number of cached vectors
+     * @param maxBytes   maximum total size of the cached vectors, including
+     *                   an estimated per-entry overhead
+     */
+    public EmbeddingsCache(int maxEntries, long maxBytes) {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.windowMax = Math.max(1, maxEntries / 100);
+        this.mainMax = maxEntries - windowMax;
+        this.protectedMax = mainMax * 8 / 10;
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    /**
+     * Cached vector for the key, or null. Counts a hit or a miss.
+     */
+    public synchronized float[] getIfPresent(Key key) {
+        sketch.increment(key);
+        Node node = data.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Look up every key, loading the missing ones with a single call to
+     * {@code loader}. Keys another thread is already loading are not loaded
+     * again; this call waits for that load instead.
+     *
+     * @param loader given the keys to load, returns a vector for each
+     * @return a vector for every key
+     */
+    public Map<Key, float[]> getAll(Collection<Key> keys, Function<List<Key>, Map<Key, float[]>> loader) {
+        Map<Key, float[]> result = new HashMap<>();
+        Map<Key, CompletableFuture<float[]>> owned = new LinkedHashMap<>();
+        Map<Key, CompletableFuture<float[]>> awaited = new HashMap<>();
+
+        for (Key key : keys) {
+            if (result.containsKey(key) || owned.containsKey(key) || awaited.containsKey(key)) {
+                continue;
+            }
+            float[] cached = getIfPresent(key);
+            if (cached != null) {
+                result.put(key, cached);
+                continue;
+            }
+            CompletableFuture<float[]> future = new CompletableFuture<>();
+            CompletableFuture<float[]> inFlight = loading.putIfAbsent(key, future);
+            if (inFlight != null) {
+                awaited.put(key, inFlight);
+                continue;
+            }
+            // Another thread may have finished loading it between the two lookups
+            float[] loaded = peek(key);
+            if (loaded != null) {
+                loading.remove(key, future);
+                future.complete(loaded);
+                result.put(key, loaded);
+            } else {
+                owned.put(key, future);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            try {
+                Map<Key, float[]> loaded = loader.apply(new ArrayList<>(owned.keySet()));
+                for (Map.Entry<Key, CompletableFuture<float[]>> entry : owned.entrySet()) {
+                    float[] vector = loaded.get(entry.getKey());
+                    if (vector == null) {
+                        throw new IllegalStateException("Loader returned no vector for " + entry.getKey());
+                    }
+                    put(entry.getKey(), vector);
+                    entry.getValue().complete(vector);
+                    result.put(entry.getKey(), vector);
+                }
+                synchronized (this) {
+                    loads += owned.size();
+                }
+            } catch (RuntimeException | Error e) {
+                owned.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach(loading::remove);
+            }
+        }
+
+        for (Map.Entry<Key, CompletableFuture<float[]>> entry : awaited.entrySet()) {
+            try {
+                result.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Insert or replace an entry, evicting as needed to stay within bounds.
+     */
+    public synchronized void put(Key key, float[] value) {
+        int weight = weightOf(value);
+        Node node = data.get(key);
+        if (node != null) {
+            weightBytes += weight - node.weight;
+            node.value = value;
+            node.weight = weight;
+            onAccess(node);
+        } else {
+            node = new Node(key, value, weight);
+            data.put(key, node);
+            window.put(key, node);
+            weightBytes += weight;
+            while (window.size() > windowMax) {
+                admit(pollFirst(window));
+            }
+        }
+        while (weightBytes > maxBytes && !data.isEmpty()) {
+            evict(victim());
+        }
+    }
+
+    public synchronized void clear() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        weightBytes = 0;
+    }
+
+    public synchronized int size() {
+        return data.size();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long requests = hits + misses;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", data.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("weightBytes", weightBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hits / requests);
+        stats.put("loads", loads);
+        stats.put("evictions", evictions);
+        return stats;
+    }
+
+    /**
+     * Cached vector without touching statistics or recency.
+     */
+    private synchronized float[] peek(Key key) {
+        Node node = data.get(key);
+        return node != null ? node.value : null;
+    }
+
+    private void onAccess(Node node) {
+        switch (node.segment) {
+            case WINDOW -> moveToTail(window, node);
+            case PROBATION -> {
+                probation.remove(node.key);
+                node.segment = PROTECTED;
+                protectedSegment.put(node.key, node);
+                while (protectedSegment.size() > protectedMax) {
+                    Node demoted = pollFirst(protectedSegment);
+                    demoted.segment = PROBATION;
+                    probation.put(demoted.key, demoted);
+                }
+            }
+            default -> moveToTail(protectedSegment, node);
+        }
+    }
+
+    /**
+     * Move an entry leaving the window into the main region, or evict it
+     * if the main region is full and the candidate is seen less often
+     * than the main region's victim.
+     */
+    private void admit(Node candidate) {
+        if (probation.size() + protectedSegment.size() < mainMax) {
+            candidate.segment = PROBATION;
+            probation.put(candidate.key, candidate);
+            return;
+        }
+        Node victim = !probation.isEmpty() ? probation.values().iterator().next()
+                : !protectedSegment.isEmpty() ? protectedSegment.values().iterator().next() : null;
+        if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            evict(victim);
+            candidate.segment = PROBATION;
+            probation.put(candidate.key, candidate);
+        } else {
+            data.remove(candidate.key);
+            weightBytes -= candidate.weight;
+            evictions++;
+        }
+    }
+
+    private Node victim() {
+        if (!probation.isEmpty()) {
+            return probation.values().iterator().next();
+        }
+        if (!protectedSegment.isEmpty()) {
+            return protectedSegment.values().iterator().next();
+        }
+        return window.values().iterator().next();
+    }
+
+    private void evict(Node node) {
+        data.remove(node.key);
+        switch (node.segment) {
+            case WINDOW -> window.remove(node.key);
+            case PROBATION -> probation.remove(node.key);
+            default -> protectedSegment.remove(node.key);
+        }
+        weightBytes -= node.weight;
+        evictions++;
+    }
+
+    private static void moveToTail(LinkedHashMap<Key, Node> segment, Node node) {
+        segment.remove(node.key);
+        segment.put(node.key, node);
+    }
+
+    private static Node pollFirst(LinkedHashMap<Key, Node> segment) {
+        Iterator<Node> iterator = segment.values().iterator();
+        Node first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+
+    private static int weightOf(float[] value) {
+        return value.length * Float.BYTES + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private static final class Node {
+        final Key key;
+        float[] value;
+        int weight;
+        int segment = WINDOW;
+
+        Node(Key key, float[] value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 128-bit text digest used as the cache key.
+     */
+    public record Key(long high, long low) {
+
+        /**
+         * MurmurHash3 (x64, 128-bit) of the text's UTF-8 bytes.
+         */
+        public static Key of(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            long h1 = 0;
+            long h2 = 0;
+            final long c1 = 0x87c37b91114253d5L;
+            final long c2 = 0x4cf5ad432745937fL;
+            int blocks = bytes.length / 16;
+
+            for (int i = 0; i < blocks; i++) {
+                long k1 = getLong(bytes, i * 16);
+                long k2 = getLong(bytes, i * 16 + 8);
+
+                h1 ^= mixK1(k1, c1, c2);
+                h1 = Long.rotateLeft(h1, 27) + h2;
+                h1 = h1 * 5 + 0x52dce729;
+
+                h2 ^= mixK2(k2, c1, c2);
+                h2 = Long.rotateLeft(h2, 31) + h1;
+                h2 = h2 * 5 + 0x38495ab5;
+            }
+
+            long k1 = 0;
+            long k2 = 0;
+            int tail = blocks * 16;
+            switch (bytes.length & 15) {
+                case 15: k2 ^= (long) (bytes[tail + 14] & 0xff) << 48;
+                case 14: k2 ^= (long) (bytes[tail + 13] & 0xff) << 40;
+                case 13: k2 ^= (long) (bytes[tail + 12] & 0xff) << 32;
+                case 12: k2 ^= (long) (bytes[tail + 11] & 0xff) << 24;
+                case 11: k2 ^= (long) (bytes[tail + 10] & 0xff) << 16;
+                case 10: k2 ^= (long) (bytes[tail + 9] & 0xff) << 8;
+                case 9: k2 ^= bytes[tail + 8] & 0xff;
+                    h2 ^= mixK2(k2, c1, c2);
+                case 8: k1 ^= (long) (bytes[tail + 7] & 0xff) << 56;
+                case 7: k1 ^= (long) (bytes[tail + 6] & 0xff) << 48;
+                case 6: k1 ^= (long) (bytes[tail + 5] & 0xff) << 40;
+                case 5: k1 ^= (long) (bytes[tail + 4] & 0xff) << 32;
+                case 4: k1 ^= (long) (bytes[tail + 3] & 0xff) << 24;
+                case 3: k1 ^= (long) (bytes[tail + 2] & 0xff) << 16;
+                case 2: k1 ^= (long) (bytes[tail + 1] & 0xff) << 8;
+                case 1: k1 ^= bytes[tail] & 0xff;
+                    h1 ^= mixK1(k1, c1, c2);
+                default:
+                    break;
+            }
+
+            h1 ^= bytes.length;
+            h2 ^= bytes.length;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix64(h1);
+            h2 = fmix64(h2);
+            h1 += h2;
+            h2 += h1;
+            return new Key(h1, h2);
+        }
+
+        private static long getLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = 7; i >= 0; i--) {
+                value = (value << 8) | (bytes[offset + i] & 0xff);
+            }
+            return value;
+        }
+
+        private static long mixK1(long k1, long c1, long c2) {
+            k1 *= c1;
+            k1 = Long.rotateLeft(k1, 31);
+            return k1 * c2;
+        }
+
+        private static long mixK2(long k2, long c1, long c2) {
+            k2 *= c2;
+            k2 = Long.rotateLeft(k2, 33);
+            return k2 * c1;
+        }
+
+        private static long fmix64(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%016x%016x", high, low);
+        }
+    }
+
+    /**
+     * Count-min sketch of access frequencies: 4 rows of counters that
+     * saturate at 15. All counters are halved every 10 x capacity
+     * increments, so old popularity decays.
+     */
+    static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+
+        private final byte[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            // Power of two of at least twice the capacity
+            int width = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1) << 1;
+            this.table = new byte[width * DEPTH];
+            this.mask = width - 1;
+            this.sampleSize = 10 * Math.max(16, capacity);
+        }
+
+        void increment(Key key) {
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = indexOf(key, row);
+                if (table[index] < MAX_COUNT) {
+                    table[index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] >>= 1;
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(Key key) {
+            int min = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, table[indexOf(key, row)]);
+            }
+            return min;
+        }
+
+        private int indexOf(Key key, int row) {
+            long hash = key.high() + row * key.low();
+            hash ^= hash >>> 29;
+            return row * (mask + 1) + (int) (hash & mask);
+        }
+    }
+}
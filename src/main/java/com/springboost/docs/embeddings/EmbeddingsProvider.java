@@ -0,0 +1,58 @@
+package com.springboost.docs.embeddings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns text into embedding vectors. Selected by
+ * {@code spring-boost.documentation.embeddings-provider}: either one of the
+ * built-in names or the {@link #getName() name} of an implementation
+ * registered through {@link java.util.ServiceLoader} (a
+ * {@code META-INF/services/com.springboost.docs.embeddings.EmbeddingsProvider}
+ * entry with a public no-arg constructor).
+ *
+ * <p>Implementations must be thread-safe. Callers pass at most
+ * {@link #getMaxBatchSize()} texts per {@link #embedBatch} call, never
+ * empty or blank ones, and take care of caching.
+ */
+public interface EmbeddingsProvider {
+
+    /**
+     * Name this provider is configured under.
+     */
+    String getName();
+
+    /**
+     * Identifies the vectors this provider produces, for example the name
+     * plus the model version. Persisted indexes built under a different
+     * identity are discarded.
+     */
+    default String getIdentity() {
+        return getName();
+    }
+
+    /**
+     * Largest batch worth sending in one request or forward pass.
+     */
+    default int getMaxBatchSize() {
+        return 64;
+    }
+
+    /**
+     * Embed one text. The vector must be L2-normalized.
+     */
+    float[] embed(String text);
+
+    /**
+     * Embed several texts, returning one L2-normalized vector per text in
+     * the same order. Providers that can amortize a request or a model
+     * invocation over many texts override this.
+     */
+    default List<float[]> embedBatch(List<String> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            vectors.add(embed(text));
+        }
+        return vectors;
+    }
+}
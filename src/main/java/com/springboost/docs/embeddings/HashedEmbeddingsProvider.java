@@ -0,0 +1,158 @@
+package com.springboost.docs.embeddings;
+
+/**
+ * Fast, deterministic embeddings using the hashing trick: word unigrams,
+ * word bigrams and character trigrams are hashed straight into the slots of
+ * a fixed-dimension vector, each with a hash-derived sign so collisions
+ * cancel out rather than pile up. Term frequencies are damped
+ * logarithmically and the result is L2-normalized.
+ *
+ * <p>Unlike {@link SimpleEmbeddingsProvider} every term of the text
+ * contributes, and character trigrams make spelling variants such as
+ * "autoconfiguration" and "auto-configuration" land close together. The
+ * text is scanned once without allocating substrings; the only allocation
+ * is the returned vector.
+ */
+public class HashedEmbeddingsProvider implements EmbeddingsProvider {
+
+    public static final String NAME = "hashed";
+
+    public static final int DEFAULT_DIMENSION = 512;
+
+    // Same term bounds as Tokenizer, so both see the same words
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private static final float UNIGRAM_WEIGHT = 1.0f;
+    private static final float BIGRAM_WEIGHT = 0.5f;
+    private static final float TRIGRAM_WEIGHT = 0.25f;
+
+    // Distinct seeds keep unigrams, bigrams and trigrams in separate hash spaces
+    private static final long UNIGRAM_SEED = 0x9E3779B97F4A7C15L;
+    private static final long BIGRAM_SEED = 0xC2B2AE3D27D4EB4FL;
+    private static final long TRIGRAM_SEED = 0x165667B19E3779F9L;
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    // Word boundary markers for character trigrams
+    private static final char BOUNDARY = '\u0002';
+
+    private final int dimension;
+
+    public HashedEmbeddingsProvider() {
+        this(DEFAULT_DIMENSION);
+    }
+
+    public HashedEmbeddingsProvider(int dimension) {
+        if (dimension < 2) {
+            throw new IllegalArgumentException("Hashed embedding dimension must be at least 2, was " + dimension);
+        }
+        this.dimension = dimension;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getIdentity() {
+        return NAME + ":" + dimension;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimension];
+        if (text == null) {
+            return vector;
+        }
+
+        long previousWord = 0;
+        boolean hasPreviousWord = false;
+        long word = FNV_OFFSET;
+        int wordLength = 0;
+        char c1 = BOUNDARY;
+        char c2 = BOUNDARY;
+
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                word = (word ^ c) * FNV_PRIME;
+                wordLength++;
+                // Trigram ending at this character; the first one is "^^c"
+                // and carries no information beyond the next, so skip it
+                if (wordLength > 1) {
+                    add(vector, trigram(c1, c2, c), TRIGRAM_WEIGHT);
+                }
+                c1 = c2;
+                c2 = c;
+            } else if (wordLength > 0) {
+                if (wordLength >= MIN_TERM_LENGTH && wordLength <= MAX_TERM_LENGTH) {
+                    add(vector, trigram(c1, c2, BOUNDARY), TRIGRAM_WEIGHT);
+                    add(vector, mix(word ^ UNIGRAM_SEED), UNIGRAM_WEIGHT);
+                    if (hasPreviousWord) {
+                        add(vector, mix((previousWord * 31 + word) ^ BIGRAM_SEED), BIGRAM_WEIGHT);
+                    }
+                    previousWord = word;
+                    hasPreviousWord = true;
+                }
+                word = FNV_OFFSET;
+                wordLength = 0;
+                c1 = BOUNDARY;
+                c2 = BOUNDARY;
+            }
+        }
+
+        // Sublinear term frequency, then L2 normalization
+        double norm = 0;
+        for (int i = 0; i < dimension; i++) {
+            float value = vector[i];
+            if (value != 0) {
+                value = (float) Math.copySign(Math.log1p(Math.abs(value)), value);
+                vector[i] = value;
+                norm += value * value;
+            }
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private void add(float[] vector, long hash, float weight) {
+        int slot = (int) Long.remainderUnsigned(hash >>> 1, dimension);
+        vector[slot] += (hash & 1) == 0 ? weight : -weight;
+    }
+
+    private static long trigram(char c1, char c2, char c3) {
+        return mix(((long) c1 << 32 | (long) c2 << 16 | c3) ^ TRIGRAM_SEED);
+    }
+
+    /**
+     * The murmur3 64-bit finalizer, so every input bit affects the slot and
+     * the sign.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
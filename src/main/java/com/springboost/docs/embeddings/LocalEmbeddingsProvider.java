@@ -0,0 +1,276 @@
+package com.springboost.docs.embeddings;
+
+import com.springboost.docs.index.Tokenizer;
+import com.springboost.docs.index.Vectors;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-process embeddings from a static sentence-embedding model on disk: one
+ * vector per vocabulary token, mean-pooled over the tokens of a text and
+ * L2-normalized. This is the model2vec approach: a transformer's output
+ * distilled into a lookup table, so it runs on the CPU without a network,
+ * a native runtime or a GPU.
+ *
+ * <p>The model file is UTF-8 text in word2vec/GloVe format, optionally
+ * gzipped: an optional {@code <count> <dimension>} header line, then one
+ * {@code <token> <v1> ... <vd>} line per token. Words missing from the
+ * vocabulary are split WordPiece-style into the longest known prefix and
+ * {@code ##}-prefixed continuation pieces; words that can't be split are
+ * skipped.
+ *
+ * <p>Batches are spread over a dedicated, bounded pool of daemon threads.
+ */
+@Slf4j
+public class LocalEmbeddingsProvider implements EmbeddingsProvider, AutoCloseable {
+
+    public static final String NAME = "local";
+
+    private static final String CONTINUATION = "##";
+    private static final int MAX_WORD_LENGTH = 100;
+    // Below this many texts per thread, forking costs more than it saves
+    private static final int MIN_TEXTS_PER_TASK = 8;
+
+    private final String identity;
+    private final Map<String, Integer> vocabulary;
+    private final float[] vectors;
+    private final int dimension;
+    private final int maxBatchSize;
+    private final int threads;
+    private final ThreadPoolExecutor executor;
+
+    private LocalEmbeddingsProvider(String identity, Map<String, Integer> vocabulary, float[] vectors,
+                                    int dimension, int threads, int maxBatchSize) {
+        this.identity = identity;
+        this.vocabulary = vocabulary;
+        this.vectors = vectors;
+        this.dimension = dimension;
+        this.threads = threads;
+        this.maxBatchSize = maxBatchSize;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "local-embeddings-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // A full queue makes the submitting thread do the work itself
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Load a model file.
+     *
+     * @param threads      size of the embedding thread pool
+     * @param maxBatchSize texts accepted per {@link #embedBatch} call
+     */
+    public static LocalEmbeddingsProvider load(Path modelFile, int threads, int maxBatchSize) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Map<String, Integer> vocabulary = new HashMap<>();
+        float[] vectors = new float[0];
+        int dimension = -1;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(modelFile), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] parts = line.trim().split(" ");
+                if (parts.length < 2) {
+                    continue;
+                }
+                if (lineNumber == 1 && parts.length == 2 && isInteger(parts[0]) && isInteger(parts[1])) {
+                    // word2vec header: <count> <dimension>
+                    vectors = new float[Integer.parseInt(parts[0]) * Integer.parseInt(parts[1])];
+                    continue;
+                }
+                if (dimension < 0) {
+                    dimension = parts.length - 1;
+                } else if (parts.length - 1 != dimension) {
+                    throw new IOException("Line " + lineNumber + " of " + modelFile + " has "
+                            + (parts.length - 1) + " values, expected " + dimension);
+                }
+                if (vocabulary.containsKey(parts[0])) {
+                    continue;
+                }
+
+                int ordinal = vocabulary.size();
+                if ((ordinal + 1) * dimension > vectors.length) {
+                    vectors = Arrays.copyOf(vectors, Math.max(dimension * 1024, vectors.length * 2));
+                }
+                int offset = ordinal * dimension;
+                for (int i = 0; i < dimension; i++) {
+                    vectors[offset + i] = Float.parseFloat(parts[i + 1]);
+                }
+                vocabulary.put(parts[0], ordinal);
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed embedding model " + modelFile + ": " + e.getMessage(), e);
+        }
+
+        if (vocabulary.isEmpty()) {
+            throw new IOException("Embedding model " + modelFile + " contains no vectors");
+        }
+        vectors = Arrays.copyOf(vectors, vocabulary.size() * dimension);
+
+        String identity = NAME + ":" + modelFile.getFileName() + ":" + Files.size(modelFile)
+                + ":" + Files.getLastModifiedTime(modelFile).toMillis();
+        log.info("Loaded local embedding model {} ({} tokens, {} dimensions) in {}ms",
+                modelFile, vocabulary.size(), dimension, System.currentTimeMillis() - startTime);
+        return new LocalEmbeddingsProvider(identity, vocabulary, vectors, dimension,
+                Math.max(1, threads), Math.max(1, maxBatchSize));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getIdentity() {
+        return identity;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public int getVocabularySize() {
+        return vocabulary.size();
+    }
+
+    @Override
+    public float[] embed(String text) {
+        // Mean pooling; the mean differs from the sum only in scale, which
+        // normalization removes
+        float[] sum = new float[dimension];
+        List<String> pieces = new ArrayList<>();
+        for (String word : Tokenizer.tokenize(text)) {
+            pieces.clear();
+            if (!split(word, pieces)) {
+                continue;
+            }
+            for (String piece : pieces) {
+                int offset = vocabulary.get(piece) * dimension;
+                for (int i = 0; i < dimension; i++) {
+                    sum[i] += vectors[offset + i];
+                }
+            }
+        }
+        return Vectors.normalize(sum);
+    }
+
+    /**
+     * Embed the batch on the model's thread pool, one contiguous slice of
+     * texts per task.
+     */
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        int tasks = Math.min(threads, texts.size() / MIN_TEXTS_PER_TASK);
+        if (tasks <= 1) {
+            return EmbeddingsProvider.super.embedBatch(texts);
+        }
+
+        float[][] result = new float[texts.size()][];
+        int sliceSize = (texts.size() + tasks - 1) / tasks;
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int from = 0; from < texts.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(from + sliceSize, texts.size());
+            futures.add(executor.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    result[i] = embed(texts.get(i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while embedding", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Local embedding failed", e.getCause());
+            }
+        }
+        return Arrays.asList(result);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Split a word into known vocabulary pieces: the word itself, or the
+     * longest known prefix followed by {@code ##} continuation pieces.
+     *
+     * @return false if some part of the word matches no piece
+     */
+    private boolean split(String word, List<String> pieces) {
+        if (vocabulary.containsKey(word)) {
+            pieces.add(word);
+            return true;
+        }
+        if (word.length() > MAX_WORD_LENGTH) {
+            return false;
+        }
+        int start = 0;
+        while (start < word.length()) {
+            String match = null;
+            for (int end = word.length(); end > start; end--) {
+                String candidate = start == 0 ? word.substring(0, end) : CONTINUATION + word.substring(start, end);
+                if (vocabulary.containsKey(candidate)) {
+                    match = candidate;
+                    start = end;
+                    break;
+                }
+            }
+            if (match == null) {
+                return false;
+            }
+            pieces.add(match);
+        }
+        return true;
+    }
+
+    private static InputStream open(Path modelFile) throws IOException {
+        InputStream in = Files.newInputStream(modelFile);
+        return modelFile.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    private static boolean isInteger(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return !value.isEmpty();
+    }
+}
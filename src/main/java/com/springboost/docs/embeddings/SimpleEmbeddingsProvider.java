@@ -0,0 +1,81 @@
+package com.springboost.docs.embeddings;
+
+import com.springboost.docs.index.Vectors;
+
+/**
+ * Lightweight, deterministic, non-ML embeddings: a 50-dimension vector of
+ * text length, Spring keyword frequencies, code patterns and structural
+ * character counts. Kept for compatibility with indexes built before the
+ * {@link HashedEmbeddingsProvider hashed} provider became the default.
+ */
+public class SimpleEmbeddingsProvider implements EmbeddingsProvider {
+
+    public static final String NAME = "simple";
+
+    private static final String[] KEYWORDS = {
+        "spring", "boot", "security", "data", "web",
+        "controller", "service", "repository", "configuration", "bean"
+    };
+
+    private static final String[] CODE_PATTERNS = {
+        "@", "public", "class", "import", "new"
+    };
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        String normalizedText = text.toLowerCase().trim();
+        // Fixed dimension (50 dimensions for simplicity); unused slots stay zero
+        float[] embeddings = new float[50];
+        int dim = 0;
+        
+        // Feature 1: Text length (normalized)
+        embeddings[dim++] = normalizedText.length() / 1000.0f;
+        
+        // Feature 2-10: Keyword presence (Spring-related terms)
+        for (String keyword : KEYWORDS) {
+            double frequency = countOccurrences(normalizedText, keyword) / 100.0;
+            embeddings[dim++] = (float) Math.min(frequency, 1.0); // Cap at 1.0
+        }
+        
+        // Feature 11-15: Code patterns
+        for (String pattern : CODE_PATTERNS) {
+            double frequency = countOccurrences(normalizedText, pattern) / 50.0;
+            embeddings[dim++] = (float) Math.min(frequency, 1.0);
+        }
+        
+        // Feature 16-20: Structural elements
+        embeddings[dim++] = (float) (countOccurrences(normalizedText, "{") / 20.0); // Braces
+        embeddings[dim++] = (float) (countOccurrences(normalizedText, "(") / 30.0); // Parentheses
+        embeddings[dim++] = (float) (countOccurrences(normalizedText, ".") / 100.0); // Dots
+        embeddings[dim++] = (float) (countOccurrences(normalizedText, ";") / 50.0); // Semicolons
+        embeddings[dim] = (float) (countOccurrences(normalizedText, "\n") / 100.0); // Line breaks
+        
+        // Normalize the vector
+        return Vectors.normalize(embeddings);
+    }
+    
+    /**
+     * Count occurrences of a substring in text
+     */
+    private static double countOccurrences(String text, String substring) {
+        int count = 0;
+        int index = 0;
+        
+        while ((index = text.indexOf(substring, index)) != -1) {
+            count++;
+            index += substring.length();
+        }
+        
+        return count;
+    }
+}
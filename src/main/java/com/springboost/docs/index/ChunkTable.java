@@ -0,0 +1,117 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense ordinal table for indexed chunks. Every search structure refers to a
+ * chunk by the int ordinal assigned here rather than by its string id, so
+ * postings and per-document arrays stay primitive and cheap to scan.
+ *
+ * <p>An ordinal is stable for a given chunk id: re-indexing the same id
+ * reuses its slot. Removing a chunk leaves a null tombstone; ordinals are
+ * only handed out again after {@link #clear()}.
+ */
+public class ChunkTable {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Map<String, Integer> ordinalsById = new ConcurrentHashMap<>();
+
+    // Re-assigned after every write so readers get a happens-before edge
+    // through the volatile field without taking the monitor.
+    private volatile DocumentChunk[] chunks = new DocumentChunk[INITIAL_CAPACITY];
+    private volatile int size;
+    private int liveCount;
+
+    /**
+     * Store a chunk and return its ordinal, reusing the existing slot when a
+     * chunk with the same id was indexed before.
+     */
+    public synchronized int put(DocumentChunk chunk) {
+        Integer existing = ordinalsById.get(chunk.getId());
+        DocumentChunk[] table = chunks;
+
+        if (existing != null) {
+            if (table[existing] == null) {
+                liveCount++;
+            }
+            table[existing] = chunk;
+            chunks = table;
+            return existing;
+        }
+
+        int ordinal = size;
+        if (ordinal == table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[ordinal] = chunk;
+        ordinalsById.put(chunk.getId(), ordinal);
+        liveCount++;
+        chunks = table;
+        size = ordinal + 1;
+        return ordinal;
+    }
+
+    /**
+     * Tombstone the chunk with the given id.
+     *
+     * @return its ordinal, or -1 if it was not indexed
+     */
+    public synchronized int remove(String id) {
+        Integer ordinal = ordinalsById.get(id);
+        if (ordinal == null) {
+            return -1;
+        }
+
+        DocumentChunk[] table = chunks;
+        if (table[ordinal] != null) {
+            table[ordinal] = null;
+            liveCount--;
+            chunks = table;
+        }
+        return ordinal;
+    }
+
+    /**
+     * Get the chunk stored at an ordinal, or null for tombstones and
+     * out-of-range ordinals.
+     */
+    public DocumentChunk get(int ordinal) {
+        DocumentChunk[] table = chunks;
+        return ordinal >= 0 && ordinal < table.length ? table[ordinal] : null;
+    }
+
+    /**
+     * Get the ordinal assigned to a chunk id, or -1 if unknown.
+     */
+    public int ordinalOf(String id) {
+        Integer ordinal = ordinalsById.get(id);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Upper bound (exclusive) of ordinals handed out so far, including
+     * tombstoned ones. Sizes dense per-ordinal arrays.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of chunks currently stored (excluding tombstones).
+     */
+    public synchronized int liveCount() {
+        return liveCount;
+    }
+
+    public synchronized void clear() {
+        ordinalsById.clear();
+        chunks = new DocumentChunk[INITIAL_CAPACITY];
+        size = 0;
+        liveCount = 0;
+    }
+}
@@ -0,0 +1,214 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One {@link RoaringBitmap} of chunk ordinals per source, version, category
+ * and tag value, so search filters resolve to a bitmap intersection instead
+ * of a check against every chunk.
+ *
+ * <p>Fields combine with AND and requested tags with OR, matching the
+ * semantics of {@code SearchRequest}. A version ending in {@code .x} (e.g.
+ * {@code 6.x}) also matches every version starting with what precedes it.
+ */
+public class FilterIndex {
+
+    public enum Field {
+        SOURCE,
+        VERSION,
+        CATEGORY,
+        TAG
+    }
+
+    private static final String VERSION_WILDCARD = ".x";
+
+    private final Map<Field, Map<String, RoaringBitmap>> bitmaps = new EnumMap<>(Field.class);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Forward index (ordinal -> values it was filed under) so a re-indexed
+    // chunk can be taken out of its old bitmaps
+    private Value[][] docValues = new Value[256][];
+
+    public FilterIndex() {
+        for (Field field : Field.values()) {
+            bitmaps.put(field, new HashMap<>());
+        }
+    }
+
+    /**
+     * File a chunk under the given ordinal, replacing whatever was filed
+     * there before.
+     */
+    public void add(int ordinal, DocumentChunk chunk) {
+        List<Value> values = new ArrayList<>();
+        addValue(values, Field.SOURCE, chunk.getSource());
+        addValue(values, Field.VERSION, chunk.getVersion());
+        addValue(values, Field.CATEGORY, chunk.getCategory());
+        if (chunk.getTags() != null) {
+            for (String tag : chunk.getTags()) {
+                addValue(values, Field.TAG, tag);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(ordinal);
+            if (ordinal >= docValues.length) {
+                docValues = Arrays.copyOf(docValues, Math.max(ordinal + 1, docValues.length * 2));
+            }
+            for (Value value : values) {
+                bitmaps.get(value.field())
+                        .computeIfAbsent(value.value(), v -> new RoaringBitmap())
+                        .add(ordinal);
+            }
+            docValues[ordinal] = values.toArray(new Value[0]);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int ordinal) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            bitmaps.values().forEach(Map::clear);
+            docValues = new Value[256][];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinals matching every given filter; null arguments and empty tag
+     * lists don't filter.
+     *
+     * @return a private copy the caller may keep, or null if nothing filters
+     */
+    public RoaringBitmap match(String source, String version, String category, List<String> tags) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            if (source != null) {
+                result = intersect(result, exact(Field.SOURCE, source));
+            }
+            if (version != null) {
+                result = intersect(result, version(version));
+            }
+            if (category != null) {
+                result = intersect(result, exact(Field.CATEGORY, category));
+            }
+            if (tags != null && !tags.isEmpty()) {
+                RoaringBitmap anyTag = new RoaringBitmap();
+                for (String tag : tags) {
+                    anyTag = RoaringBitmap.or(anyTag, exact(Field.TAG, tag));
+                }
+                result = intersect(result, anyTag);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of chunks filed under a value.
+     */
+    public int count(Field field, String value) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap bitmap = bitmaps.get(field).get(value);
+            return bitmap != null ? bitmap.cardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap bytes held by all bitmaps.
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Map<String, RoaringBitmap> values : bitmaps.values()) {
+                for (RoaringBitmap bitmap : values.values()) {
+                    bytes += bitmap.getMemoryBytes();
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap exact(Field field, String value) {
+        RoaringBitmap bitmap = bitmaps.get(field).get(value);
+        return bitmap != null ? bitmap : new RoaringBitmap();
+    }
+
+    private RoaringBitmap version(String version) {
+        RoaringBitmap result = exact(Field.VERSION, version);
+        if (!version.endsWith(VERSION_WILDCARD)) {
+            return result;
+        }
+
+        // Keep the dot so "6.x" matches "6.1" but not "60.0"
+        String prefix = version.substring(0, version.length() - 1);
+        for (Map.Entry<String, RoaringBitmap> entry : bitmaps.get(Field.VERSION).entrySet()) {
+            if (entry.getKey().startsWith(prefix) && !entry.getKey().equals(version)) {
+                result = RoaringBitmap.or(result, entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    // The first operand is always copied so callers never see a shared bitmap
+    private static RoaringBitmap intersect(RoaringBitmap result, RoaringBitmap bitmap) {
+        return result == null ? bitmap.copy() : RoaringBitmap.and(result, bitmap);
+    }
+
+    private void removeLocked(int ordinal) {
+        if (ordinal >= docValues.length || docValues[ordinal] == null) {
+            return;
+        }
+        for (Value value : docValues[ordinal]) {
+            Map<String, RoaringBitmap> values = bitmaps.get(value.field());
+            RoaringBitmap bitmap = values.get(value.value());
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    values.remove(value.value());
+                }
+            }
+        }
+        docValues[ordinal] = null;
+    }
+
+    private static void addValue(List<Value> values, Field field, String value) {
+        if (value != null) {
+            Value entry = new Value(field, value);
+            if (!values.contains(entry)) {
+                values.add(entry);
+            }
+        }
+    }
+
+    private record Value(Field field, String value) {
+    }
+}
@@ -0,0 +1,690 @@
+package com.springboost.docs.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical Navigable Small World graph (Malkov &amp; Yashunin) for
+ * approximate nearest-neighbour search over the vectors in a
+ * {@link VectorStore}.
+ *
+ * <p>The graph only holds neighbour ordinals; vectors stay in the wrapped
+ * store, so enabling HNSW adds roughly {@code 2 * m} ints per chunk on top
+ * of the embeddings. Nodes are linked incrementally as they are added --
+ * there is no separate build step; a node whose vector changes is
+ * re-linked in place. Removed ordinals stay in the graph as routing nodes
+ * but are never returned.
+ *
+ * <p>Queries visit O(log n) nodes instead of all n. When a filter rejects
+ * so many candidates that fewer than k survive, and more matches may lie
+ * beyond the candidates the graph search kept, the search falls back to an
+ * exact scan of the store so selective filters don't lose results;
+ * {@link #topKWithin} goes straight to that scan when the candidate set is
+ * small.
+ */
+public class HnswIndex implements SemanticIndex {
+
+    public static final int DEFAULT_M = 16;
+    public static final int DEFAULT_EF_CONSTRUCTION = 200;
+    public static final int DEFAULT_EF_SEARCH = 64;
+
+    private final VectorStore store;
+    private final int m;
+    private final int maxLevel0Links;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // links[ordinal][level] = {count, neighbour1, neighbour2, ...}; null when absent
+    private int[][][] links = new int[256][][];
+    private final BitSet removed = new BitSet();
+    private int entryPoint = -1;
+    private int topLevel = -1;
+    private int nodeCount;
+
+    public HnswIndex(VectorStore store) {
+        this(store, DEFAULT_M, DEFAULT_EF_CONSTRUCTION, DEFAULT_EF_SEARCH);
+    }
+
+    public HnswIndex(VectorStore store, int m, int efConstruction, int efSearch) {
+        if (m < 2 || efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException(
+                    "Invalid HNSW parameters: m=" + m + ", efConstruction=" + efConstruction + ", efSearch=" + efSearch);
+        }
+        this.store = store;
+        this.m = m;
+        this.maxLevel0Links = 2 * m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    @Override
+    public String getType() {
+        return "hnsw";
+    }
+
+    @Override
+    public boolean add(int ordinal, float[] vector) {
+        lock.writeLock().lock();
+        try {
+            boolean linked = ordinal < links.length && links[ordinal] != null;
+            float[] previous = linked ? store.get(ordinal) : null;
+            if (!store.add(ordinal, vector)) {
+                removed.set(ordinal);
+                return false;
+            }
+
+            removed.clear(ordinal);
+            if (linked && Arrays.equals(previous, vector)) {
+                // Same vector re-indexed: the existing links remain valid
+                return true;
+            }
+
+            store.lock().readLock().lock();
+            try {
+                if (linked) {
+                    relink(ordinal);
+                } else {
+                    insert(ordinal);
+                }
+            } finally {
+                store.lock().readLock().unlock();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int ordinal) {
+        lock.writeLock().lock();
+        try {
+            removed.set(ordinal);
+            store.remove(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            store.clear();
+            links = new int[256][][];
+            removed.clear();
+            entryPoint = -1;
+            topLevel = -1;
+            nodeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-link every vector currently in the store, discarding the old graph.
+     */
+    @Override
+    public void rebuildFromStore() {
+        lock.writeLock().lock();
+        try {
+            links = new int[256][][];
+            removed.clear();
+            entryPoint = -1;
+            topLevel = -1;
+            nodeCount = 0;
+            random.setSeed(42);
+
+            store.lock().readLock().lock();
+            try {
+                for (int ordinal = store.nextPresentUnlocked(0); ordinal >= 0;
+                        ordinal = store.nextPresentUnlocked(ordinal + 1)) {
+                    insert(ordinal);
+                }
+            } finally {
+                store.lock().readLock().unlock();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Write the links of every node the snapshot keeps with a vector; links
+     * to dropped nodes are left out.
+     */
+    @Override
+    public void writeTo(DataOutput out, int[] remap, int count) throws IOException {
+        lock.readLock().lock();
+        try {
+            store.lock().readLock().lock();
+            try {
+                int nodes = 0;
+                int entry = -1;
+                for (int ordinal = 0; ordinal < Math.min(remap.length, links.length); ordinal++) {
+                    if (kept(ordinal, remap)) {
+                        nodes++;
+                        if (entry < 0 || links[ordinal].length > links[entry].length) {
+                            entry = ordinal;
+                        }
+                    }
+                }
+                if (entryPoint >= 0 && kept(entryPoint, remap)) {
+                    entry = entryPoint;
+                }
+
+                out.writeInt(m);
+                out.writeInt(count);
+                out.writeInt(entry >= 0 ? remap[entry] : -1);
+                out.writeInt(nodes);
+                for (int ordinal = 0; ordinal < Math.min(remap.length, links.length); ordinal++) {
+                    if (!kept(ordinal, remap)) {
+                        continue;
+                    }
+                    int[][] nodeLinks = links[ordinal];
+                    out.writeInt(remap[ordinal]);
+                    out.writeInt(nodeLinks.length);
+                    for (int[] neighbours : nodeLinks) {
+                        int size = 0;
+                        for (int i = 1; i <= neighbours[0]; i++) {
+                            if (kept(neighbours[i], remap)) {
+                                size++;
+                            }
+                        }
+                        out.writeInt(size);
+                        for (int i = 1; i <= neighbours[0]; i++) {
+                            if (kept(neighbours[i], remap)) {
+                                out.writeInt(remap[neighbours[i]]);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                store.lock().readLock().unlock();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the graph with one written by {@link #writeTo}. A graph built
+     * with a different {@code m} is not adopted.
+     */
+    @Override
+    public boolean readFrom(DataInput in) throws IOException {
+        if (in.readInt() != m) {
+            return false;
+        }
+        int count = in.readInt();
+        int entry = in.readInt();
+        // A node is at least its ordinal and its level count
+        int nodes = IndexSnapshot.readCount(in, 2 * Integer.BYTES);
+        if (nodes > count || entry >= count) {
+            throw new IOException("Corrupt HNSW graph: " + nodes + " nodes, entry " + entry + " of " + count);
+        }
+        // Sized by the nodes actually read rather than the stored count
+        int[][][] loaded = new int[Math.max(Math.min(count, nodes * 2), 256)][][];
+        for (int n = 0; n < nodes; n++) {
+            int ordinal = in.readInt();
+            if (ordinal < 0 || ordinal >= count) {
+                throw new IOException("Corrupt HNSW node ordinal " + ordinal);
+            }
+            if (ordinal >= loaded.length) {
+                loaded = Arrays.copyOf(loaded, Math.min(count, Math.max(ordinal + 1, loaded.length * 2)));
+            }
+            int[][] nodeLinks = new int[IndexSnapshot.readCount(in, Integer.BYTES)][];
+            for (int level = 0; level < nodeLinks.length; level++) {
+                int[] neighbours = new int[(level == 0 ? maxLevel0Links : m) + 1];
+                int size = in.readInt();
+                if (size < 0 || size >= neighbours.length) {
+                    throw new IOException("Corrupt HNSW links for ordinal " + ordinal);
+                }
+                neighbours[0] = size;
+                for (int i = 1; i <= size; i++) {
+                    neighbours[i] = in.readInt();
+                }
+                nodeLinks[level] = neighbours;
+            }
+            loaded[ordinal] = nodeLinks;
+        }
+        if (entry >= 0 && (entry >= loaded.length || loaded[entry] == null)) {
+            throw new IOException("Corrupt HNSW graph: entry point " + entry + " has no links");
+        }
+
+        lock.writeLock().lock();
+        try {
+            links = loaded;
+            removed.clear();
+            nodeCount = nodes;
+            entryPoint = entry;
+            topLevel = entry >= 0 ? loaded[entry].length - 1 : -1;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public TopKCollector topK(float[] query, int k, double minScore, IntPredicate filter) {
+        lock.readLock().lock();
+        try {
+            TopKCollector result = new TopKCollector(k);
+            if (entryPoint < 0 || query == null || query.length != store.getDimension()) {
+                return result;
+            }
+
+            // Whether the filter may have hidden results the graph search
+            // didn't reach: it rejected a candidate, and even the last of a
+            // full candidate list cleared minScore
+            boolean filterLimited = false;
+            store.lock().readLock().lock();
+            try {
+                int current = entryPoint;
+                for (int level = topLevel; level > 0; level--) {
+                    current = greedyClosest(query, current, level);
+                }
+
+                int ef = Math.max(efSearch, k);
+                TopKCollector candidates = searchLayer(query, current, ef, 0);
+                int[] ordinals = new int[candidates.size()];
+                float[] scores = new float[candidates.size()];
+                int[] index = {0};
+                candidates.drainDescending((ordinal, score) -> {
+                    ordinals[index[0]] = ordinal;
+                    scores[index[0]++] = (float) score;
+                });
+
+                boolean filteredOut = false;
+                for (int i = 0; i < ordinals.length; i++) {
+                    if (removed.get(ordinals[i]) || scores[i] < minScore) {
+                        continue;
+                    }
+                    if (filter != null && !filter.test(ordinals[i])) {
+                        filteredOut = true;
+                        continue;
+                    }
+                    result.offer(ordinals[i], scores[i]);
+                }
+                filterLimited = filteredOut && ordinals.length == ef && scores[ef - 1] >= minScore;
+            } finally {
+                store.lock().readLock().unlock();
+            }
+
+            if (filterLimited && result.size() < k) {
+                return store.topK(query, k, minScore, filter);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scan the candidates exactly when there are fewer of them than a graph
+     * search would visit anyway; only broad filters go through the graph.
+     */
+    @Override
+    public TopKCollector topKWithin(float[] query, int k, double minScore, RoaringBitmap candidates) {
+        if (candidates.cardinality() <= (long) Math.max(efSearch, k) * maxLevel0Links) {
+            return store.topKWithin(query, k, minScore, candidates);
+        }
+        return topK(query, k, minScore, candidates::contains);
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeCount - removed.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getM() {
+        return m;
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    public int getEfConstruction() {
+        return efConstruction;
+    }
+
+    public int getTopLevel() {
+        lock.readLock().lock();
+        try {
+            return topLevel;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Link a new node into every layer up to its randomly drawn level.
+     * Caller holds the write lock and the store's read lock.
+     */
+    private void insert(int ordinal) {
+        int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+        ensureCapacity(ordinal + 1);
+
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[(l == 0 ? maxLevel0Links : m) + 1];
+        }
+        links[ordinal] = nodeLinks;
+        nodeCount++;
+
+        if (entryPoint < 0) {
+            entryPoint = ordinal;
+            topLevel = level;
+            return;
+        }
+
+        float[] vector = store.get(ordinal);
+        int current = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            TopKCollector candidates = searchLayer(vector, current, efConstruction, l);
+            int[] sorted = drainOrdinals(candidates);
+            int[] neighbours = selectNeighbours(ordinal, sorted, l == 0 ? maxLevel0Links : m);
+
+            for (int neighbour : neighbours) {
+                connect(ordinal, neighbour, l);
+                connect(neighbour, ordinal, l);
+            }
+            if (sorted.length > 0) {
+                current = sorted[0];
+            }
+        }
+
+        if (level > topLevel) {
+            entryPoint = ordinal;
+            topLevel = level;
+        }
+    }
+
+    /**
+     * Replace the links of a node whose vector changed with ones found for
+     * the new vector, on the levels it already has. Links other nodes hold
+     * to it are kept as routing edges until their lists are next pruned.
+     * Caller holds the write lock and the store's read lock.
+     */
+    private void relink(int ordinal) {
+        int[][] nodeLinks = links[ordinal];
+        int level = nodeLinks.length - 1;
+        float[] vector = store.get(ordinal);
+        int current = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+
+        // Search the graph as it is before dropping the old links, so a
+        // node that is the entry point still has a way out
+        int[][] chosen = new int[level + 1][];
+        for (int l = level; l >= 0; l--) {
+            int[] sorted = drainOrdinals(searchLayer(vector, current, efConstruction, l));
+            chosen[l] = selectNeighbours(ordinal, sorted, l == 0 ? maxLevel0Links : m);
+            for (int candidate : sorted) {
+                if (candidate != ordinal) {
+                    current = candidate;
+                    break;
+                }
+            }
+        }
+
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l][0] = 0;
+            for (int neighbour : chosen[l]) {
+                connect(ordinal, neighbour, l);
+                connect(neighbour, ordinal, l);
+            }
+        }
+    }
+
+    /**
+     * Walk greedily towards the query on one layer.
+     */
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float best = store.dotUnlocked(current, query);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbours = links[current][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int candidate = neighbours[i];
+                float score = store.dotUnlocked(candidate, query);
+                if (score > best) {
+                    best = score;
+                    current = candidate;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on one layer, keeping the ef best nodes found.
+     */
+    private TopKCollector searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(links.length);
+        CandidateQueue candidates = new CandidateQueue();
+        TopKCollector best = new TopKCollector(ef);
+
+        float startScore = store.dotUnlocked(start, query);
+        visited.set(start);
+        candidates.push(start, startScore);
+        best.offer(start, startScore);
+
+        while (candidates.size > 0) {
+            float score = candidates.topScore();
+            if (best.size() >= ef && score < best.threshold()) {
+                break;
+            }
+            int node = candidates.pop();
+
+            int[] neighbours = links[node][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int candidate = neighbours[i];
+                if (visited.get(candidate)) {
+                    continue;
+                }
+                visited.set(candidate);
+
+                float candidateScore = store.dotUnlocked(candidate, query);
+                if (best.size() < ef || candidateScore > best.threshold()) {
+                    candidates.push(candidate, candidateScore);
+                    best.offer(candidate, candidateScore);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Neighbour-selection heuristic: keep a candidate only if it is closer to
+     * the base node than to every neighbour already kept, which spreads links
+     * across clusters; then top up with the closest pruned candidates.
+     *
+     * @param sorted candidates in descending similarity to {@code base}
+     */
+    private int[] selectNeighbours(int base, int[] sorted, int max) {
+        int[] selected = new int[Math.min(max, sorted.length)];
+        boolean[] taken = new boolean[sorted.length];
+        int count = 0;
+
+        for (int i = 0; i < sorted.length && count < max; i++) {
+            int candidate = sorted[i];
+            if (candidate == base) {
+                taken[i] = true;
+                continue;
+            }
+            float toBase = store.dotUnlocked(candidate, base);
+            boolean diverse = true;
+            for (int j = 0; j < count; j++) {
+                if (store.dotUnlocked(candidate, selected[j]) > toBase) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate;
+                taken[i] = true;
+            }
+        }
+
+        for (int i = 0; i < sorted.length && count < selected.length; i++) {
+            if (!taken[i]) {
+                selected[count++] = sorted[i];
+            }
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Add a directed link, re-pruning the node's list when it overflows.
+     */
+    private void connect(int from, int to, int level) {
+        int[] neighbours = links[from][level];
+        int count = neighbours[0];
+        for (int i = 1; i <= count; i++) {
+            if (neighbours[i] == to) {
+                return;
+            }
+        }
+
+        int max = neighbours.length - 1;
+        if (count < max) {
+            neighbours[count + 1] = to;
+            neighbours[0] = count + 1;
+            return;
+        }
+
+        int[] pool = new int[count + 1];
+        System.arraycopy(neighbours, 1, pool, 0, count);
+        pool[count] = to;
+        sortBySimilarity(from, pool);
+
+        int[] kept = selectNeighbours(from, pool, max);
+        neighbours[0] = kept.length;
+        System.arraycopy(kept, 0, neighbours, 1, kept.length);
+    }
+
+    private void sortBySimilarity(int base, int[] ordinals) {
+        float[] scores = new float[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            scores[i] = store.dotUnlocked(base, ordinals[i]);
+        }
+        // Insertion sort: pools are at most 2m + 1 long
+        for (int i = 1; i < ordinals.length; i++) {
+            int ordinal = ordinals[i];
+            float score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                ordinals[j + 1] = ordinals[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            ordinals[j + 1] = ordinal;
+            scores[j + 1] = score;
+        }
+    }
+
+    // Caller holds the store's read lock
+    private boolean kept(int ordinal, int[] remap) {
+        return ordinal < remap.length && remap[ordinal] >= 0 && ordinal < links.length
+                && links[ordinal] != null && !removed.get(ordinal) && store.containsUnlocked(ordinal);
+    }
+
+    private static int[] drainOrdinals(TopKCollector collector) {
+        int[] ordinals = new int[collector.size()];
+        int[] index = {0};
+        collector.drainDescending((ordinal, score) -> ordinals[index[0]++] = ordinal);
+        return ordinals;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > links.length) {
+            links = Arrays.copyOf(links, Math.max(capacity, links.length * 2));
+        }
+    }
+
+    /**
+     * Unbounded max-heap of (ordinal, score): the frontier of a layer search.
+     */
+    private static final class CandidateQueue {
+        int[] ordinals = new int[64];
+        float[] scores = new float[64];
+        int size;
+
+        void push(int ordinal, float score) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int index = size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (scores[parent] >= score) {
+                    break;
+                }
+                ordinals[index] = ordinals[parent];
+                scores[index] = scores[parent];
+                index = parent;
+            }
+            ordinals[index] = ordinal;
+            scores[index] = score;
+        }
+
+        float topScore() {
+            return scores[0];
+        }
+
+        int pop() {
+            int top = ordinals[0];
+            size--;
+            if (size > 0) {
+                int ordinal = ordinals[size];
+                float score = scores[size];
+                int index = 0;
+                while (true) {
+                    int child = 2 * index + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && scores[child + 1] > scores[child]) {
+                        child++;
+                    }
+                    if (scores[child] <= score) {
+                        break;
+                    }
+                    ordinals[index] = ordinals[child];
+                    scores[index] = scores[child];
+                    index = child;
+                }
+                ordinals[index] = ordinal;
+                scores[index] = score;
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary on-disk snapshot of the documentation index: chunks, keyword
+ * postings, the embedding matrix, whatever the semantic index builds on it
+ * and the near-duplicate signatures, so a cold daemon can serve searches
+ * without re-parsing, re-embedding, re-linking or re-hashing anything.
+ *
+ * <p>Layout:
+ * <pre>
+ *   header   magic, format version, identity, chunk count, dimension, vector offset
+ *   chunks   one record per chunk, ordinals renumbered densely (tombstones dropped)
+ *   postings {@link KeywordIndex} section
+ *   presence bitmap of chunks that have a vector
+ *   semantic {@link SemanticIndex} type and its length-prefixed section
+ *   near-duplicates {@link NearDuplicateIndex} section, or -1 if not saved
+ *   vectors  chunk count x dimension floats, 8-byte aligned, little-endian
+ * </pre>
+ * Everything before the vectors is big-endian {@link DataOutput}. The vector
+ * matrix is mapped with {@link FileChannel#map} and handed to the
+ * {@link VectorStore} as is -- it is never read onto the heap by the store.
+ *
+ * <p>A snapshot is only loaded if its identity string matches the caller's,
+ * which ties it to the jar (and configuration) that wrote it.
+ */
+public final class IndexSnapshot {
+
+    static final int MAGIC = 0x53424958; // "SBIX"
+    static final int FORMAT_VERSION = 3;
+    // Smallest chunk record: sixteen length or count fields, all -1
+    private static final int MIN_CHUNK_BYTES = 16 * Integer.BYTES;
+
+    private IndexSnapshot() {
+    }
+
+    /**
+     * Write the live contents of the index to {@code file}, replacing it
+     * atomically. Caller must keep the structures from changing meanwhile.
+     */
+    public static void write(Path file, String identity, ChunkTable chunks,
+                             KeywordIndex keywordIndex, VectorStore vectors) throws IOException {
+        write(file, identity, chunks, keywordIndex, vectors, vectors);
+    }
+
+    /**
+     * Like {@link #write(Path, String, ChunkTable, KeywordIndex, VectorStore)},
+     * also saving what the semantic index built over the store's vectors.
+     */
+    public static void write(Path file, String identity, ChunkTable chunks, KeywordIndex keywordIndex,
+                             VectorStore vectors, SemanticIndex semanticIndex) throws IOException {
+        write(file, identity, chunks, keywordIndex, vectors, semanticIndex, null);
+    }
+
+    /**
+     * Like {@link #write(Path, String, ChunkTable, KeywordIndex, VectorStore, SemanticIndex)},
+     * also saving the near-duplicate signatures and clusters if given.
+     */
+    public static void write(Path file, String identity, ChunkTable chunks, KeywordIndex keywordIndex,
+                             VectorStore vectors, SemanticIndex semanticIndex,
+                             NearDuplicateIndex nearDuplicates) throws IOException {
+        int[] remap = new int[chunks.size()];
+        List<DocumentChunk> live = new ArrayList<>(chunks.size());
+        for (int ordinal = 0; ordinal < chunks.size(); ordinal++) {
+            DocumentChunk chunk = chunks.get(ordinal);
+            remap[ordinal] = chunk != null ? live.size() : -1;
+            if (chunk != null) {
+                live.add(chunk);
+            }
+        }
+        int count = live.size();
+        int dimension = vectors.getDimension();
+
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        for (DocumentChunk chunk : live) {
+            writeChunk(body, chunk);
+        }
+        keywordIndex.writeTo(body, remap, count);
+
+        BitSet withVector = new BitSet(count);
+        for (int ordinal = 0; ordinal < remap.length; ordinal++) {
+            if (remap[ordinal] >= 0 && vectors.contains(ordinal)) {
+                withVector.set(remap[ordinal]);
+            }
+        }
+        long[] words = withVector.toLongArray();
+        body.writeInt(words.length);
+        for (long word : words) {
+            body.writeLong(word);
+        }
+
+        ByteArrayOutputStream semanticBytes = new ByteArrayOutputStream();
+        DataOutputStream semantic = new DataOutputStream(semanticBytes);
+        semanticIndex.writeTo(semantic, remap, count);
+        semantic.flush();
+        writeString(body, semanticIndex.getType());
+        body.writeInt(semanticBytes.size());
+        semanticBytes.writeTo(body);
+        if (nearDuplicates != null) {
+            nearDuplicates.writeTo(body, remap, count);
+        } else {
+            body.writeInt(-1);
+        }
+        body.flush();
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeInt(FORMAT_VERSION);
+        writeString(header, identity);
+        header.writeInt(count);
+        header.writeInt(dimension);
+        int headerLength = header.size() + Long.BYTES;
+        long vectorOffset = align8((long) headerLength + bodyBytes.size());
+        header.writeLong(vectorOffset);
+        header.flush();
+
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, ByteBuffer.wrap(headerBytes.toByteArray()));
+                writeFully(channel, ByteBuffer.wrap(bodyBytes.toByteArray()));
+                writeFully(channel, ByteBuffer.allocate((int) (vectorOffset - channel.position())));
+                if (dimension > 0) {
+                    writeVectors(channel, live.size(), dimension, remap, vectors);
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Load a snapshot into the given (cleared) keyword index and vector
+     * store, and return its chunks in ordinal order. The semantic index
+     * adopts its saved section if it wrote it, and is rebuilt from the
+     * store otherwise.
+     *
+     * @return the chunks, or null if there is no snapshot or it was written
+     * by a different identity or format version
+     * @throws IOException if the file is unreadable, truncated or holds a
+     * length the rest of it can't; the structures may then be partially
+     * filled and should be cleared
+     */
+    public static List<DocumentChunk> read(Path file, String identity, KeywordIndex keywordIndex,
+                                           VectorStore vectors, SemanticIndex semanticIndex) throws IOException {
+        return read(file, identity, keywordIndex, vectors, semanticIndex, null);
+    }
+
+    /**
+     * Like {@link #read(Path, String, KeywordIndex, VectorStore, SemanticIndex)},
+     * also loading the given (cleared) near-duplicate index: from its saved
+     * section, or from the chunks if the snapshot has none.
+     */
+    public static List<DocumentChunk> read(Path file, String identity, KeywordIndex keywordIndex, VectorStore vectors,
+                                           SemanticIndex semanticIndex, NearDuplicateIndex nearDuplicates) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        // PRIVATE (copy-on-write) so the store can overwrite rows in place
+        // without the changes ever reaching the file
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mapped = channel.map(FileChannel.MapMode.PRIVATE, 0, channel.size());
+        }
+        return read(mapped, file.toString(), identity, keywordIndex, vectors, semanticIndex, nearDuplicates);
+    }
+
+    public static List<DocumentChunk> read(Path file, String identity,
+                                           KeywordIndex keywordIndex, VectorStore vectors) throws IOException {
+        return read(file, identity, keywordIndex, vectors, vectors);
+    }
+
+    /**
+     * Load a snapshot from a stream that can't be mapped, such as a
+     * resource inside the jar. It is read whole, in one go, into off-heap
+     * memory that then backs the vector store exactly like a mapped file.
+     *
+     * @param name what to call the snapshot in error messages
+     * @see #read(Path, String, KeywordIndex, VectorStore, SemanticIndex, NearDuplicateIndex)
+     */
+    public static List<DocumentChunk> read(InputStream stream, String name, String identity, KeywordIndex keywordIndex,
+                                           VectorStore vectors, SemanticIndex semanticIndex,
+                                           NearDuplicateIndex nearDuplicates) throws IOException {
+        byte[] bytes = stream.readAllBytes();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        return read(buffer, name, identity, keywordIndex, vectors, semanticIndex, nearDuplicates);
+    }
+
+    public static List<DocumentChunk> read(InputStream stream, String name, String identity, KeywordIndex keywordIndex,
+                                           VectorStore vectors, SemanticIndex semanticIndex) throws IOException {
+        return read(stream, name, identity, keywordIndex, vectors, semanticIndex, null);
+    }
+
+    public static List<DocumentChunk> read(InputStream stream, String name, String identity,
+                                           KeywordIndex keywordIndex, VectorStore vectors) throws IOException {
+        return read(stream, name, identity, keywordIndex, vectors, vectors, null);
+    }
+
+    private static List<DocumentChunk> read(ByteBuffer snapshot, String name, String identity,
+                                            KeywordIndex keywordIndex, VectorStore vectors, SemanticIndex semanticIndex,
+                                            NearDuplicateIndex nearDuplicates) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(snapshot.duplicate()));
+        if (snapshot.capacity() < 8 || in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            return null;
+        }
+        if (!identity.equals(readString(in))) {
+            return null;
+        }
+        int count = readCount(in, MIN_CHUNK_BYTES);
+        int dimension = in.readInt();
+        long vectorOffset = in.readLong();
+        long vectorBytes = (long) count * Math.max(dimension, 0) * Float.BYTES;
+        if (dimension < -1 || vectorOffset < 0 || vectorOffset + vectorBytes > snapshot.capacity()) {
+            throw new IOException("Index snapshot is truncated: " + name);
+        }
+
+        List<DocumentChunk> chunks = new ArrayList<>(count);
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            chunks.add(readChunk(in));
+        }
+        keywordIndex.readFrom(in);
+
+        long[] words = new long[readCount(in, Long.BYTES)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        BitSet withVector = BitSet.valueOf(words);
+
+        String semanticType = readString(in);
+        byte[] semanticSection = new byte[readCount(in, 1)];
+        in.readFully(semanticSection);
+
+        FloatBuffer rows = snapshot.slice((int) vectorOffset, (int) vectorBytes)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer();
+        // The store keeps the rows; chunks are returned without embeddings
+        vectors.adopt(rows, dimension, count, withVector);
+
+        boolean adopted = semanticIndex.getType().equals(semanticType)
+                && semanticIndex.readFrom(new DataInputStream(new ByteArrayInputStream(semanticSection)));
+        if (!adopted) {
+            semanticIndex.rebuildFromStore();
+        }
+        // The last section before the vectors, so it can be left unread
+        if (nearDuplicates != null && !nearDuplicates.readFrom(in, count)) {
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                nearDuplicates.add(ordinal, chunks.get(ordinal));
+            }
+        }
+        return chunks;
+    }
+
+    private static void writeVectors(FileChannel channel, int count, int dimension,
+                                     int[] remap, VectorStore vectors) throws IOException {
+        ByteBuffer row = ByteBuffer.allocate(dimension * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int written = 0;
+        for (int ordinal = 0; ordinal < remap.length; ordinal++) {
+            if (remap[ordinal] < 0) {
+                continue;
+            }
+            float[] vector = vectors.get(ordinal);
+            row.clear();
+            for (int i = 0; i < dimension; i++) {
+                row.putFloat(vector != null ? vector[i] : 0f);
+            }
+            row.flip();
+            writeFully(channel, row);
+            written++;
+        }
+        if (written != count) {
+            throw new IllegalStateException("Wrote " + written + " vectors, expected " + count);
+        }
+    }
+
+    private static void writeChunk(DataOutput out, DocumentChunk chunk) throws IOException {
+        writeString(out, chunk.getId());
+        writeString(out, chunk.getTitle());
+        writeString(out, chunk.getContent());
+        writeString(out, chunk.getUrl());
+        writeString(out, chunk.getSource());
+        writeString(out, chunk.getVersion());
+        writeString(out, chunk.getCategory());
+        writeStrings(out, chunk.getTags());
+        writeMetadata(out, chunk.getMetadata());
+        out.writeInt(chunk.getEmbeddingDimension());
+        out.writeInt(chunk.getWordCount());
+        writeStrings(out, chunk.getCodeSnippets());
+        writeStrings(out, chunk.getConfigurationExamples());
+        writeString(out, chunk.getCreatedAt() != null ? chunk.getCreatedAt().toString() : null);
+        writeString(out, chunk.getUpdatedAt() != null ? chunk.getUpdatedAt().toString() : null);
+        writeString(out, chunk.getChecksum());
+    }
+
+    private static DocumentChunk readChunk(DataInput in) throws IOException {
+        DocumentChunk chunk = new DocumentChunk();
+        chunk.setId(readString(in));
+        chunk.setTitle(readString(in));
+        chunk.setContent(readString(in));
+        chunk.setUrl(readString(in));
+        chunk.setSource(readString(in));
+        chunk.setVersion(readString(in));
+        chunk.setCategory(readString(in));
+        chunk.setTags(readStrings(in));
+        chunk.setMetadata(readMetadata(in));
+        chunk.setEmbeddingDimension(in.readInt());
+        chunk.setWordCount(in.readInt());
+        chunk.setCodeSnippets(readStrings(in));
+        chunk.setConfigurationExamples(readStrings(in));
+        String createdAt = readString(in);
+        chunk.setCreatedAt(createdAt != null ? LocalDateTime.parse(createdAt) : null);
+        String updatedAt = readString(in);
+        chunk.setUpdatedAt(updatedAt != null ? LocalDateTime.parse(updatedAt) : null);
+        chunk.setChecksum(readString(in));
+        return chunk;
+    }
+
+    // Metadata values are persisted as strings; nothing stores richer types yet
+    private static void writeMetadata(DataOutput out, Map<String, Object> metadata) throws IOException {
+        if (metadata == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(metadata.size());
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue() != null ? String.valueOf(entry.getValue()) : null);
+        }
+    }
+
+    private static Map<String, Object> readMetadata(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        checkCount(in, size, 2 * Integer.BYTES);
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            metadata.put(readString(in), readString(in));
+        }
+        return metadata;
+    }
+
+    private static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        checkCount(in, size, Integer.BYTES);
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    // Length-prefixed UTF-8; writeUTF caps strings at 64KB, too small for content
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        checkCount(in, length, 1);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read a count of items of at least {@code bytesEach} bytes, such as an
+     * array length, and check the rest of the input can hold them before
+     * the caller allocates anything for them.
+     */
+    static int readCount(DataInput in, int bytesEach) throws IOException {
+        int count = in.readInt();
+        checkCount(in, count, bytesEach);
+        return count;
+    }
+
+    /**
+     * Reject a count that is negative or more than the rest of the input
+     * can hold, so a corrupt snapshot fails its load with an IOException
+     * instead of an OutOfMemoryError.
+     */
+    static void checkCount(DataInput in, int count, int bytesEach) throws IOException {
+        long remaining = in instanceof InputStream stream ? stream.available() : Long.MAX_VALUE;
+        if (count < 0 || (long) count * bytesEach > remaining) {
+            throw new IOException("Corrupt index snapshot: " + count + " items of " + bytesEach
+                    + " bytes with " + remaining + " bytes left");
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long align8(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /**
+     * Sequential reads straight from the mapped file or buffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over chunk title, tags and content with BM25 scoring.
+ *
+ * <p>Each term maps to a postings list of (ordinal, weighted term frequency)
+ * pairs. Title and tag occurrences are folded into the frequency with a
+ * boost (BM25F-style), so one postings lookup per query term is enough --
+ * the query never touches documents that don't contain at least one term.
+ *
+ * <p>Scores are normalized into [0, 1) by dividing by the best score any
+ * document could reach for the query, which keeps them comparable with
+ * cosine similarities in hybrid search and makes {@code minRelevanceScore}
+ * mean the same thing for every query.
+ */
+public class KeywordIndex {
+
+    public static final double DEFAULT_TITLE_BOOST = 3.0;
+    public static final double DEFAULT_TAG_BOOST = 2.0;
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    private static final double FUZZY_WEIGHT = 0.5;
+    private static final double FUZZY_MIN_SIMILARITY = 0.75;
+    private static final int FUZZY_MAX_LENGTH_DELTA = 2;
+
+    private final double titleBoost;
+    private final double tagBoost;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    // Same vocabulary, trigram-indexed for fuzzy expansion
+    private TermDictionary dictionary = new TermDictionary();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Forward index (ordinal -> distinct terms) so a re-indexed chunk can
+    // drop its old postings, plus weighted document lengths for BM25.
+    private String[][] docTerms = new String[256][];
+    private float[] docLengths = new float[256];
+    private int docCount;
+    private double totalLength;
+
+    public KeywordIndex() {
+        this(DEFAULT_TITLE_BOOST, DEFAULT_TAG_BOOST);
+    }
+
+    public KeywordIndex(double titleBoost, double tagBoost) {
+        this.titleBoost = titleBoost;
+        this.tagBoost = tagBoost;
+    }
+
+    /**
+     * Index a chunk under the given ordinal, replacing whatever was indexed
+     * there before.
+     */
+    public void add(int ordinal, DocumentChunk chunk) {
+        Map<String, Float> frequencies = new LinkedHashMap<>();
+        float length = accumulate(frequencies, chunk.getContent(), 1.0f)
+                + accumulate(frequencies, chunk.getTitle(), (float) titleBoost);
+        if (chunk.getTags() != null) {
+            for (String tag : chunk.getTags()) {
+                length += accumulate(frequencies, tag, (float) tagBoost);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(ordinal);
+            ensureCapacity(ordinal + 1);
+
+            String[] terms = new String[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), this::newPostings).add(ordinal, entry.getValue());
+                terms[i++] = entry.getKey();
+            }
+
+            docTerms[ordinal] = terms;
+            docLengths[ordinal] = length;
+            docCount++;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove whatever is indexed under the given ordinal.
+     */
+    public void remove(int ordinal) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            dictionary.clear();
+            docTerms = new String[256][];
+            docLengths = new float[256];
+            docCount = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Score every document containing at least one query term and hand each
+     * (ordinal, score) pair to the consumer, in no particular order.
+     *
+     * @param queryTerms already-tokenized query terms
+     * @param fuzzy      also match vocabulary terms within a small edit
+     *                   distance of each query term, at reduced weight
+     */
+    public void search(List<String> queryTerms, boolean fuzzy, ScoreConsumer consumer) {
+        search(queryTerms, fuzzy, null, consumer);
+    }
+
+    /**
+     * Like {@link #search(List, boolean, ScoreConsumer)}, skipping postings
+     * outside the candidate set before they are scored.
+     *
+     * @param candidates ordinals to consider, or null for all
+     */
+    public void search(List<String> queryTerms, boolean fuzzy, RoaringBitmap candidates, ScoreConsumer consumer) {
+        lock.readLock().lock();
+        try {
+            if (docCount == 0 || queryTerms.isEmpty()) {
+                return;
+            }
+
+            Map<String, Double> weightedTerms = expandQuery(queryTerms, fuzzy);
+            double avgLength = totalLength / docCount;
+            double maxScore = 0.0;
+
+            // Sized by the postings the query can touch, not by the corpus
+            int postingCount = 0;
+            for (String term : weightedTerms.keySet()) {
+                Postings list = postings.get(term);
+                postingCount += list != null ? list.size : 0;
+            }
+            ScoreAccumulator scores = new ScoreAccumulator(postingCount);
+
+            for (Map.Entry<String, Double> entry : weightedTerms.entrySet()) {
+                double weight = entry.getValue();
+                Postings list = postings.get(entry.getKey());
+                double idf = list != null ? idf(list.size) : idf(0);
+                maxScore += weight * idf * (K1 + 1);
+
+                if (list == null) {
+                    continue;
+                }
+
+                for (int p = 0; p < list.size; p++) {
+                    int ordinal = list.docs[p];
+                    if (candidates != null && !candidates.contains(ordinal)) {
+                        continue;
+                    }
+                    float tf = list.frequencies[p];
+                    double norm = K1 * (1 - B + B * docLengths[ordinal] / avgLength);
+                    scores.add(ordinal, weight * idf * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+
+            if (maxScore <= 0.0) {
+                return;
+            }
+
+            double normalizer = maxScore;
+            scores.forEach((ordinal, score) -> consumer.accept(ordinal, score / normalizer));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of documents containing the term.
+     */
+    public int documentFrequency(String term) {
+        lock.readLock().lock();
+        try {
+            Postings list = postings.get(term);
+            return list != null ? list.size : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getVocabularySize() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write the index to a snapshot, renumbering ordinals through
+     * {@code remap} (old ordinal to new, -1 for ordinals that are dropped).
+     */
+    void writeTo(DataOutput out, int[] remap, int count) throws IOException {
+        lock.readLock().lock();
+        try {
+            // -1 marks ordinals with nothing indexed
+            float[] lengths = new float[count];
+            Arrays.fill(lengths, -1f);
+            for (int ordinal = 0; ordinal < Math.min(remap.length, docTerms.length); ordinal++) {
+                if (remap[ordinal] >= 0 && docTerms[ordinal] != null) {
+                    lengths[remap[ordinal]] = docLengths[ordinal];
+                }
+            }
+
+            out.writeInt(count);
+            for (float length : lengths) {
+                out.writeFloat(length);
+            }
+
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings list = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeInt(list.size);
+                for (int p = 0; p < list.size; p++) {
+                    out.writeInt(remap[list.docs[p]]);
+                    out.writeFloat(list.frequencies[p]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the contents with a snapshot written by {@link #writeTo}. The
+     * forward index is rebuilt from the postings rather than stored.
+     */
+    void readFrom(DataInput in) throws IOException {
+        int count = IndexSnapshot.readCount(in, Float.BYTES);
+        float[] lengths = new float[Math.max(count, 256)];
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            lengths[ordinal] = in.readFloat();
+        }
+
+        // A term is at least its (empty) UTF-8 length and its postings size
+        int termCount = IndexSnapshot.readCount(in, Short.BYTES + Integer.BYTES);
+        Map<String, Postings> loaded = new HashMap<>(termCount * 4 / 3 + 1);
+        int[] termsPerDoc = new int[lengths.length];
+        for (int t = 0; t < termCount; t++) {
+            String term = in.readUTF();
+            int size = IndexSnapshot.readCount(in, Integer.BYTES + Float.BYTES);
+            Postings list = new Postings(size);
+            for (int p = 0; p < size; p++) {
+                int ordinal = in.readInt();
+                if (ordinal < 0 || ordinal >= count) {
+                    throw new IOException("Corrupt postings ordinal " + ordinal + " for term " + term);
+                }
+                list.add(ordinal, in.readFloat());
+                termsPerDoc[ordinal]++;
+            }
+            loaded.put(term, list);
+        }
+
+        String[][] terms = new String[lengths.length][];
+        int documents = 0;
+        double total = 0;
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            if (lengths[ordinal] < 0) {
+                lengths[ordinal] = 0;
+                continue;
+            }
+            terms[ordinal] = new String[termsPerDoc[ordinal]];
+            documents++;
+            total += lengths[ordinal];
+        }
+        int[] filled = new int[lengths.length];
+        for (Map.Entry<String, Postings> entry : loaded.entrySet()) {
+            Postings list = entry.getValue();
+            for (int p = 0; p < list.size; p++) {
+                int ordinal = list.docs[p];
+                terms[ordinal][filled[ordinal]++] = entry.getKey();
+            }
+        }
+
+        TermDictionary vocabulary = new TermDictionary();
+        loaded.keySet().forEach(vocabulary::add);
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            postings.putAll(loaded);
+            dictionary = vocabulary;
+            docTerms = terms;
+            docLengths = lengths;
+            docCount = documents;
+            totalLength = total;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Map each distinct query term to its weight, adding fuzzy expansions
+     * from the vocabulary when requested. Caller holds the read lock.
+     */
+    private Map<String, Double> expandQuery(List<String> queryTerms, boolean fuzzy) {
+        Map<String, Double> weighted = new LinkedHashMap<>();
+        for (String term : queryTerms) {
+            weighted.put(term, 1.0);
+        }
+
+        if (fuzzy) {
+            for (String term : queryTerms) {
+                dictionary.forEachSimilar(term, FUZZY_MAX_LENGTH_DELTA, FUZZY_MIN_SIMILARITY, (candidate, similarity) -> {
+                    if (!queryTerms.contains(candidate)) {
+                        weighted.merge(candidate, FUZZY_WEIGHT * similarity, Math::max);
+                    }
+                });
+            }
+        }
+        return weighted;
+    }
+
+    private Postings newPostings(String term) {
+        dictionary.add(term);
+        return new Postings();
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (docCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private void removeLocked(int ordinal) {
+        if (ordinal >= docTerms.length || docTerms[ordinal] == null) {
+            return;
+        }
+
+        for (String term : docTerms[ordinal]) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(ordinal) && list.size == 0) {
+                postings.remove(term);
+                dictionary.remove(term);
+            }
+        }
+
+        totalLength -= docLengths[ordinal];
+        docCount--;
+        docTerms[ordinal] = null;
+        docLengths[ordinal] = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > docLengths.length) {
+            int newCapacity = Math.max(capacity, docLengths.length * 2);
+            docTerms = Arrays.copyOf(docTerms, newCapacity);
+            docLengths = Arrays.copyOf(docLengths, newCapacity);
+        }
+    }
+
+    /**
+     * Add the field's term frequencies (times boost) and return its
+     * weighted length.
+     */
+    private static float accumulate(Map<String, Float> frequencies, String text, float boost) {
+        List<String> terms = Tokenizer.tokenize(text);
+        for (String term : terms) {
+            frequencies.merge(term, boost, Float::sum);
+        }
+        return terms.size() * boost;
+    }
+
+    /**
+     * Open-addressing ordinal -> score map for one query, sized for the
+     * postings it may receive so it never needs to grow.
+     */
+    private static final class ScoreAccumulator {
+        private final int[] ordinals;
+        private final double[] scores;
+        private final int mask;
+
+        ScoreAccumulator(int expected) {
+            // At most half full
+            int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+            ordinals = new int[capacity];
+            Arrays.fill(ordinals, -1);
+            scores = new double[capacity];
+            mask = capacity - 1;
+        }
+
+        void add(int ordinal, double score) {
+            int hash = ordinal * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (ordinals[slot] != -1 && ordinals[slot] != ordinal) {
+                slot = (slot + 1) & mask;
+            }
+            ordinals[slot] = ordinal;
+            scores[slot] += score;
+        }
+
+        void forEach(ScoreConsumer consumer) {
+            for (int slot = 0; slot < ordinals.length; slot++) {
+                if (ordinals[slot] != -1) {
+                    consumer.accept(ordinals[slot], scores[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Growable parallel arrays of (ordinal, weighted term frequency).
+     */
+    private static final class Postings {
+        int[] docs;
+        float[] frequencies;
+        int size;
+
+        Postings() {
+            this(4);
+        }
+
+        Postings(int capacity) {
+            docs = new int[Math.max(capacity, 1)];
+            frequencies = new float[Math.max(capacity, 1)];
+        }
+
+        void add(int ordinal, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        boolean remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == ordinal) {
+                    System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+                    System.arraycopy(frequencies, i + 1, frequencies, i, size - i - 1);
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MinHash signatures of chunk content, bucketed for locality-sensitive
+ * lookup, that group near-duplicate chunks into clusters as they are
+ * indexed: the same section in two versions of a reference, or a paragraph
+ * repeated across pages.
+ *
+ * <p>A chunk's signature holds {@value #HASHES} min-hashes of its set of
+ * three-term shingles; the fraction of positions where two signatures
+ * agree estimates the Jaccard similarity of the two shingle sets. Chunks
+ * estimated at least {@code minSimilarity} alike are near-duplicates.
+ * Signatures are filed under {@value #BANDS} bands of {@value #ROWS}
+ * positions each, so a new chunk is only compared with the chunks sharing
+ * a band with it; at a similarity of 0.8 two chunks share a band with
+ * probability above 0.999.
+ *
+ * <p>A new chunk joins the cluster of its near-duplicates (the lowest
+ * cluster id among them) or starts its own, identified by its ordinal.
+ * Clusters are never merged or split later, and removing a chunk leaves
+ * the others' cluster ids as they are: ordinals are never handed to
+ * another chunk id, so a stale id can't collide.
+ */
+public class NearDuplicateIndex {
+
+    public static final double DEFAULT_MIN_SIMILARITY = 0.8;
+
+    static final int SHINGLE_SIZE = 3;
+    static final int HASHES = 64;
+    static final int BANDS = 16;
+    static final int ROWS = HASHES / BANDS;
+
+    private final double minSimilarity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Band hash -> ordinals filed under it
+    private final Map<Long, List<Integer>> buckets = new HashMap<>();
+    // Signature per ordinal, null where none is filed
+    private int[][] signatures = new int[256][];
+    private int[] clusters = new int[256];
+    private int duplicates;
+
+    public NearDuplicateIndex() {
+        this(DEFAULT_MIN_SIMILARITY);
+    }
+
+    public NearDuplicateIndex(double minSimilarity) {
+        if (minSimilarity <= 0 || minSimilarity > 1) {
+            throw new IllegalArgumentException("Near-duplicate similarity must be in (0, 1]: " + minSimilarity);
+        }
+        this.minSimilarity = minSimilarity;
+    }
+
+    /**
+     * File a chunk's signature under the given ordinal, replacing whatever
+     * was filed there before. Chunks without any terms are not filed.
+     */
+    public void add(int ordinal, DocumentChunk chunk) {
+        List<String> terms = Tokenizer.tokenize(chunk.getContent());
+        if (terms.isEmpty()) {
+            remove(ordinal);
+            return;
+        }
+        int[] signature = minHash(terms);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(ordinal);
+            int cluster = ordinal;
+            boolean found = false;
+            for (int band = 0; band < BANDS; band++) {
+                for (int candidate : buckets.getOrDefault(bandKey(signature, band), List.of())) {
+                    if ((!found || clusters[candidate] < cluster)
+                            && similarity(signatures[candidate], signature) >= minSimilarity) {
+                        cluster = clusters[candidate];
+                        found = true;
+                    }
+                }
+            }
+
+            if (ordinal >= signatures.length) {
+                int capacity = Math.max(signatures.length * 2, ordinal + 1);
+                signatures = Arrays.copyOf(signatures, capacity);
+                clusters = Arrays.copyOf(clusters, capacity);
+            }
+            signatures[ordinal] = signature;
+            clusters[ordinal] = cluster;
+            if (cluster != ordinal) {
+                duplicates++;
+            }
+            for (int band = 0; band < BANDS; band++) {
+                buckets.computeIfAbsent(bandKey(signature, band), key -> new ArrayList<>(1)).add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int ordinal) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            buckets.clear();
+            signatures = new int[256][];
+            clusters = new int[256];
+            duplicates = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cluster id of the chunk at an ordinal: equal for near-duplicates, and
+     * the ordinal itself for a chunk with no signature filed.
+     */
+    public int clusterOf(int ordinal) {
+        lock.readLock().lock();
+        try {
+            return ordinal >= 0 && ordinal < signatures.length && signatures[ordinal] != null
+                    ? clusters[ordinal]
+                    : ordinal;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of filed chunks that joined an earlier chunk's cluster.
+     */
+    public int getDuplicateCount() {
+        lock.readLock().lock();
+        try {
+            return duplicates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write the signatures and cluster ids to a snapshot, renumbering
+     * ordinals through {@code remap} (old ordinal to new, -1 for ordinals
+     * that are dropped). A cluster whose first chunk is dropped is renamed
+     * after its first kept member.
+     */
+    void writeTo(DataOutput out, int[] remap, int count) throws IOException {
+        lock.readLock().lock();
+        try {
+            int filed = 0;
+            for (int ordinal = 0; ordinal < Math.min(remap.length, signatures.length); ordinal++) {
+                if (remap[ordinal] >= 0 && signatures[ordinal] != null) {
+                    filed++;
+                }
+            }
+
+            out.writeInt(filed);
+            Map<Integer, Integer> renamed = new HashMap<>();
+            for (int ordinal = 0; ordinal < Math.min(remap.length, signatures.length); ordinal++) {
+                if (remap[ordinal] < 0 || signatures[ordinal] == null) {
+                    continue;
+                }
+                int cluster = clusters[ordinal];
+                int first = remap[ordinal];
+                out.writeInt(first);
+                out.writeInt(cluster < remap.length && remap[cluster] >= 0
+                        ? remap[cluster]
+                        : renamed.computeIfAbsent(cluster, dropped -> first));
+                for (int value : signatures[ordinal]) {
+                    out.writeInt(value);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the contents with a snapshot written by {@link #writeTo}. The
+     * band buckets are refiled from the signatures rather than stored.
+     *
+     * @param count number of ordinals in the snapshot
+     * @return false, leaving the index as it was, if the snapshot was
+     * written without near-duplicates
+     */
+    boolean readFrom(DataInput in, int count) throws IOException {
+        int filed = in.readInt();
+        if (filed < 0) {
+            return false;
+        }
+        IndexSnapshot.checkCount(in, filed, (2 + HASHES) * Integer.BYTES);
+        int[][] loadedSignatures = new int[Math.max(Math.min(count, filed * 2), 256)][];
+        int[] loadedClusters = new int[loadedSignatures.length];
+        for (int i = 0; i < filed; i++) {
+            int ordinal = in.readInt();
+            int cluster = in.readInt();
+            if (ordinal < 0 || ordinal >= count || cluster < 0 || cluster >= count) {
+                throw new IOException("Corrupt near-duplicate entry " + ordinal + " in cluster " + cluster);
+            }
+            if (ordinal >= loadedSignatures.length) {
+                int capacity = Math.min(Math.max(loadedSignatures.length * 2, ordinal + 1), count);
+                loadedSignatures = Arrays.copyOf(loadedSignatures, capacity);
+                loadedClusters = Arrays.copyOf(loadedClusters, capacity);
+            }
+            int[] signature = new int[HASHES];
+            for (int h = 0; h < HASHES; h++) {
+                signature[h] = in.readInt();
+            }
+            loadedSignatures[ordinal] = signature;
+            loadedClusters[ordinal] = cluster;
+        }
+
+        lock.writeLock().lock();
+        try {
+            buckets.clear();
+            signatures = loadedSignatures;
+            clusters = loadedClusters;
+            duplicates = 0;
+            for (int ordinal = 0; ordinal < signatures.length; ordinal++) {
+                if (signatures[ordinal] == null) {
+                    continue;
+                }
+                if (clusters[ordinal] != ordinal) {
+                    duplicates++;
+                }
+                for (int band = 0; band < BANDS; band++) {
+                    buckets.computeIfAbsent(bandKey(signatures[ordinal], band), key -> new ArrayList<>(1)).add(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Min-hashes of the text's overlapping {@value #SHINGLE_SIZE}-term
+     * shingles (the whole text as one shingle if shorter).
+     */
+    static int[] minHash(List<String> terms) {
+        long[] termHashes = new long[terms.size()];
+        for (int i = 0; i < termHashes.length; i++) {
+            termHashes[i] = hash(terms.get(i));
+        }
+
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        int shingles = Math.max(1, termHashes.length - SHINGLE_SIZE + 1);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = 0;
+            for (int i = start; i < Math.min(start + SHINGLE_SIZE, termHashes.length); i++) {
+                shingle = mix(shingle * 0x9E3779B97F4A7C15L + termHashes[i]);
+            }
+            // One hash function per position, derived from the shingle hash
+            for (int i = 0; i < HASHES; i++) {
+                int value = (int) (mix(shingle + i * 0xC2B2AE3D27D4EB4FL) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the shingle sets behind two signatures.
+     */
+    static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / HASHES;
+    }
+
+    private void removeLocked(int ordinal) {
+        if (ordinal >= signatures.length || signatures[ordinal] == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(signatures[ordinal], band);
+            List<Integer> bucket = buckets.get(key);
+            bucket.remove(Integer.valueOf(ordinal));
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+        if (clusters[ordinal] != ordinal) {
+            duplicates--;
+        }
+        signatures[ordinal] = null;
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            key = mix(key * 0x9E3779B97F4A7C15L + signature[i]);
+        }
+        return key;
+    }
+
+    // FNV-1a over the term's characters, finished with mix()
+    private static long hash(String term) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < term.length(); i++) {
+            hash = (hash ^ term.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    // MurmurHash3 fmix64, so every input bit affects every output bit
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,481 @@
+package com.springboost.docs.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Exact-scan semantic index over compressed copies of the vectors in a
+ * {@link VectorStore}: candidates are pre-selected by an int8 or 1-bit
+ * approximation of the dot product, then the best {@code k * rescoreFactor}
+ * are re-scored against the full-precision vectors.
+ *
+ * <p>The scan touches one byte per dimension (int8, 4x smaller than the
+ * floats) or one bit per dimension (binary, 32x smaller) instead of the
+ * float matrix, which is only read for the few rows being re-scored. With
+ * the store memory-mapped from an index snapshot, the rest of the float
+ * matrix never has to be paged in: the codes are saved in the snapshot
+ * too, so loading one doesn't re-encode the rows.
+ *
+ * <p>int8 uses symmetric per-vector scaling, so an approximate score is an
+ * integer dot product times two scales. Binary keeps only the sign of each
+ * component and ranks by Hamming distance; it loses more precision and
+ * needs a larger rescore factor for the same recall.
+ */
+public class QuantizedIndex implements SemanticIndex {
+
+    public enum Encoding {
+        INT8(4),
+        BINARY(10);
+
+        private final int defaultRescoreFactor;
+
+        Encoding(int defaultRescoreFactor) {
+            this.defaultRescoreFactor = defaultRescoreFactor;
+        }
+
+        public int getDefaultRescoreFactor() {
+            return defaultRescoreFactor;
+        }
+    }
+
+    private static final int INITIAL_ROWS = 256;
+
+    private final VectorStore store;
+    private final Encoding encoding;
+    private final int rescoreFactor;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int dimension = -1;
+    private int wordsPerRow;
+    private int capacityRows;
+    // INT8: dimension bytes per row plus one scale per row
+    private byte[] bytes = new byte[0];
+    private float[] scales = new float[0];
+    // BINARY: wordsPerRow sign-bit words per row
+    private long[] bits = new long[0];
+    private final BitSet present = new BitSet();
+
+    public QuantizedIndex(VectorStore store, Encoding encoding) {
+        this(store, encoding, encoding.getDefaultRescoreFactor());
+    }
+
+    public QuantizedIndex(VectorStore store, Encoding encoding, int rescoreFactor) {
+        if (rescoreFactor < 1) {
+            throw new IllegalArgumentException("Rescore factor must be positive: " + rescoreFactor);
+        }
+        this.store = store;
+        this.encoding = encoding;
+        this.rescoreFactor = rescoreFactor;
+    }
+
+    @Override
+    public String getType() {
+        return encoding.name().toLowerCase();
+    }
+
+    @Override
+    public boolean add(int ordinal, float[] vector) {
+        lock.writeLock().lock();
+        try {
+            if (!store.add(ordinal, vector)) {
+                present.clear(ordinal);
+                return false;
+            }
+            encode(ordinal, vector);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int ordinal) {
+        lock.writeLock().lock();
+        try {
+            present.clear(ordinal);
+            store.remove(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            store.clear();
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-encode every vector currently in the store.
+     */
+    @Override
+    public void rebuildFromStore() {
+        lock.writeLock().lock();
+        try {
+            reset();
+            store.lock().readLock().lock();
+            try {
+                for (int ordinal = store.nextPresentUnlocked(0); ordinal >= 0;
+                        ordinal = store.nextPresentUnlocked(ordinal + 1)) {
+                    encode(ordinal, store.getUnlocked(ordinal));
+                }
+            } finally {
+                store.lock().readLock().unlock();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Write the codes of the rows that are kept, renumbered: the dimension,
+     * the row count, the number of rows written, then per row its ordinal
+     * and its scale and bytes (int8) or sign-bit words (binary).
+     */
+    @Override
+    public void writeTo(DataOutput out, int[] remap, int count) throws IOException {
+        lock.readLock().lock();
+        try {
+            store.lock().readLock().lock();
+            try {
+                int rows = 0;
+                for (int ordinal = present.nextSetBit(0); ordinal >= 0; ordinal = present.nextSetBit(ordinal + 1)) {
+                    if (kept(ordinal, remap)) {
+                        rows++;
+                    }
+                }
+
+                out.writeInt(dimension);
+                out.writeInt(count);
+                out.writeInt(rows);
+                for (int ordinal = present.nextSetBit(0); ordinal >= 0; ordinal = present.nextSetBit(ordinal + 1)) {
+                    if (!kept(ordinal, remap)) {
+                        continue;
+                    }
+                    out.writeInt(remap[ordinal]);
+                    if (encoding == Encoding.INT8) {
+                        out.writeFloat(scales[ordinal]);
+                        out.write(bytes, ordinal * dimension, dimension);
+                    } else {
+                        for (int w = 0; w < wordsPerRow; w++) {
+                            out.writeLong(bits[ordinal * wordsPerRow + w]);
+                        }
+                    }
+                }
+            } finally {
+                store.lock().readLock().unlock();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the codes with ones written by {@link #writeTo}. Codes of a
+     * different dimension than the store's vectors are not adopted.
+     */
+    @Override
+    public boolean readFrom(DataInput in) throws IOException {
+        int rowDimension = in.readInt();
+        int count = in.readInt();
+        if (rowDimension != store.getDimension()) {
+            return false;
+        }
+        if (rowDimension <= 0) {
+            lock.writeLock().lock();
+            try {
+                reset();
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int words = (rowDimension + 63) / 64;
+        int rowBytes = encoding == Encoding.INT8 ? Float.BYTES + rowDimension : words * Long.BYTES;
+        int rows = IndexSnapshot.readCount(in, Integer.BYTES + rowBytes);
+        if (rows > count) {
+            throw new IOException("Corrupt quantized index: " + rows + " rows of " + count);
+        }
+
+        // Read packed, then spread over the ordinals: only the row count is
+        // bounded by the bytes actually there
+        int[] ordinals = new int[rows];
+        byte[] packedBytes = encoding == Encoding.INT8 ? new byte[Math.multiplyExact(rows, rowDimension)] : new byte[0];
+        float[] packedScales = encoding == Encoding.INT8 ? new float[rows] : new float[0];
+        long[] packedBits = encoding == Encoding.BINARY ? new long[Math.multiplyExact(rows, words)] : new long[0];
+        int maxOrdinal = -1;
+        for (int row = 0; row < rows; row++) {
+            int ordinal = in.readInt();
+            if (ordinal < 0 || ordinal >= count) {
+                throw new IOException("Corrupt quantized index ordinal " + ordinal);
+            }
+            ordinals[row] = ordinal;
+            maxOrdinal = Math.max(maxOrdinal, ordinal);
+            if (encoding == Encoding.INT8) {
+                packedScales[row] = in.readFloat();
+                in.readFully(packedBytes, row * rowDimension, rowDimension);
+            } else {
+                for (int w = 0; w < words; w++) {
+                    packedBits[row * words + w] = in.readLong();
+                }
+            }
+        }
+
+        int capacity = Math.max(maxOrdinal + 1, INITIAL_ROWS);
+        byte[] loadedBytes = new byte[0];
+        float[] loadedScales = new float[0];
+        long[] loadedBits = new long[0];
+        if (encoding == Encoding.INT8) {
+            loadedBytes = new byte[Math.multiplyExact(capacity, rowDimension)];
+            loadedScales = new float[capacity];
+        } else {
+            loadedBits = new long[Math.multiplyExact(capacity, words)];
+        }
+        BitSet loadedPresent = new BitSet(capacity);
+        for (int row = 0; row < rows; row++) {
+            int ordinal = ordinals[row];
+            if (encoding == Encoding.INT8) {
+                loadedScales[ordinal] = packedScales[row];
+                System.arraycopy(packedBytes, row * rowDimension, loadedBytes, ordinal * rowDimension, rowDimension);
+            } else {
+                System.arraycopy(packedBits, row * words, loadedBits, ordinal * words, words);
+            }
+            loadedPresent.set(ordinal);
+        }
+
+        lock.writeLock().lock();
+        try {
+            dimension = rowDimension;
+            wordsPerRow = words;
+            capacityRows = capacity;
+            bytes = loadedBytes;
+            scales = loadedScales;
+            bits = loadedBits;
+            present.clear();
+            present.or(loadedPresent);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public TopKCollector topK(float[] query, int k, double minScore, IntPredicate filter) {
+        return search(query, k, minScore, filter, null);
+    }
+
+    /**
+     * Approximate-score only the candidate ordinals before re-scoring.
+     */
+    @Override
+    public TopKCollector topKWithin(float[] query, int k, double minScore, RoaringBitmap candidates) {
+        return search(query, k, minScore, null, candidates);
+    }
+
+    private TopKCollector search(float[] query, int k, double minScore, IntPredicate filter,
+                                 RoaringBitmap within) {
+        TopKCollector result = new TopKCollector(k);
+
+        lock.readLock().lock();
+        try {
+            if (query == null || query.length != dimension) {
+                return result;
+            }
+
+            OrdinalScan scan = within != null
+                    ? consumer -> within.forEach(ordinal -> {
+                        if (present.get(ordinal)) {
+                            consumer.accept(ordinal);
+                        }
+                    })
+                    : consumer -> {
+                        for (int ordinal = present.nextSetBit(0); ordinal >= 0;
+                                ordinal = present.nextSetBit(ordinal + 1)) {
+                            if (filter == null || filter.test(ordinal)) {
+                                consumer.accept(ordinal);
+                            }
+                        }
+                    };
+            TopKCollector candidates = encoding == Encoding.INT8
+                    ? scanInt8(query, k * rescoreFactor, scan)
+                    : scanBinary(query, k * rescoreFactor, scan);
+
+            store.lock().readLock().lock();
+            try {
+                candidates.drainDescending((ordinal, approximate) -> {
+                    float score = store.dotUnlocked(ordinal, query);
+                    if (score >= minScore) {
+                        result.offer(ordinal, score);
+                    }
+                });
+            } finally {
+                store.lock().readLock().unlock();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return present.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public int getRescoreFactor() {
+        return rescoreFactor;
+    }
+
+    /**
+     * Heap bytes reserved for the quantized codes.
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) bytes.length + (long) scales.length * Float.BYTES + (long) bits.length * Long.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private TopKCollector scanInt8(float[] query, int candidateCount, OrdinalScan scan) {
+        TopKCollector candidates = new TopKCollector(candidateCount);
+        byte[] queryCodes = new byte[dimension];
+        float queryScale = quantize(query, queryCodes, 0);
+
+        byte[] codes = bytes;
+        int dim = dimension;
+        SimilarityKernel kernel = Vectors.kernel();
+        scan.forEach(ordinal -> {
+            int dot = kernel.dot(codes, ordinal * dim, queryCodes, 0, dim);
+            candidates.offer(ordinal, dot * scales[ordinal] * queryScale);
+        });
+        return candidates;
+    }
+
+    private TopKCollector scanBinary(float[] query, int candidateCount, OrdinalScan scan) {
+        TopKCollector candidates = new TopKCollector(candidateCount);
+        long[] queryBits = new long[wordsPerRow];
+        signBits(query, queryBits, 0);
+
+        long[] codes = bits;
+        int words = wordsPerRow;
+        scan.forEach(ordinal -> {
+            int base = ordinal * words;
+            int hamming = 0;
+            for (int w = 0; w < words; w++) {
+                hamming += Long.bitCount(codes[base + w] ^ queryBits[w]);
+            }
+            // Matching minus differing signs; ranks like the angle between them
+            candidates.offer(ordinal, dimension - 2 * hamming);
+        });
+        return candidates;
+    }
+
+    /**
+     * Encode a vector into its row. Caller holds the write lock.
+     */
+    private void encode(int ordinal, float[] vector) {
+        if (dimension < 0) {
+            dimension = vector.length;
+            wordsPerRow = (dimension + 63) / 64;
+        }
+        ensureRows(ordinal + 1);
+        if (encoding == Encoding.INT8) {
+            scales[ordinal] = quantize(vector, bytes, ordinal * dimension);
+        } else {
+            Arrays.fill(bits, ordinal * wordsPerRow, (ordinal + 1) * wordsPerRow, 0L);
+            signBits(vector, bits, ordinal * wordsPerRow);
+        }
+        present.set(ordinal);
+    }
+
+    /**
+     * Scale a vector so its largest component maps to 127 and round.
+     *
+     * @return the scale that maps codes back to the original values
+     */
+    private static float quantize(float[] vector, byte[] codes, int offset) {
+        float maxAbs = 0f;
+        for (float value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        if (maxAbs == 0f) {
+            Arrays.fill(codes, offset, offset + vector.length, (byte) 0);
+            return 0f;
+        }
+        float scale = maxAbs / 127f;
+        for (int i = 0; i < vector.length; i++) {
+            codes[offset + i] = (byte) Math.round(vector[i] / scale);
+        }
+        return scale;
+    }
+
+    private static void signBits(float[] vector, long[] words, int offset) {
+        for (int i = 0; i < vector.length; i++) {
+            if (vector[i] > 0f) {
+                words[offset + (i >>> 6)] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * The ordinals a query scans, either every present row passing a filter
+     * or the present rows of a candidate bitmap.
+     */
+    @FunctionalInterface
+    private interface OrdinalScan {
+        void forEach(IntConsumer consumer);
+    }
+
+    private boolean kept(int ordinal, int[] remap) {
+        return ordinal < remap.length && remap[ordinal] >= 0 && store.containsUnlocked(ordinal);
+    }
+
+    private void reset() {
+        dimension = -1;
+        wordsPerRow = 0;
+        capacityRows = 0;
+        bytes = new byte[0];
+        scales = new float[0];
+        bits = new long[0];
+        present.clear();
+    }
+
+    private void ensureRows(int rows) {
+        if (rows <= capacityRows) {
+            return;
+        }
+
+        int newCapacity = Math.max(rows, Math.max(INITIAL_ROWS, capacityRows * 2));
+        if (encoding == Encoding.INT8) {
+            bytes = Arrays.copyOf(bytes, Math.multiplyExact(newCapacity, dimension));
+            scales = Arrays.copyOf(scales, newCapacity);
+        } else {
+            bits = Arrays.copyOf(bits, Math.multiplyExact(newCapacity, wordsPerRow));
+        }
+        capacityRows = newCapacity;
+    }
+}
@@ -0,0 +1,11 @@
+package com.springboost.docs.index;
+
+/**
+ * Receives one (ordinal, score) pair per scored document. Lets index scans
+ * stream hits to the caller without boxing or building intermediate lists.
+ */
+@FunctionalInterface
+public interface ScoreConsumer {
+
+    void accept(int ordinal, double score);
+}
@@ -0,0 +1,74 @@
+package com.springboost.docs.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.IntPredicate;
+
+/**
+ * Nearest-neighbour lookup over chunk embeddings, keyed by chunk ordinal.
+ * {@link VectorStore} answers exactly by scanning every vector;
+ * {@link HnswIndex} answers approximately from a navigable graph.
+ */
+public interface SemanticIndex {
+
+    /**
+     * Short name reported in search statistics, e.g. "exact" or "hnsw".
+     */
+    String getType();
+
+    /**
+     * Add or replace the vector for an ordinal.
+     *
+     * @return false if the vector was rejected (empty or wrong dimension)
+     */
+    boolean add(int ordinal, float[] vector);
+
+    void remove(int ordinal);
+
+    void clear();
+
+    /**
+     * Find the k vectors most similar to the query with a score of at least
+     * {@code minScore}.
+     *
+     * @param filter ordinals to consider, or null for all
+     */
+    TopKCollector topK(float[] query, int k, double minScore, IntPredicate filter);
+
+    /**
+     * Like {@link #topK} restricted to a precomputed candidate set, such as
+     * the result of a {@link FilterIndex} lookup. Implementations that scan
+     * can visit just the candidates instead of testing every ordinal.
+     */
+    default TopKCollector topKWithin(float[] query, int k, double minScore, RoaringBitmap candidates) {
+        return topK(query, k, minScore, candidates::contains);
+    }
+
+    int size();
+
+    /**
+     * Re-derive whatever this index builds on top of the vectors after they
+     * were bulk-loaded into the underlying store, e.g. from an index snapshot.
+     */
+    default void rebuildFromStore() {
+    }
+
+    /**
+     * Write whatever this index builds on top of the vectors to an index
+     * snapshot, renumbering ordinals through {@code remap} (-1 for dropped
+     * ones), so loading can skip {@link #rebuildFromStore()}.
+     */
+    default void writeTo(DataOutput out, int[] remap, int count) throws IOException {
+    }
+
+    /**
+     * Adopt what {@link #writeTo} wrote, once the vectors are in the store.
+     *
+     * @return false if nothing usable was written and the index must be
+     * rebuilt from the store instead
+     */
+    default boolean readFrom(DataInput in) throws IOException {
+        return false;
+    }
+}
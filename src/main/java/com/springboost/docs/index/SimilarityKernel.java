@@ -0,0 +1,26 @@
+package com.springboost.docs.index;
+
+/**
+ * Dot-product kernel behind every similarity computation in the index.
+ * {@link Vectors#kernel()} picks the fastest implementation the running JVM
+ * supports.
+ */
+public interface SimilarityKernel {
+
+    /**
+     * Short name reported in search statistics, e.g. "scalar".
+     */
+    String getName();
+
+    /**
+     * Dot product of {@code length} elements of {@code a} starting at
+     * {@code aOffset} and of {@code b} starting at {@code bOffset}.
+     */
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * Integer dot product of int8-quantized vectors, laid out like
+     * {@link #dot(float[], int, float[], int, int)}.
+     */
+    int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length);
+}
@@ -0,0 +1,324 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Weighted prefix trie for search-as-you-type suggestions over chunk
+ * titles, tags and content terms.
+ *
+ * <p>Every suggestion is filed under one or more lowercase keys (a title
+ * under the whole title and each of its words, a tag under itself and each
+ * of its parts, a term under itself) with a popularity weight: the number
+ * of chunks contributing it, times a per-kind boost so titles and tags
+ * outrank bare terms of similar popularity. Each node caches the largest
+ * weight in its subtree, so a lookup walks down to the prefix and then
+ * expands best-first, stopping as soon as it has enough suggestions rather
+ * than visiting every key under the prefix.
+ *
+ * <p>Chunks are added and removed individually, so the trie is kept up to
+ * date as documents are indexed.
+ */
+public class SuggestionIndex {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int TAG_WEIGHT = 2;
+    static final int TERM_WEIGHT = 1;
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingInt(Candidate::weight).reversed()
+            // Finished suggestions before subtrees of the same weight
+            .thenComparing(candidate -> candidate.node() != null)
+            .thenComparing(candidate -> candidate.suggestion() != null ? candidate.suggestion() : "");
+
+    private final Node root = new Node();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Forward index (ordinal -> what it contributed) so a re-indexed chunk
+    // can withdraw its old suggestions
+    private final Map<Integer, Contribution[]> contributions = new HashMap<>();
+
+    /**
+     * Add a chunk's suggestions under the given ordinal, replacing whatever
+     * was added there before.
+     */
+    public void add(int ordinal, DocumentChunk chunk) {
+        Map<Filing, Integer> pending = new LinkedHashMap<>();
+        String title = chunk.getTitle() != null ? chunk.getTitle().trim() : "";
+        if (!title.isEmpty()) {
+            collect(pending, title.toLowerCase(), title, TITLE_WEIGHT);
+            for (String word : Tokenizer.tokenize(title)) {
+                collect(pending, word, title, TITLE_WEIGHT);
+            }
+        }
+        if (chunk.getTags() != null) {
+            for (String tag : chunk.getTags()) {
+                String suggestion = tag.replace("-", " ");
+                collect(pending, tag.toLowerCase(), suggestion, TAG_WEIGHT);
+                for (String part : Tokenizer.tokenize(tag)) {
+                    collect(pending, part, suggestion, TAG_WEIGHT);
+                }
+            }
+        }
+        for (String term : new LinkedHashSet<>(Tokenizer.tokenize(chunk.getContent()))) {
+            collect(pending, term, term, TERM_WEIGHT);
+        }
+
+        Contribution[] added = new Contribution[pending.size()];
+        int i = 0;
+        for (Map.Entry<Filing, Integer> entry : pending.entrySet()) {
+            added[i++] = new Contribution(entry.getKey().key(), entry.getKey().suggestion(), entry.getValue());
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(ordinal);
+            for (Contribution contribution : added) {
+                insert(contribution);
+            }
+            contributions.put(ordinal, added);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int ordinal) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.labels = Node.NO_LABELS;
+            root.children = Node.NO_CHILDREN;
+            root.entries = null;
+            root.maxWeight = 0;
+            contributions.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The most popular suggestions filed under a key starting with the
+     * prefix, best first. The prefix itself is never suggested back.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = prefix.toLowerCase();
+        List<String> results = new ArrayList<>(Math.max(limit, 0));
+        if (limit <= 0) {
+            return results;
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return results;
+            }
+
+            Set<String> seen = new HashSet<>();
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(BEST_FIRST);
+            queue.add(new Candidate(node.maxWeight, node, null));
+            while (!queue.isEmpty() && results.size() < limit) {
+                Candidate next = queue.poll();
+                if (next.node() == null) {
+                    // "Actuator" the title and "actuator" the term read the same
+                    String normalized = next.suggestion().toLowerCase();
+                    if (seen.add(normalized) && !normalized.equals(key)) {
+                        results.add(next.suggestion());
+                    }
+                    continue;
+                }
+
+                Node expanded = next.node();
+                if (expanded.entries != null) {
+                    expanded.entries.forEach((suggestion, weight) ->
+                            queue.add(new Candidate(weight, null, suggestion)));
+                }
+                for (Node child : expanded.children) {
+                    if (child != null) {
+                        queue.add(new Candidate(child.maxWeight, child, null));
+                    }
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of chunks currently contributing suggestions.
+     */
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return contributions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void collect(Map<Filing, Integer> pending, String key, String suggestion, int weight) {
+        if (!key.isEmpty()) {
+            pending.merge(new Filing(key, suggestion), weight, Math::max);
+        }
+    }
+
+    private void removeLocked(int ordinal) {
+        Contribution[] previous = contributions.remove(ordinal);
+        if (previous != null) {
+            for (Contribution contribution : previous) {
+                withdraw(contribution);
+            }
+        }
+    }
+
+    private void insert(Contribution contribution) {
+        Node node = root;
+        List<Node> path = new ArrayList<>(contribution.key().length() + 1);
+        path.add(node);
+        for (int i = 0; i < contribution.key().length(); i++) {
+            node = node.childOrCreate(contribution.key().charAt(i));
+            path.add(node);
+        }
+        if (node.entries == null) {
+            node.entries = new HashMap<>(4);
+        }
+        int weight = node.entries.merge(contribution.suggestion(), contribution.weight(), Integer::sum);
+        for (Node onPath : path) {
+            onPath.maxWeight = Math.max(onPath.maxWeight, weight);
+        }
+    }
+
+    private void withdraw(Contribution contribution) {
+        String key = contribution.key();
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+
+        Node node = path[key.length()];
+        if (node.entries != null) {
+            Integer weight = node.entries.computeIfPresent(contribution.suggestion(),
+                    (suggestion, current) -> current > contribution.weight() ? current - contribution.weight() : null);
+            if (weight == null && node.entries.isEmpty()) {
+                node.entries = null;
+            }
+        }
+
+        // Recompute cached maxima bottom-up, pruning nodes left empty
+        for (int depth = key.length(); depth >= 0; depth--) {
+            Node current = path[depth];
+            current.recomputeMaxWeight();
+            if (depth > 0 && current.isEmpty()) {
+                path[depth - 1].removeChild(key.charAt(depth - 1));
+            }
+        }
+    }
+
+    private record Filing(String key, String suggestion) {
+    }
+
+    private record Contribution(String key, String suggestion, int weight) {
+    }
+
+    private record Candidate(int weight, Node node, String suggestion) {
+    }
+
+    /**
+     * Trie node with children in parallel arrays sorted by label.
+     */
+    private static final class Node {
+        static final char[] NO_LABELS = new char[0];
+        static final Node[] NO_CHILDREN = new Node[0];
+
+        char[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        // Suggestion -> weight for keys ending at this node; null when none
+        Map<String, Integer> entries;
+        int maxWeight;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            index = -index - 1;
+            char[] grownLabels = new char[labels.length + 1];
+            Node[] grownChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, grownLabels, 0, index);
+            System.arraycopy(children, 0, grownChildren, 0, index);
+            System.arraycopy(labels, index, grownLabels, index + 1, labels.length - index);
+            System.arraycopy(children, index, grownChildren, index + 1, children.length - index);
+            Node child = new Node();
+            grownLabels[index] = label;
+            grownChildren[index] = child;
+            labels = grownLabels;
+            children = grownChildren;
+            return child;
+        }
+
+        void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] shrunkLabels = new char[labels.length - 1];
+            Node[] shrunkChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, shrunkLabels, 0, index);
+            System.arraycopy(children, 0, shrunkChildren, 0, index);
+            System.arraycopy(labels, index + 1, shrunkLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, shrunkChildren, index, children.length - index - 1);
+            labels = shrunkLabels;
+            children = shrunkChildren;
+        }
+
+        void recomputeMaxWeight() {
+            int max = 0;
+            if (entries != null) {
+                for (int weight : entries.values()) {
+                    max = Math.max(max, weight);
+                }
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+
+        boolean isEmpty() {
+            return entries == null && children.length == 0;
+        }
+    }
+}
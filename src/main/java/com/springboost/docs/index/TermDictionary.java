@@ -0,0 +1,192 @@
+package com.springboost.docs.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Vocabulary of a {@link KeywordIndex} with a trigram index for fuzzy term
+ * lookup. Each term is padded with two boundary characters on each side
+ * and filed under every trigram it contains, as a {@link RoaringBitmap} of
+ * term ids.
+ *
+ * <p>A lookup counts shared trigrams through those bitmaps and only runs a
+ * (banded, early-exit) Levenshtein check on terms that share enough of them
+ * to possibly be within the allowed distance: by the q-gram lemma, strings
+ * {@code d} edits apart share at least {@code max(|a|, |b|) + 2 - 3d}
+ * padded trigrams. Terms with no trigram in common with the query are never
+ * looked at.
+ *
+ * <p>Not thread-safe; the keyword index calls it under its own lock.
+ */
+final class TermDictionary {
+
+    private static final int Q = 3;
+    private static final char PAD = '\u0001';
+
+    /**
+     * Receives each vocabulary term close enough to the query.
+     */
+    @FunctionalInterface
+    interface MatchConsumer {
+        void accept(String term, double similarity);
+    }
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final Map<String, RoaringBitmap> grams = new HashMap<>();
+    private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+    private String[] terms = new String[256];
+    private int nextId;
+
+    void add(String term) {
+        if (ids.containsKey(term)) {
+            return;
+        }
+        int id = freeIds.isEmpty() ? nextId++ : freeIds.pop();
+        if (id >= terms.length) {
+            terms = Arrays.copyOf(terms, terms.length * 2);
+        }
+        terms[id] = term;
+        ids.put(term, id);
+        for (String gram : trigrams(term)) {
+            grams.computeIfAbsent(gram, g -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    void remove(String term) {
+        Integer id = ids.remove(term);
+        if (id == null) {
+            return;
+        }
+        for (String gram : trigrams(term)) {
+            RoaringBitmap bitmap = grams.get(gram);
+            if (bitmap != null) {
+                bitmap.remove(id);
+                if (bitmap.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+        terms[id] = null;
+        freeIds.push(id);
+    }
+
+    void clear() {
+        ids.clear();
+        grams.clear();
+        freeIds.clear();
+        terms = new String[256];
+        nextId = 0;
+    }
+
+    int size() {
+        return ids.size();
+    }
+
+    /**
+     * Find every other term whose length differs by at most
+     * {@code maxLengthDelta} and whose Levenshtein similarity
+     * ({@code 1 - distance / longer length}) is at least {@code minSimilarity}
+     * and that shares a trigram with the query. Only the terms filed under
+     * the query's trigrams are visited, whatever the vocabulary size.
+     */
+    void forEachSimilar(String query, int maxLengthDelta, double minSimilarity, MatchConsumer consumer) {
+        Set<String> queryGrams = trigrams(query);
+        // Grams the query repeats can each be shared only once as a set
+        int repeatedGrams = query.length() + Q - 1 - queryGrams.size();
+
+        // Shared trigram counts of the terms the query's grams touch only
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            RoaringBitmap bitmap = grams.get(gram);
+            if (bitmap != null) {
+                bitmap.forEach(id -> shared.merge(id, 1, Integer::sum));
+            }
+        }
+
+        for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+            String candidate = terms[entry.getKey()];
+            if (candidate.equals(query)
+                    || Math.abs(candidate.length() - query.length()) > maxLengthDelta) {
+                continue;
+            }
+
+            int maxLength = Math.max(candidate.length(), query.length());
+            int maxDistance = (int) Math.floor((1.0 - minSimilarity) * maxLength + 1e-9);
+            int required = maxLength + Q - 1 - Q * maxDistance - repeatedGrams;
+            if (entry.getValue() < required) {
+                continue;
+            }
+
+            int distance = boundedDistance(query, candidate, maxDistance);
+            if (distance <= maxDistance) {
+                consumer.accept(candidate, 1.0 - (double) distance / maxLength);
+            }
+        }
+    }
+
+    /**
+     * Levenshtein distance, or {@code max + 1} as soon as it is known to
+     * exceed {@code max}. Only cells within {@code max} of the diagonal are
+     * computed.
+     */
+    static int boundedDistance(String s1, String s2, int max) {
+        int n = s2.length();
+        if (Math.abs(s1.length() - n) > max) {
+            return max + 1;
+        }
+
+        int outside = max + 1;
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            previous[j] = Math.min(j, outside);
+        }
+
+        for (int i = 1; i <= s1.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(n, i + max);
+            current[0] = Math.min(i, outside);
+            if (from > 1) {
+                current[from - 1] = outside;
+            }
+
+            char c1 = s1.charAt(i - 1);
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = c1 == s2.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < n) {
+                current[to + 1] = outside;
+            }
+            if (rowMin > max) {
+                return outside;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[n];
+    }
+
+    /**
+     * Distinct trigrams of the term padded with {@code Q - 1} boundary
+     * characters on each side, so short terms still have several.
+     */
+    static Set<String> trigrams(String term) {
+        StringBuilder padded = new StringBuilder(term.length() + 2 * (Q - 1));
+        padded.append(PAD).append(PAD).append(term).append(PAD).append(PAD);
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + Q <= padded.length(); i++) {
+            result.add(padded.substring(i, i + Q));
+        }
+        return result;
+    }
+}
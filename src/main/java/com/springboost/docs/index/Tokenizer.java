@@ -0,0 +1,46 @@
+package com.springboost.docs.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits text into lowercase alphanumeric terms for indexing and querying.
+ * Index time and query time must tokenize identically, so both go through
+ * here rather than ad-hoc {@code split("\\s+")} calls.
+ */
+public final class Tokenizer {
+
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERM_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Tokenize text into terms, in order of appearance (duplicates kept).
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean termChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (termChar) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                int termLength = i - start;
+                if (termLength >= MIN_TERM_LENGTH && termLength <= MAX_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase());
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
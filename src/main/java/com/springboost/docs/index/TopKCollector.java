@@ -0,0 +1,143 @@
+package com.springboost.docs.index;
+
+/**
+ * Bounded min-heap of (ordinal, score) pairs that keeps the k best scores
+ * seen. Offering n candidates costs O(n log k) and O(k) memory, instead of
+ * collecting and sorting all n.
+ */
+public final class TopKCollector implements ScoreConsumer {
+
+    private final int k;
+    private final int[] ordinals;
+    private final float[] scores;
+    private int size;
+    private int offered;
+
+    public TopKCollector(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.k = k;
+        this.ordinals = new int[k];
+        this.scores = new float[k];
+    }
+
+    @Override
+    public void accept(int ordinal, double score) {
+        offer(ordinal, (float) score);
+    }
+
+    /**
+     * Offer a candidate.
+     *
+     * @return true if it was kept (possibly evicting the current minimum)
+     */
+    public boolean offer(int ordinal, float score) {
+        offered++;
+        if (size < k) {
+            ordinals[size] = ordinal;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+
+        // Same order as less(): on equal scores the lower ordinal wins
+        if (score < scores[0] || (score == scores[0] && ordinal >= ordinals[0])) {
+            return false;
+        }
+
+        ordinals[0] = ordinal;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Lowest score still in the heap once it is full; candidates below it
+     * cannot make the cut, and one equal to it only with a lower ordinal
+     * than the entry it ties. Negative infinity while the heap has room.
+     */
+    public float threshold() {
+        return size < k ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of candidates offered so far, whether or not they were kept.
+     */
+    public int offered() {
+        return offered;
+    }
+
+    /**
+     * Emit the kept entries in descending score order. Leaves the collector
+     * empty.
+     */
+    public void drainDescending(ScoreConsumer consumer) {
+        int count = size;
+        int[] sortedOrdinals = new int[count];
+        float[] sortedScores = new float[count];
+
+        for (int i = count - 1; i >= 0; i--) {
+            sortedOrdinals[i] = ordinals[0];
+            sortedScores[i] = scores[0];
+            size--;
+            if (size > 0) {
+                ordinals[0] = ordinals[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            consumer.accept(sortedOrdinals[i], sortedScores[i]);
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(index, parent)) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                break;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && less(right, left)) {
+                smallest = right;
+            }
+            if (!less(smallest, index)) {
+                break;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    // Ties break on ordinal so results are deterministic across runs
+    private boolean less(int a, int b) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && ordinals[a] > ordinals[b]);
+    }
+
+    private void swap(int a, int b) {
+        int ordinal = ordinals[a];
+        ordinals[a] = ordinals[b];
+        ordinals[b] = ordinal;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
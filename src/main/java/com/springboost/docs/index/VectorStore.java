@@ -0,0 +1,329 @@
+package com.springboost.docs.index;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Embedding matrix for all indexed chunks, stored row-major in a single
+ * off-heap buffer with one row per chunk ordinal.
+ *
+ * <p>Semantic search scans this buffer sequentially instead of chasing one
+ * {@code float[]} per {@code DocumentChunk}, and the vectors never enter
+ * the Java heap, so the long-lived daemon's GC doesn't have to trace or copy
+ * them. All rows share the dimension of the first vector added.
+ */
+public class VectorStore implements SemanticIndex {
+
+    private static final int INITIAL_ROWS = 256;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FloatBuffer matrix;
+    private int dimension = -1;
+    private int capacityRows;
+    private final BitSet present = new BitSet();
+    private final ThreadLocal<float[]> scratch = ThreadLocal.withInitial(() -> new float[0]);
+
+    @Override
+    public String getType() {
+        return "exact";
+    }
+
+    /**
+     * Store (or overwrite) the vector for an ordinal.
+     *
+     * @return false if the vector is empty or its dimension doesn't match
+     * the vectors already stored
+     */
+    @Override
+    public boolean add(int ordinal, float[] vector) {
+        if (vector == null || vector.length == 0) {
+            remove(ordinal);
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (dimension < 0) {
+                dimension = vector.length;
+            } else if (vector.length != dimension) {
+                return false;
+            }
+
+            ensureRows(ordinal + 1);
+            matrix.put(ordinal * dimension, vector);
+            present.set(ordinal);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int ordinal) {
+        lock.writeLock().lock();
+        try {
+            present.clear(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop every vector and release the off-heap buffer.
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            matrix = null;
+            dimension = -1;
+            capacityRows = 0;
+            present.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the contents with rows that already live in a buffer, such as
+     * a memory-mapped index snapshot. The rows are only copied out if the
+     * store later has to grow.
+     */
+    void adopt(FloatBuffer rows, int rowDimension, int rowCount, BitSet rowsPresent) {
+        lock.writeLock().lock();
+        try {
+            present.clear();
+            if (rowDimension <= 0 || rowCount == 0) {
+                matrix = null;
+                dimension = -1;
+                capacityRows = 0;
+                return;
+            }
+            matrix = rows;
+            dimension = rowDimension;
+            capacityRows = rowCount;
+            present.or(rowsPresent);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copy of the vector stored for an ordinal, or null if there is none.
+     */
+    public float[] get(int ordinal) {
+        lock.readLock().lock();
+        try {
+            if (!present.get(ordinal)) {
+                return null;
+            }
+            float[] vector = new float[dimension];
+            matrix.get(ordinal * dimension, vector);
+            return vector;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Score every stored vector against the query by dot product and keep
+     * the k best at or above {@code minScore}.
+     *
+     * @param filter ordinals to consider, or null for all
+     * @return the best matches, ready to drain in descending order
+     */
+    @Override
+    public TopKCollector topK(float[] query, int k, double minScore, IntPredicate filter) {
+        TopKCollector collector = new TopKCollector(k);
+
+        lock.readLock().lock();
+        try {
+            if (query == null || query.length != dimension) {
+                return collector;
+            }
+
+            FloatBuffer rows = matrix;
+            int dim = dimension;
+            float[] row = new float[dim];
+            for (int ordinal = present.nextSetBit(0); ordinal >= 0; ordinal = present.nextSetBit(ordinal + 1)) {
+                if (filter != null && !filter.test(ordinal)) {
+                    continue;
+                }
+
+                // Bulk copy out of the buffer so the kernel can work on arrays
+                rows.get(ordinal * dim, row);
+                float score = Vectors.dot(row, query);
+
+                if (score >= minScore) {
+                    collector.offer(ordinal, score);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return collector;
+    }
+
+    /**
+     * Score only the candidate ordinals, so a selective filter costs time
+     * proportional to its matches rather than to the whole store.
+     */
+    @Override
+    public TopKCollector topKWithin(float[] query, int k, double minScore, RoaringBitmap candidates) {
+        TopKCollector collector = new TopKCollector(k);
+
+        lock.readLock().lock();
+        try {
+            if (query == null || query.length != dimension) {
+                return collector;
+            }
+
+            FloatBuffer rows = matrix;
+            int dim = dimension;
+            float[] row = new float[dim];
+            candidates.forEach(ordinal -> {
+                if (!present.get(ordinal)) {
+                    return;
+                }
+
+                rows.get(ordinal * dim, row);
+                float score = Vectors.dot(row, query);
+                if (score >= minScore) {
+                    collector.offer(ordinal, score);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return collector;
+    }
+
+    /**
+     * Dot product of one stored vector with the query, or 0 if the ordinal
+     * has no vector or the dimensions differ.
+     */
+    public float dot(int ordinal, float[] query) {
+        lock.readLock().lock();
+        try {
+            if (query == null || query.length != dimension || !present.get(ordinal)) {
+                return 0f;
+            }
+            return dotUnlocked(ordinal, query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(int ordinal) {
+        lock.readLock().lock();
+        try {
+            return present.get(ordinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return present.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDimension() {
+        lock.readLock().lock();
+        try {
+            return Math.max(dimension, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Off-heap bytes currently reserved for the matrix.
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) capacityRows * Math.max(dimension, 0) * Float.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Unlocked accessors for HnswIndex, which holds lock() for the duration
+    // of a whole graph traversal instead of once per distance computation.
+
+    ReentrantReadWriteLock lock() {
+        return lock;
+    }
+
+    boolean containsUnlocked(int ordinal) {
+        return present.get(ordinal);
+    }
+
+    int nextPresentUnlocked(int from) {
+        return present.nextSetBit(from);
+    }
+
+    float[] getUnlocked(int ordinal) {
+        float[] vector = new float[dimension];
+        matrix.get(ordinal * dimension, vector);
+        return vector;
+    }
+
+    float dotUnlocked(int ordinal, float[] query) {
+        float[] rows = scratch(1);
+        matrix.get(ordinal * dimension, rows, 0, dimension);
+        return Vectors.dot(rows, 0, query, 0, dimension);
+    }
+
+    float dotUnlocked(int a, int b) {
+        float[] rows = scratch(2);
+        matrix.get(a * dimension, rows, 0, dimension);
+        matrix.get(b * dimension, rows, dimension, dimension);
+        return Vectors.dot(rows, 0, rows, dimension, dimension);
+    }
+
+    /**
+     * Per-thread buffer with room for {@code count} rows, reused across the
+     * many distance computations of a graph traversal.
+     */
+    private float[] scratch(int count) {
+        float[] rows = scratch.get();
+        if (rows.length < count * dimension) {
+            rows = new float[2 * dimension];
+            scratch.set(rows);
+        }
+        return rows;
+    }
+
+    private void ensureRows(int rows) {
+        if (rows <= capacityRows) {
+            return;
+        }
+
+        int newCapacity = Math.max(rows, Math.max(INITIAL_ROWS, capacityRows * 2));
+        long bytes = (long) newCapacity * dimension * Float.BYTES;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Vector store exceeds 2GB: " + newCapacity + " rows x " + dimension);
+        }
+
+        FloatBuffer grown = ByteBuffer.allocateDirect((int) bytes)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        if (matrix != null) {
+            grown.put(0, matrix, 0, capacityRows * dimension);
+        }
+        matrix = grown;
+        capacityRows = newCapacity;
+    }
+}
@@ -0,0 +1,102 @@
+package com.springboost.docs.index;
+
+/**
+ * Primitive vector math for embeddings. Every embedding stored in the index
+ * is L2-normalized once when it is generated, so cosine similarity at query
+ * time is a plain dot product with no norm recomputation.
+ *
+ * <p>Dot products run on the SIMD {@link SimilarityKernel} when the JVM has
+ * the {@code jdk.incubator.vector} module ({@code --add-modules
+ * jdk.incubator.vector}) and on a scalar one otherwise. Setting the system
+ * property {@value #SIMD_PROPERTY} to {@code false} forces the scalar kernel.
+ */
+public final class Vectors {
+
+    public static final String SIMD_PROPERTY = "spring-boost.simd";
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private static final SimilarityKernel KERNEL = loadKernel();
+
+    private Vectors() {
+    }
+
+    /**
+     * The kernel every dot product goes through.
+     */
+    public static SimilarityKernel kernel() {
+        return KERNEL;
+    }
+
+    /**
+     * The scalar kernel, regardless of what the JVM supports.
+     */
+    public static SimilarityKernel scalarKernel() {
+        return ScalarSimilarityKernel.INSTANCE;
+    }
+
+    /**
+     * Dot product of two equal-length vectors. For unit vectors this is
+     * their cosine similarity.
+     */
+    public static float dot(float[] a, float[] b) {
+        return KERNEL.dot(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * Dot product of {@code length} elements of each array from the given
+     * offsets, e.g. a row of a row-major matrix against a query.
+     */
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNEL.dot(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Cosine similarity of two pre-normalized vectors; 0 when either is
+     * missing or the dimensions differ.
+     */
+    public static double cosine(float[] a, float[] b) {
+        if (a == null || b == null || a.length == 0 || a.length != b.length) {
+            return 0.0;
+        }
+        return dot(a, b);
+    }
+
+    /**
+     * Scale the vector to unit length in place. Zero vectors are left as is.
+     *
+     * @return the same array, for chaining
+     */
+    public static float[] normalize(float[] vector) {
+        double magnitudeSquared = 0.0;
+        for (float v : vector) {
+            magnitudeSquared += v * v;
+        }
+
+        if (magnitudeSquared == 0.0) {
+            return vector;
+        }
+
+        float inverse = (float) (1.0 / Math.sqrt(magnitudeSquared));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inverse;
+        }
+        return vector;
+    }
+
+    private static SimilarityKernel loadKernel() {
+        if (!Boolean.parseBoolean(System.getProperty(SIMD_PROPERTY, "true"))
+                || ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return ScalarSimilarityKernel.INSTANCE;
+        }
+        try {
+            Class<?> type = Class.forName("com.springboost.docs.index.VectorApiSimilarityKernel");
+            SimilarityKernel kernel = (SimilarityKernel) type.getDeclaredConstructor().newInstance();
+            // Fail here rather than on the first search if the API doesn't link
+            kernel.dot(new float[1], 0, new float[1], 0, 1);
+            return kernel;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return ScalarSimilarityKernel.INSTANCE;
+        }
+    }
+}
@@ -28,8 +28,11 @@ public class DocumentChunk {
     private List<String> tags;
     private Map<String, Object> metadata;
     
-    // Embedding data
-    private List<Double> embedding;
+    // Embedding data: L2-normalized when generated, so cosine == dot product.
+    // Shared with the embeddings cache -- never mutate in place. Only set
+    // between embedding and indexing: once indexed, the vector lives in the
+    // off-heap VectorStore under the chunk's ordinal and this is null.
+    private float[] embedding;
     private int embeddingDimension;
     
     // Content analysis
@@ -42,9 +45,6 @@ public class DocumentChunk {
     private LocalDateTime updatedAt;
     private String checksum; // To detect content changes
     
-    // Search relevance
-    private double relevanceScore;
-    
     /**
      * Create a new document chunk with basic information
      */
@@ -60,39 +60,6 @@ public class DocumentChunk {
                 .build();
     }
     
-    /**
-     * Calculate similarity with another document chunk
-     */
-    public double calculateSimilarity(DocumentChunk other) {
-        if (this.embedding == null || other.embedding == null) {
-            return 0.0;
-        }
-        
-        if (this.embedding.size() != other.embedding.size()) {
-            return 0.0;
-        }
-        
-        // Cosine similarity calculation
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-        
-        for (int i = 0; i < this.embedding.size(); i++) {
-            dotProduct += this.embedding.get(i) * other.embedding.get(i);
-            normA += Math.pow(this.embedding.get(i), 2);
-            normB += Math.pow(other.embedding.get(i), 2);
-        }
-        
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
-    }
-    
-    /**
-     * Check if this chunk is similar to another (above threshold)
-     */
-    public boolean isSimilarTo(DocumentChunk other, double threshold) {
-        return calculateSimilarity(other) >= threshold;
-    }
-    
     /**
      * Get a truncated version of content for display
      */
@@ -0,0 +1,21 @@
+package com.springboost.docs.model;
+
+/**
+ * A search hit: the indexed chunk plus the scores this particular query gave
+ * it. Scores live here rather than on the shared {@link DocumentChunk}, so
+ * concurrent searches never see each other's results.
+ *
+ * @param chunk         the indexed chunk (shared -- do not modify)
+ * @param score         overall relevance used for ranking
+ * @param semanticScore cosine similarity to the query, or 0 if semantic search didn't match it
+ * @param keywordScore  normalized BM25 score, or 0 if keyword search didn't match it
+ */
+public record ScoredChunk(DocumentChunk chunk, double score, double semanticScore, double keywordScore) {
+
+    /**
+     * A hit produced by a single similarity lookup, e.g. similar documents
+     */
+    public static ScoredChunk semantic(DocumentChunk chunk, double similarity) {
+        return new ScoredChunk(chunk, similarity, similarity, 0.0);
+    }
+}
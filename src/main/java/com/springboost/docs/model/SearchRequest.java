@@ -44,6 +44,11 @@ public class SearchRequest {
     @Builder.Default
     private boolean fuzzySearch = false;
     
+    // Search whatever is indexed so far instead of waiting for the index
+    // to finish loading
+    @Builder.Default
+    private boolean allowPartialResults = false;
+    
     /**
      * Create a simple search request
      */
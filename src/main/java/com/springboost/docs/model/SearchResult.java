@@ -17,10 +17,12 @@ import java.util.List;
 public class SearchResult {
     
     private String query;
-    private List<DocumentChunk> results;
+    private List<ScoredChunk> results;
     private int totalResults;
+    private int candidatesScored; // chunks that passed filters in any mode, before top-k
     private long searchTimeMs;
     private String searchType; // "semantic", "keyword", "hybrid"
+    private boolean partial; // searched while the index was still loading
     
     @Builder.Default
     private int page = 1;
@@ -31,7 +33,7 @@ public class SearchResult {
     /**
      * Get the top result
      */
-    public DocumentChunk getTopResult() {
+    public ScoredChunk getTopResult() {
         return results != null && !results.isEmpty() ? results.get(0) : null;
     }
     
@@ -45,26 +47,26 @@ public class SearchResult {
     /**
      * Get results with relevance score above threshold
      */
-    public List<DocumentChunk> getRelevantResults(double minScore) {
+    public List<ScoredChunk> getRelevantResults(double minScore) {
         if (results == null) {
             return List.of();
         }
         
         return results.stream()
-                .filter(chunk -> chunk.getRelevanceScore() >= minScore)
+                .filter(hit -> hit.score() >= minScore)
                 .toList();
     }
     
     /**
      * Get results from specific source
      */
-    public List<DocumentChunk> getResultsFromSource(String source) {
+    public List<ScoredChunk> getResultsFromSource(String source) {
         if (results == null) {
             return List.of();
         }
         
         return results.stream()
-                .filter(chunk -> source.equals(chunk.getSource()))
+                .filter(hit -> source.equals(hit.chunk().getSource()))
                 .toList();
     }
     
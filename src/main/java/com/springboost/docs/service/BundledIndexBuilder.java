@@ -0,0 +1,48 @@
+package com.springboost.docs.service;
+
+import com.springboost.config.SpringBoostProperties;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.file.Path;
+
+/**
+ * Build-time entry point that indexes the bundled {@code .ai/guidelines}
+ * with the default chunker and embeddings provider and writes the result as
+ * the {@value DocumentationService#BUNDLED_INDEX_RESOURCE} resource, so a
+ * fresh daemon loads the guideline index instead of building it.
+ *
+ * <p>Run during packaging (Maven {@code prepare-package}, Gradle
+ * {@code bundledIndex}) with the compiled classes and the guidelines on the
+ * classpath: {@code BundledIndexBuilder <output file>}.
+ */
+public final class BundledIndexBuilder {
+
+    private BundledIndexBuilder() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: BundledIndexBuilder <output file>");
+            System.exit(2);
+            return;
+        }
+        Path output = Path.of(args[0]).toAbsolutePath();
+
+        SpringBoostProperties properties = new SpringBoostProperties();
+        // Nothing to load: this is what later runs load instead of indexing
+        properties.getDocumentation().setPersistIndex(false);
+        properties.getDocumentation().setBundledIndex(false);
+        DocumentationService service = new DocumentationService(
+                new EmbeddingsService(properties), WebClient.builder(), properties);
+
+        long startTime = System.currentTimeMillis();
+        int chunks = service.writeBundledIndex(output);
+        if (chunks == 0) {
+            System.err.println("[spring-boost] No bundled guidelines found on the classpath; nothing to index.");
+            System.exit(1);
+            return;
+        }
+        System.out.println("[spring-boost] Wrote " + chunks + " guideline chunks to " + output
+                + " in " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+}
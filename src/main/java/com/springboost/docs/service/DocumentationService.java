@@ -1,25 +1,55 @@
 package com.springboost.docs.service;
 
+import com.springboost.config.SpringBoostProperties;
+import com.springboost.docs.crawler.DocumentationCrawler;
+import com.springboost.docs.index.ChunkTable;
+import com.springboost.docs.index.FilterIndex;
+import com.springboost.docs.index.HnswIndex;
+import com.springboost.docs.index.IndexSnapshot;
+import com.springboost.docs.index.KeywordIndex;
+import com.springboost.docs.index.NearDuplicateIndex;
+import com.springboost.docs.index.QuantizedIndex;
+import com.springboost.docs.index.SemanticIndex;
+import com.springboost.docs.index.SuggestionIndex;
+import com.springboost.docs.index.VectorStore;
 import com.springboost.docs.model.DocumentChunk;
+import com.springboost.launcher.DaemonPaths;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -34,10 +64,44 @@ public class DocumentationService {
     
     private final EmbeddingsService embeddingsService;
     private final WebClient.Builder webClientBuilder;
+    private final SpringBoostProperties properties;
     
     // In-memory storage for documentation chunks
     private final Map<String, DocumentChunk> documentIndex = new ConcurrentHashMap<>();
     
+    // Ordinal table, inverted index and off-heap embedding matrix, kept in
+    // sync with documentIndex by indexDocument()/removeDocument()
+    private final ChunkTable chunkTable = new ChunkTable();
+    private final KeywordIndex keywordIndex = new KeywordIndex();
+    private final FilterIndex filterIndex = new FilterIndex();
+    private final SuggestionIndex suggestionIndex = new SuggestionIndex();
+    // MinHash clusters of near-identical chunks (e.g. the same section of
+    // two versions of a reference), collapsed to one result at search time
+    private final NearDuplicateIndex nearDuplicateIndex = new NearDuplicateIndex();
+    // Bumped after every change to the indexed documents, so cached search
+    // results from an older generation are never served
+    private final AtomicLong indexGeneration = new AtomicLong();
+    private final VectorStore vectorStore = new VectorStore();
+    private final Object indexLock = new Object();
+    // Read-held by a search from taking ordinals out of the indexes until it
+    // has resolved them to chunks, write-held by whatever renumbers or
+    // empties the ordinals (compaction, clearIndex()). Taken before indexLock.
+    private final ReentrantReadWriteLock ordinalsLock = new ReentrantReadWriteLock();
+    
+    // Page URL -> ids of the chunks indexed from it, so a re-crawled page can
+    // be diffed against what is already indexed. Guarded by indexLock.
+    private final Map<String, Set<String>> chunkIdsByUrl = new HashMap<>();
+    
+    // Nearest-neighbour index over vectorStore, chosen from configuration on
+    // first use (the constructor is generated, so it can't be built there)
+    private volatile SemanticIndex semanticIndex;
+    
+    // DaemonPaths.currentIdentityKey(), computed once for snapshot naming
+    private volatile String identityKey;
+    
+    // Created on first scrape; keeps ETag/Last-Modified validators between crawls
+    private volatile DocumentationCrawler crawler;
+    
     // Documentation sources configuration
     private final Map<String, String> documentationSources = Map.of(
             "spring-boot-3.x", "https://docs.spring.io/spring-boot/docs/current/reference/html/",
@@ -48,138 +112,476 @@ public class DocumentationService {
             "spring-data-2.x", "https://docs.spring.io/spring-data/jpa/docs/2.7.x/reference/html/"
     );
     
+    // Guideline index pre-computed at package time by BundledIndexBuilder
+    static final String BUNDLED_INDEX_RESOURCE = "META-INF/spring-boost/guidelines-index.bin";
+    
+    // Tombstoned ordinals that trigger compactIfNeeded(), as a fraction of
+    // all ordinals handed out and as an absolute floor
+    static final double COMPACTION_TOMBSTONE_RATIO = 0.25;
+    static final int COMPACTION_MIN_TOMBSTONES = 1024;
+    private static final String COMPACTION_IDENTITY = "compaction";
+    
     // Patterns for extracting content
     private static final Pattern CODE_BLOCK_PATTERN = Pattern.compile("```[a-zA-Z]*\\n([\\s\\S]*?)```");
     private static final Pattern JAVA_CODE_PATTERN = Pattern.compile("@[A-Za-z]+|public class|private|protected|import ");
     private static final Pattern CONFIG_PATTERN = Pattern.compile("(application\\.yml|application\\.properties|@Configuration)");
     
     // Guideline indexing (151 chunks, each running regex extraction + a hash)
-    // costs several seconds -- too slow to pay unconditionally on every stdio
-    // MCP session boot, most of which never call search-docs at all. Deferred
-    // until the first actual access via ensureGuidelinesLoaded().
+    // costs several seconds -- too slow to pay on the MCP session boot path,
+    // most of which never call search-docs at all. It runs in the background
+    // once the context is ready (spring-boost.documentation.prewarm-index),
+    // or on first access otherwise; see ensureGuidelinesLoaded().
     private volatile boolean guidelinesLoaded = false;
+    
+    // The load in progress or done, null until one starts. Replaced by
+    // clearIndex(), so a load it interrupted never marks the index loaded.
+    private final AtomicReference<CompletableFuture<Void>> guidelinesLoad = new AtomicReference<>();
 
     @PostConstruct
     public void initialize() {
-        log.info("Initializing Documentation Service with {} sources (guideline indexing deferred until first search)",
+        log.info("Initializing Documentation Service with {} sources (guideline indexing deferred until startup completes)",
                 documentationSources.size());
     }
+    
+    /**
+     * Start loading the index in the background once the application is
+     * up, so the first search finds it ready (or at least under way)
+     * instead of paying for the whole load itself.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarmIndex() {
+        SpringBoostProperties.DocumentationProperties documentation = properties.getDocumentation();
+        if (documentation.isEnabled() && documentation.isPrewarmIndex()) {
+            startGuidelinesLoad();
+        }
+    }
+    
+    /**
+     * Make sure the index is being loaded and, unless partial results are
+     * acceptable, wait until it is published.
+     *
+     * @param allowPartial return at once, searching whatever has been
+     *                     indexed so far if the load is still running
+     * @return true if the index is fully loaded
+     */
+    public boolean awaitIndex(boolean allowPartial) {
+        if (guidelinesLoaded) {
+            return true;
+        }
+        if (allowPartial) {
+            startGuidelinesLoad();
+            return guidelinesLoaded;
+        }
+        ensureGuidelinesLoaded();
+        return true;
+    }
 
     /**
-     * Loads the bundled guideline corpus on first use, not at startup. Safe
+     * Loads the bundled guideline corpus unless it already is, waiting for
+     * a load another thread started rather than running a second one. Safe
      * to call repeatedly -- a no-op after the first successful load.
      */
-    private synchronized void ensureGuidelinesLoaded() {
+    private void ensureGuidelinesLoaded() {
+        // Unsynchronized fast path: every search goes through here, and
+        // concurrent searches must not queue once loaded
         if (guidelinesLoaded) {
             return;
         }
-        int loaded = initializeGuidelinesDocumentation();
+        try {
+            startGuidelinesLoad().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * The running or finished guideline load, starting one on a background
+     * thread if there is none. A failed load is forgotten, so the next
+     * access retries it.
+     */
+    private CompletableFuture<Void> startGuidelinesLoad() {
+        CompletableFuture<Void> load = guidelinesLoad.get();
+        if (load != null) {
+            return load;
+        }
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        if (!guidelinesLoad.compareAndSet(null, started)) {
+            return guidelinesLoad.get();
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                loadGuidelines(() -> guidelinesLoad.get() == started);
+                synchronized (indexLock) {
+                    if (guidelinesLoad.get() == started) {
+                        guidelinesLoaded = true;
+                    }
+                }
+                started.complete(null);
+            } catch (RuntimeException | Error e) {
+                log.error("Failed to load documentation index: {}", e.getMessage(), e);
+                guidelinesLoad.compareAndSet(started, null);
+                started.completeExceptionally(e);
+            }
+        }, "guideline-ingest");
+        loader.setDaemon(true);
+        loader.start();
+        return started;
+    }
+    
+    /**
+     * @param current false once clearIndex() has replaced this load, which
+     *                must then stop rather than fill the cleared index
+     */
+    private void loadGuidelines(BooleanSupplier current) {
+        long startTime = System.currentTimeMillis();
+        if (loadPersistedIndex() || loadBundledIndex()) {
+            return;
+        }
+        int loaded = initializeGuidelinesDocumentation(current);
+        if (!current.getAsBoolean()) {
+            log.info("Documentation index load superseded by clearIndex(), discarding it");
+            return;
+        }
         if (loaded == 0) {
             log.warn("No bundled guidelines found, falling back to sample documentation");
             initializeSampleDocumentation();
         }
-        guidelinesLoaded = true;
+        persistIndex(current);
+        log.info("Built documentation index in {}ms", System.currentTimeMillis() - startTime);
     }
     
     /**
-     * Load the bundled .ai/guidelines/*.md files and index them as searchable
-     * documentation chunks. Each file becomes one or more chunks depending on
-     * its size (split at markdown headers).
+     * Load the index snapshot written by a previous run of this jar, if any.
+     * Chunks, postings, embeddings and the HNSW graph come straight from the
+     * mapped file -- nothing is re-parsed, re-embedded or re-linked.
+     *
+     * @return false if there is no usable snapshot and the index must be built
      */
-    private int initializeGuidelinesDocumentation() {
-        int indexed = 0;
+    private boolean loadPersistedIndex() {
+        Path file = indexFile();
+        if (file == null || !Files.isRegularFile(file)) {
+            return false;
+        }
+        
+        long startTime = System.currentTimeMillis();
+        synchronized (indexLock) {
+            try {
+                List<DocumentChunk> chunks = IndexSnapshot.read(file, indexIdentity(),
+                        keywordIndex, vectorStore, semanticIndex(), nearDuplicateIndex);
+                if (chunks == null) {
+                    log.info("Ignoring documentation index {} written by a different build", file);
+                    return false;
+                }
+                adoptSnapshotLocked(chunks);
+                log.info("Loaded {} chunks from documentation index {} in {}ms",
+                        chunks.size(), file, System.currentTimeMillis() - startTime);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to load documentation index {}, rebuilding: {}", file, e.getMessage());
+                resetLocked();
+                quarantine(file);
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * Move a snapshot that failed to load out of the way (keeping the last
+     * one for inspection), so the next load doesn't fail on it again.
+     */
+    private static void quarantine(Path file) {
+        Path aside = file.resolveSibling(file.getFileName() + ".corrupt");
         try {
-            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-            Resource[] resources = resolver.getResources("classpath*:.ai/guidelines/**/*.md");
-            
-            for (Resource resource : resources) {
-                if (!resource.isReadable()) continue;
-                
+            Files.move(file, aside, StandardCopyOption.REPLACE_EXISTING);
+            log.warn("Moved unreadable documentation index to {}", aside);
+        } catch (IOException e) {
+            log.warn("Failed to move unreadable documentation index {} aside, deleting it: {}", file, e.getMessage());
+            deleteQuietly(file);
+        }
+    }
+    
+    /**
+     * Load the guideline index pre-computed at build time and packaged into
+     * the jar (see {@link BundledIndexBuilder}) with a single read. It only
+     * applies when the configured embeddings provider matches the one it
+     * was built with.
+     *
+     * @return false if there is no usable bundled index and the guidelines
+     * must be indexed here
+     */
+    private boolean loadBundledIndex() {
+        if (!properties.getDocumentation().isBundledIndex()) {
+            return false;
+        }
+        
+        long startTime = System.currentTimeMillis();
+        try (InputStream in = DocumentationService.class.getClassLoader().getResourceAsStream(BUNDLED_INDEX_RESOURCE)) {
+            if (in == null) {
+                return false;
+            }
+            synchronized (indexLock) {
                 try {
-                    String uri = resource.getURI().toString();
-                    // Extract the relative path like "guidelines/core/spring-boot.md"
-                    int idx = uri.indexOf(".ai/");
-                    String relativePath = idx >= 0 ? uri.substring(idx + 4) : resource.getFilename();
-                    
-                    String content = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-                    String source = extractSourceFromPath(relativePath);
-                    String version = extractVersionFromPath(relativePath);
-                    String category = extractCategoryFromPath(relativePath);
-                    
-                    // Split large files into chunks at markdown headers (## level)
-                    List<String> chunks = splitIntoChunks(content, 2000);
-                    
-                    int chunkIndex = 0;
-                    for (String chunkContent : chunks) {
-                        if (chunkContent.trim().length() < 50) continue;
-                        
-                        String title = extractTitleFromContent(chunkContent, relativePath, chunkIndex);
-                        DocumentChunk chunk = createSampleChunk(
-                                title, chunkContent.trim(),
-                                "bundled://" + relativePath,
-                                source, version, category);
-                        chunk.setTags(extractTagsFromPath(relativePath));
-                        indexDocument(chunk);
-                        indexed++;
-                        chunkIndex++;
+                    List<DocumentChunk> chunks = IndexSnapshot.read(in, BUNDLED_INDEX_RESOURCE,
+                            bundledIndexIdentity(), keywordIndex, vectorStore, semanticIndex(), nearDuplicateIndex);
+                    if (chunks == null) {
+                        log.info("Ignoring bundled documentation index built with different chunking or embeddings");
+                        return false;
                     }
-                } catch (IOException e) {
-                    log.warn("Failed to read guideline file {}: {}", resource.getFilename(), e.getMessage());
+                    adoptSnapshotLocked(chunks);
+                    log.info("Loaded {} chunks from the bundled documentation index in {}ms",
+                            chunks.size(), System.currentTimeMillis() - startTime);
+                    return true;
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Failed to load bundled documentation index, rebuilding: {}", e.getMessage());
+                    resetLocked();
+                    return false;
                 }
             }
         } catch (IOException e) {
-            log.error("Failed to scan for bundled guidelines: {}", e.getMessage());
+            log.warn("Failed to read bundled documentation index: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    private void adoptSnapshotLocked(List<DocumentChunk> chunks) {
+        for (DocumentChunk chunk : chunks) {
+            documentIndex.put(chunk.getId(), chunk);
+            int ordinal = chunkTable.put(chunk);
+            filterIndex.add(ordinal, chunk);
+            suggestionIndex.add(ordinal, chunk);
+            trackPage(chunk);
+        }
+        indexGeneration.incrementAndGet();
+    }
+    
+    private void resetLocked() {
+        documentIndex.clear();
+        chunkTable.clear();
+        keywordIndex.clear();
+        filterIndex.clear();
+        suggestionIndex.clear();
+        nearDuplicateIndex.clear();
+        semanticIndex().clear();
+        chunkIdsByUrl.clear();
+        indexGeneration.incrementAndGet();
+    }
+    
+    /**
+     * Index the bundled guidelines and write them to {@code file} in the
+     * format {@link #loadBundledIndex()} reads. Run at build time only.
+     *
+     * @return the number of chunks written
+     */
+    int writeBundledIndex(Path file) throws IOException {
+        int indexed = initializeGuidelinesDocumentation(() -> true);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        synchronized (indexLock) {
+            IndexSnapshot.write(file, bundledIndexIdentity(), chunkTable, keywordIndex, vectorStore,
+                    semanticIndex(), nearDuplicateIndex);
         }
-        
-        log.info("Indexed {} chunks from bundled .ai/guidelines", indexed);
         return indexed;
     }
     
     /**
-     * Split content into chunks of roughly maxChunkSize characters,
-     * breaking at markdown header boundaries (## or ###).
+     * Snapshot the current index to disk so the next daemon can load it
+     * instead of rebuilding. Failures are logged, never thrown.
      */
-    private List<String> splitIntoChunks(String content, int maxChunkSize) {
-        List<String> chunks = new ArrayList<>();
-        String[] lines = content.split("\n");
-        StringBuilder current = new StringBuilder();
+    private void persistIndex() {
+        persistIndex(() -> true);
+    }
+    
+    /**
+     * @param current checked under the index lock, so a load superseded by
+     *                clearIndex() never writes the cleared index back
+     */
+    private void persistIndex(BooleanSupplier current) {
+        Path file = indexFile();
+        if (file == null) {
+            return;
+        }
         
-        for (String line : lines) {
-            // If adding this line would exceed the limit AND we have content, flush
-            if (current.length() > 0 && current.length() + line.length() > maxChunkSize
-                    && (line.startsWith("## ") || line.startsWith("### ") || line.startsWith("# "))) {
-                chunks.add(current.toString());
-                current = new StringBuilder();
+        try {
+            Files.createDirectories(file.getParent());
+            synchronized (indexLock) {
+                if (!current.getAsBoolean()) {
+                    return;
+                }
+                IndexSnapshot.write(file, indexIdentity(), chunkTable, keywordIndex, vectorStore,
+                        semanticIndex(), nearDuplicateIndex);
             }
-            current.append(line).append("\n");
+            log.debug("Persisted documentation index to {}", file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to persist documentation index to {}: {}", file, e.getMessage());
+        }
+    }
+    
+    /**
+     * Snapshot location, or null when persistence is disabled
+     */
+    private Path indexFile() {
+        SpringBoostProperties.DocumentationProperties documentation = properties.getDocumentation();
+        if (!documentation.isPersistIndex()) {
+            return null;
         }
+        Path defaultFile = DaemonPaths.indexFile(identityKey());
+        String directory = documentation.getIndexDirectory();
+        return directory == null || directory.isBlank()
+                ? defaultFile
+                : Paths.get(directory).resolve(defaultFile.getFileName());
+    }
+    
+    /**
+     * What a snapshot must have been written by to be reusable: this jar
+     * (keyed like the daemon files), the same chunking settings, and the
+     * same embeddings provider, since vectors from different providers
+     * aren't comparable.
+     */
+    private String indexIdentity() {
+        String version = DocumentationService.class.getPackage().getImplementationVersion();
+        return identityKey()
+                + "|" + (version != null ? version : "dev")
+                + "|" + chunkingIdentity()
+                + "|" + embeddingsService.getProvider().getIdentity();
+    }
+    
+    /**
+     * What the bundled index must have been built with to be usable. The
+     * guidelines it was built from ship in the same jar, so only the
+     * chunking settings and the embeddings provider can differ.
+     */
+    private String bundledIndexIdentity() {
+        return "bundled|" + chunkingIdentity() + "|" + embeddingsService.getProvider().getIdentity();
+    }
+    
+    private String chunkingIdentity() {
+        SpringBoostProperties.ChunkingProperties chunking = properties.getDocumentation().getChunking();
+        return "chunking:" + chunking.getMaxTokens()
+                + "/" + chunking.getOverlapTokens()
+                + "/" + chunking.getMinTokens();
+    }
+    
+    private String identityKey() {
+        String key = identityKey;
+        if (key == null) {
+            key = DaemonPaths.currentIdentityKey();
+            identityKey = key;
+        }
+        return key;
+    }
+    
+    /**
+     * Load the bundled .ai/guidelines/*.md files and index them as searchable
+     * documentation chunks. Each file becomes one or more chunks depending on
+     * its size (split at markdown headers).
+     *
+     * <p>Files are read, split and analysed in parallel on the common
+     * fork-join pool. The chunks are then embedded in batches of
+     * spring-boost.documentation.ingest-batch-size, also in parallel, and
+     * each batch is indexed as soon as it and the ones before it are
+     * embedded -- so searches that accept partial results see the index
+     * fill up, and chunks keep their corpus order.
+     *
+     * @param current checked before each batch is indexed; once false the
+     *                remaining batches are dropped
+     */
+    private int initializeGuidelinesDocumentation(BooleanSupplier current) {
+        Resource[] resources;
+        try {
+            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+            resources = resolver.getResources("classpath*:.ai/guidelines/**/*.md");
+        } catch (IOException e) {
+            log.error("Failed to scan for bundled guidelines: {}", e.getMessage());
+            return 0;
+        }
+        
+        MarkdownChunker chunker = newChunker();
+        List<DocumentChunk> guidelineChunks = Arrays.stream(resources)
+                .parallel()
+                .flatMap(resource -> readGuideline(resource, chunker).stream())
+                .toList();
         
-        if (current.length() > 0) {
-            chunks.add(current.toString());
+        int batchSize = Math.max(1, properties.getDocumentation().getIngestBatchSize());
+        List<CompletableFuture<List<DocumentChunk>>> batches = new ArrayList<>();
+        for (int from = 0; from < guidelineChunks.size(); from += batchSize) {
+            List<DocumentChunk> batch = guidelineChunks.subList(from, Math.min(from + batchSize, guidelineChunks.size()));
+            batches.add(CompletableFuture.supplyAsync(() -> {
+                embedChunks(batch);
+                return batch;
+            }, ForkJoinPool.commonPool()));
+        }
+        for (CompletableFuture<List<DocumentChunk>> batch : batches) {
+            List<DocumentChunk> embedded = batch.join();
+            synchronized (indexLock) {
+                if (!current.getAsBoolean()) {
+                    batches.forEach(pending -> pending.cancel(false));
+                    return 0;
+                }
+                embedded.forEach(this::indexDocument);
+            }
         }
         
-        return chunks;
+        log.info("Indexed {} chunks from {} bundled .ai/guidelines files", guidelineChunks.size(), resources.length);
+        return guidelineChunks.size();
     }
     
-    private String extractTitleFromContent(String content, String relativePath, int chunkIndex) {
-        // Try to find a markdown heading
-        String[] lines = content.split("\n");
-        for (String line : lines) {
-            String trimmed = line.trim();
-            if (trimmed.startsWith("# ")) {
-                return trimmed.substring(2).trim();
-            }
-            if (trimmed.startsWith("## ")) {
-                return trimmed.substring(3).trim();
+    /**
+     * Chunker with the configured spring-boost.documentation.chunking budget
+     */
+    private MarkdownChunker newChunker() {
+        SpringBoostProperties.ChunkingProperties chunking = properties.getDocumentation().getChunking();
+        return new MarkdownChunker(chunking.getMaxTokens(), chunking.getOverlapTokens(), chunking.getMinTokens());
+    }
+    
+    /**
+     * Read one guideline file and turn it into chunks, empty if it can't be
+     * read
+     */
+    private List<DocumentChunk> readGuideline(Resource resource, MarkdownChunker chunker) {
+        if (!resource.isReadable()) {
+            return List.of();
+        }
+        
+        List<DocumentChunk> chunks = new ArrayList<>();
+        try {
+            String uri = resource.getURI().toString();
+            // Extract the relative path like "guidelines/core/spring-boot.md"
+            int idx = uri.indexOf(".ai/");
+            String relativePath = idx >= 0 ? uri.substring(idx + 4) : resource.getFilename();
+            
+            String content;
+            try (InputStream in = resource.getInputStream()) {
+                content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
             }
+            String source = extractSourceFromPath(relativePath);
+            String version = extractVersionFromPath(relativePath);
+            String category = extractCategoryFromPath(relativePath);
+            List<String> tags = extractTagsFromPath(relativePath);
+            
+            chunker.chunk(content, section -> {
+                String title = section.title() != null ? section.title() : titleFromPath(relativePath);
+                DocumentChunk chunk = createSampleChunk(
+                        title, section.text(),
+                        "bundled://" + relativePath,
+                        source, version, category);
+                chunk.setTags(new ArrayList<>(tags));
+                chunks.add(chunk);
+            });
+            assignDocumentIds(chunks);
+        } catch (IOException e) {
+            log.warn("Failed to read guideline file {}: {}", resource.getFilename(), e.getMessage());
         }
-        // Fallback to filename
+        return chunks;
+    }
+    
+    private String titleFromPath(String relativePath) {
+        // "guidelines/core/spring-boot.md" -> "spring boot"
         String filename = relativePath.contains("/") ? relativePath.substring(relativePath.lastIndexOf('/') + 1) : relativePath;
-        filename = filename.replace(".md", "").replace("-", " ");
-        if (chunkIndex > 0) {
-            filename += " (part " + (chunkIndex + 1) + ")";
-        }
-        return filename;
+        return filename.replace(".md", "").replace("-", " ");
     }
     
     private String extractSourceFromPath(String relativePath) {
@@ -283,6 +685,7 @@ public class DocumentationService {
                         "spring-boot", "3.2.0", "actuator")
         );
         
+        embedChunks(sampleChunks);
         for (DocumentChunk chunk : sampleChunks) {
             indexDocument(chunk);
         }
@@ -303,14 +706,21 @@ public class DocumentationService {
         chunk.setConfigurationExamples(extractConfigurationExamples(content));
         chunk.setChecksum(generateChecksum(content));
         
-        // Generate embeddings
-        List<Double> embeddings = embeddingsService.generateEmbeddings(content);
-        chunk.setEmbedding(embeddings);
-        chunk.setEmbeddingDimension(embeddings.size());
-        
         return chunk;
     }
     
+    /**
+     * Embed chunks in place with a single batch call
+     */
+    private void embedChunks(List<DocumentChunk> chunks) {
+        List<float[]> embeddings = embeddingsService.generateEmbeddings(
+                chunks.stream().map(DocumentChunk::getContent).toList());
+        for (int i = 0; i < chunks.size(); i++) {
+            chunks.get(i).setEmbedding(embeddings.get(i));
+            chunks.get(i).setEmbeddingDimension(embeddings.get(i).length);
+        }
+    }
+    
     /**
      * Index a document chunk for search
      */
@@ -319,104 +729,382 @@ public class DocumentationService {
             chunk.setId(generateDocumentId(chunk));
         }
         
-        documentIndex.put(chunk.getId(), chunk);
+        synchronized (indexLock) {
+            DocumentChunk previous = documentIndex.put(chunk.getId(), chunk);
+            if (previous != null) {
+                untrackPage(previous);
+            }
+            int ordinal = chunkTable.put(chunk);
+            keywordIndex.add(ordinal, chunk);
+            filterIndex.add(ordinal, chunk);
+            suggestionIndex.add(ordinal, chunk);
+            nearDuplicateIndex.add(ordinal, chunk);
+            if (chunk.getEmbedding() != null) {
+                semanticIndex().add(ordinal, chunk.getEmbedding());
+                // The vector store owns the vector from here on; keeping the
+                // array too would hold every embedding on the heap twice
+                chunk.setEmbedding(null);
+            } else if (previous != chunk) {
+                // An already-indexed instance keeps its stored vector
+                semanticIndex().remove(ordinal);
+            }
+            trackPage(chunk);
+            indexGeneration.incrementAndGet();
+        }
         log.debug("Indexed document: {} ({})", chunk.getTitle(), chunk.getId());
     }
     
     /**
-     * Scrape documentation from a URL
+     * Remove a document chunk from every index
      */
-    public Mono<List<DocumentChunk>> scrapeDocumentation(String source, String url) {
-        return webClientBuilder.build()
-                .get()
-                .uri(url)
-                .retrieve()
-                .bodyToMono(String.class)
-                .map(html -> parseDocumentationPage(html, source, url))
-                .doOnNext(chunks -> chunks.forEach(this::indexDocument))
-                .doOnSuccess(chunks -> log.info("Scraped {} chunks from {}", chunks.size(), url))
-                .doOnError(error -> log.error("Failed to scrape documentation from {}: {}", url, error.getMessage()));
+    public boolean removeDocument(String id) {
+        synchronized (indexLock) {
+            if (!removeLocked(id)) {
+                return false;
+            }
+        }
+        compactIfNeeded();
+        if (guidelinesLoaded) {
+            persistIndex();
+        }
+        log.debug("Removed document: {}", id);
+        return true;
     }
     
     /**
-     * Parse an HTML documentation page into chunks
+     * Replace the chunks indexed from a page with its freshly parsed ones.
+     * Chunks already indexed under the same id (same page, title and content
+     * hash) are left in place; chunks no longer on the page are tombstoned
+     * in the keyword and semantic indexes. An empty list drops the page.
+     *
+     * @return the chunks that were new or changed, and how many were removed
      */
-    private List<DocumentChunk> parseDocumentationPage(String html, String source, String baseUrl) {
-        List<DocumentChunk> chunks = new ArrayList<>();
-        
-        try {
-            Document doc = Jsoup.parse(html);
-            
-            // Extract main content sections
-            Elements sections = doc.select("section, div.sect1, div.sect2, h1, h2, h3");
-            
-            for (Element section : sections) {
-                String title = extractTitle(section);
-                String content = extractContent(section);
-                
-                if (isValidContent(title, content)) {
-                    DocumentChunk chunk = createDocumentChunk(title, content, baseUrl, source);
-                    chunks.add(chunk);
+    PageRefresh refreshPage(String url, List<DocumentChunk> chunks) {
+        List<DocumentChunk> changed = new ArrayList<>();
+        int removed = 0;
+        synchronized (indexLock) {
+            Set<String> current = new HashSet<>();
+            for (DocumentChunk chunk : chunks) {
+                current.add(chunk.getId());
+            }
+            for (String id : new ArrayList<>(chunkIdsByUrl.getOrDefault(url, Set.of()))) {
+                if (!current.contains(id) && removeLocked(id)) {
+                    removed++;
                 }
             }
-            
-            // If no sections found, try to extract by paragraphs
-            if (chunks.isEmpty()) {
-                Elements paragraphs = doc.select("p");
-                chunks.addAll(createChunksFromParagraphs(paragraphs, source, baseUrl));
+            for (DocumentChunk chunk : chunks) {
+                if (documentIndex.get(chunk.getId()) != chunk) {
+                    indexDocument(chunk);
+                    changed.add(chunk);
+                }
+            }
+        }
+        log.debug("Refreshed {}: {} new or changed, {} unchanged, {} removed",
+                url, changed.size(), chunks.size() - changed.size(), removed);
+        return new PageRefresh(changed, removed);
+    }
+    
+    record PageRefresh(List<DocumentChunk> changed, int removed) {
+        boolean modified() {
+            return !changed.isEmpty() || removed > 0;
+        }
+    }
+    
+    /**
+     * Compact the index once tombstones make up at least
+     * {@value #COMPACTION_TOMBSTONE_RATIO} of the ordinals handed out (and
+     * number at least {@value #COMPACTION_MIN_TOMBSTONES}): every
+     * per-ordinal structure is sized by the highest ordinal, not by the
+     * live chunks.
+     */
+    private void compactIfNeeded() {
+        boolean needed;
+        synchronized (indexLock) {
+            int tombstones = chunkTable.size() - chunkTable.liveCount();
+            needed = tombstones >= COMPACTION_MIN_TOMBSTONES
+                    && tombstones >= chunkTable.size() * COMPACTION_TOMBSTONE_RATIO;
+        }
+        if (needed) {
+            compactIndex();
+        }
+    }
+    
+    /**
+     * Renumber the live chunks densely across the chunk table, keyword,
+     * filter and suggestion indexes, vectors, semantic index and MinHash
+     * signatures, by writing the index to a snapshot (which drops
+     * tombstones) and loading it back. Searches wait for it to finish, so
+     * none resolves an ordinal taken before it against the new numbering.
+     */
+    void compactIndex() {
+        long startTime = System.currentTimeMillis();
+        ordinalsLock.writeLock().lock();
+        try {
+            compactIndexLocked(startTime);
+        } finally {
+            ordinalsLock.writeLock().unlock();
+        }
+    }
+    
+    private void compactIndexLocked(long startTime) {
+        synchronized (indexLock) {
+            int before = chunkTable.size();
+            Path file = null;
+            try {
+                file = Files.createTempFile("spring-boost-compact", ".bin");
+                IndexSnapshot.write(file, COMPACTION_IDENTITY, chunkTable, keywordIndex, vectorStore,
+                        semanticIndex(), nearDuplicateIndex);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to compact documentation index: {}", e.getMessage());
+                deleteQuietly(file);
+                return;
             }
             
-        } catch (Exception e) {
-            log.error("Failed to parse documentation page: {}", e.getMessage());
+            // Read from a stream rather than mapped, so the file can go at once
+            try (InputStream in = Files.newInputStream(file)) {
+                resetLocked();
+                adoptSnapshotLocked(IndexSnapshot.read(in, file.toString(), COMPACTION_IDENTITY,
+                        keywordIndex, vectorStore, semanticIndex(), nearDuplicateIndex));
+                log.info("Compacted documentation index from {} to {} ordinals in {}ms",
+                        before, chunkTable.size(), System.currentTimeMillis() - startTime);
+            } catch (IOException | RuntimeException e) {
+                // The old structures are gone: start over like clearIndex()
+                log.error("Failed to reload compacted documentation index, rebuilding: {}", e.getMessage());
+                resetLocked();
+                guidelinesLoaded = false;
+                guidelinesLoad.set(null);
+            } finally {
+                deleteQuietly(file);
+            }
+        }
+    }
+    
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private boolean removeLocked(String id) {
+        DocumentChunk removed = documentIndex.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        int ordinal = chunkTable.remove(id);
+        keywordIndex.remove(ordinal);
+        filterIndex.remove(ordinal);
+        suggestionIndex.remove(ordinal);
+        nearDuplicateIndex.remove(ordinal);
+        semanticIndex().remove(ordinal);
+        untrackPage(removed);
+        indexGeneration.incrementAndGet();
+        return true;
+    }
+    
+    private void trackPage(DocumentChunk chunk) {
+        if (chunk.getUrl() != null) {
+            chunkIdsByUrl.computeIfAbsent(chunk.getUrl(), url -> new HashSet<>()).add(chunk.getId());
+        }
+    }
+    
+    private void untrackPage(DocumentChunk chunk) {
+        Set<String> ids = chunk.getUrl() != null ? chunkIdsByUrl.get(chunk.getUrl()) : null;
+        if (ids != null && ids.remove(chunk.getId()) && ids.isEmpty()) {
+            chunkIdsByUrl.remove(chunk.getUrl());
         }
-        
-        return chunks;
     }
     
     /**
-     * Extract title from an element
+     * Drop every indexed document, releasing the off-heap vectors. The
+     * bundled guidelines are re-indexed lazily on next access.
      */
-    private String extractTitle(Element element) {
-        // Try different title selectors
-        String[] titleSelectors = {"h1", "h2", "h3", ".title", ".section-title"};
-        
-        for (String selector : titleSelectors) {
-            Element titleElement = element.selectFirst(selector);
-            if (titleElement != null) {
-                return titleElement.text().trim();
+    public void clearIndex() {
+        ordinalsLock.writeLock().lock();
+        try {
+            synchronized (indexLock) {
+                resetLocked();
+                guidelinesLoaded = false;
+                guidelinesLoad.set(null);
             }
+        } finally {
+            ordinalsLock.writeLock().unlock();
         }
-        
-        // Fallback to element text if it's a header
-        if (element.tagName().matches("h[1-6]")) {
-            return element.text().trim();
+        Path file = indexFile();
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete documentation index {}: {}", file, e.getMessage());
+            }
         }
-        
-        return "Untitled Section";
+        log.info("Documentation index cleared");
+    }
+    
+    /**
+     * Scrape a single documentation page (no link following)
+     */
+    public Mono<List<DocumentChunk>> scrapeDocumentation(String source, String url) {
+        return crawl(Map.of(source, url), 0, false)
+                .collectList()
+                .doOnSuccess(chunks -> log.info("Scraped {} new or changed chunks from {}", chunks.size(), url))
+                .doOnError(error -> log.error("Failed to scrape documentation from {}: {}", url, error.getMessage()));
     }
     
     /**
-     * Extract content from an element
+     * Crawl the given sources, re-index each changed page as it arrives and
+     * persist the index once the crawl completes. Emits only the chunks that
+     * were new or changed. Pages that are gone (404/410) lose their chunks.
+     *
+     * @param pruneOutOfScope also drop pages of these sources that a crawl
+     *                        from their seed can no longer reach
      */
-    private String extractContent(Element element) {
-        StringBuilder content = new StringBuilder();
+    private Flux<DocumentChunk> crawl(Map<String, String> seeds, int maxDepth, boolean pruneOutOfScope) {
+        // Load (or build) the bundled index first, so the snapshot written
+        // afterwards holds both and the next daemon needs neither. Both steps
+        // block, so they run off the subscriber's (possibly event-loop) thread
+        AtomicBoolean modified = new AtomicBoolean();
+        return Mono.fromRunnable(() -> {
+                    ensureGuidelinesLoaded();
+                    if (pruneOutOfScope && removeOutOfScopePages(seeds) > 0) {
+                        modified.set(true);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenMany(crawler().crawl(seeds, maxDepth))
+                .flatMapIterable(page -> {
+                    if (page.notModified()) {
+                        return List.of();
+                    }
+                    // A gone page refreshes to no chunks at all
+                    PageRefresh refresh = refreshPage(page.url(), page.chunks());
+                    if (refresh.modified()) {
+                        modified.set(true);
+                    }
+                    return refresh.changed();
+                })
+                .doOnComplete(() -> {
+                    if (modified.get()) {
+                        compactIfNeeded();
+                        persistIndex();
+                    }
+                });
+    }
+    
+    /**
+     * Drop the chunks of crawled pages that belong to one of the given
+     * sources but lie outside the scope of its current seed URL, e.g.
+     * after the seed moved to a new version of the reference.
+     *
+     * @return the number of chunks removed
+     */
+    private int removeOutOfScopePages(Map<String, String> seeds) {
+        int removed = 0;
+        synchronized (indexLock) {
+            for (Map.Entry<String, Set<String>> page : new ArrayList<>(chunkIdsByUrl.entrySet())) {
+                String url = page.getKey();
+                DocumentChunk chunk = documentIndex.get(page.getValue().iterator().next());
+                String seed = chunk != null ? seeds.get(chunk.getSource()) : null;
+                if (seed != null && url.startsWith("http") && !DocumentationCrawler.inScopeOf(url, seed)) {
+                    removed += refreshPage(url, List.of()).removed();
+                }
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} chunks of pages no longer in scope of their source", removed);
+        }
+        return removed;
+    }
+    
+    private DocumentationCrawler crawler() {
+        DocumentationCrawler current = crawler;
+        if (current == null) {
+            synchronized (indexLock) {
+                current = crawler;
+                if (current == null) {
+                    current = new DocumentationCrawler(webClientBuilder,
+                            properties.getDocumentation().getCrawler(), this::parseDocumentationPage);
+                    crawler = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Built-in sources plus enabled spring-boost.documentation.sources
+     * entries, which override built-ins of the same name
+     */
+    private Map<String, String> crawlSeeds() {
+        Map<String, String> seeds = new LinkedHashMap<>(documentationSources);
+        properties.getDocumentation().getSources().forEach((name, source) -> {
+            if (source.isEnabled() && source.getBaseUrl() != null && !source.getBaseUrl().isBlank()) {
+                seeds.put(name, source.getBaseUrl());
+            } else {
+                seeds.remove(name);
+            }
+        });
+        return seeds;
+    }
+    
+    /**
+     * Parse an HTML documentation page into chunks by heading section (see
+     * {@link HtmlSectionSplitter}), so nested sections are never indexed
+     * twice. A section over the chunking budget is split like a markdown
+     * section, between blocks and never inside code. Only chunks not
+     * already indexed under the same id are embedded; the rest are the
+     * indexed instances, reused as-is.
+     */
+    List<DocumentChunk> parseDocumentationPage(Document doc, String source, String baseUrl) {
+        List<DocumentChunk> chunks = new ArrayList<>();
         
-        // Extract text content
-        String text = element.text();
-        if (text != null && !text.trim().isEmpty()) {
-            content.append(text.trim()).append("\n\n");
+        try {
+            // Content before the first heading goes under the page title
+            String pageTitle = doc.title().isBlank() ? "Untitled Section" : doc.title().trim();
+            Element root = doc.body() != null ? doc.body() : doc;
+            MarkdownChunker chunker = newChunker();
+            HtmlSectionSplitter.split(root, section -> {
+                String title = section.title() != null ? section.title() : pageTitle;
+                if (!isValidContent(title, section.text())) {
+                    return;
+                }
+                // Section text has no headings of its own, so every piece
+                // keeps the section's title and the code it contains
+                chunker.chunk(section.text(), piece -> {
+                    List<String> code = section.codeSnippets().stream()
+                            .filter(piece.text()::contains)
+                            .toList();
+                    chunks.add(createDocumentChunk(title, piece.text(), code, baseUrl, source));
+                });
+            });
+        } catch (Exception e) {
+            log.error("Failed to parse documentation page: {}", e.getMessage());
         }
         
-        // Extract code blocks
-        Elements codeBlocks = element.select("pre, code");
-        for (Element codeBlock : codeBlocks) {
-            String code = codeBlock.text();
-            if (code != null && !code.trim().isEmpty()) {
-                content.append("```\n").append(code.trim()).append("\n```\n\n");
+        assignDocumentIds(chunks);
+        return embedChangedChunks(chunks);
+    }
+    
+    private List<DocumentChunk> embedChangedChunks(List<DocumentChunk> chunks) {
+        List<DocumentChunk> result = new ArrayList<>(chunks.size());
+        List<DocumentChunk> changed = new ArrayList<>();
+        for (DocumentChunk chunk : chunks) {
+            DocumentChunk indexed = documentIndex.get(chunk.getId());
+            if (indexed != null) {
+                result.add(indexed);
+            } else {
+                result.add(chunk);
+                changed.add(chunk);
             }
         }
-        
-        return content.toString().trim();
+        if (!changed.isEmpty()) {
+            embedChunks(changed);
+        }
+        return result;
     }
     
     /**
@@ -428,71 +1116,24 @@ public class DocumentationService {
     }
     
     /**
-     * Create a document chunk from extracted content
+     * Create a document chunk from extracted content. IDs are assigned per
+     * page by assignDocumentIds(), and embeddings added by
+     * embedChangedChunks() once the chunk is known to be new.
      */
-    private DocumentChunk createDocumentChunk(String title, String content, String url, String source) {
+    private DocumentChunk createDocumentChunk(String title, String content, List<String> codeSnippets,
+                                              String url, String source) {
         DocumentChunk chunk = DocumentChunk.create(title, content, url, source);
         
         // Enhance with metadata
         chunk.setTags(extractTags(content));
-        chunk.setCodeSnippets(extractCodeSnippets(content));
+        chunk.setCodeSnippets(new ArrayList<>(codeSnippets));
         chunk.setConfigurationExamples(extractConfigurationExamples(content));
         chunk.setChecksum(generateChecksum(content));
         chunk.setCategory(inferCategory(content));
         
-        // Generate embeddings
-        List<Double> embeddings = embeddingsService.generateEmbeddings(content);
-        chunk.setEmbedding(embeddings);
-        chunk.setEmbeddingDimension(embeddings.size());
-        
         return chunk;
     }
     
-    /**
-     * Create chunks from paragraphs when no sections are found
-     */
-    private List<DocumentChunk> createChunksFromParagraphs(Elements paragraphs, String source, String baseUrl) {
-        List<DocumentChunk> chunks = new ArrayList<>();
-        StringBuilder currentContent = new StringBuilder();
-        String currentTitle = "Documentation Content";
-        int chunkCount = 0;
-        
-        for (Element p : paragraphs) {
-            String text = p.text();
-            if (text != null && !text.trim().isEmpty()) {
-                currentContent.append(text.trim()).append("\n\n");
-                
-                // Create chunk every 3-5 paragraphs or when content gets too long
-                if (currentContent.length() > 1000 || chunkCount % 4 == 0) {
-                    if (currentContent.length() > 100) {
-                        DocumentChunk chunk = createDocumentChunk(
-                                currentTitle + " (Part " + (chunkCount + 1) + ")",
-                                currentContent.toString().trim(),
-                                baseUrl,
-                                source
-                        );
-                        chunks.add(chunk);
-                    }
-                    currentContent = new StringBuilder();
-                    chunkCount++;
-                }
-            }
-        }
-        
-        // Add remaining content
-        if (currentContent.length() > 100) {
-            DocumentChunk chunk = createDocumentChunk(
-                    currentTitle + " (Part " + (chunkCount + 1) + ")",
-                    currentContent.toString().trim(),
-                    baseUrl,
-                    source
-            );
-            chunks.add(chunk);
-        }
-        
-        return chunks;
-    }
-    
     /**
      * Extract tags from content
      */
@@ -607,23 +1248,87 @@ public class DocumentationService {
         }
     }
     
+    SemanticIndex semanticIndex() {
+        SemanticIndex index = semanticIndex;
+        if (index == null) {
+            synchronized (indexLock) {
+                index = semanticIndex;
+                if (index == null) {
+                    index = createSemanticIndex();
+                    semanticIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+    
+    private SemanticIndex createSemanticIndex() {
+        SpringBoostProperties.SearchProperties search = properties.getDocumentation().getSearch();
+        String type = search.getSemanticIndex().toLowerCase();
+        if ("exact".equals(type)) {
+            return vectorStore;
+        }
+        if ("int8".equals(type) || "binary".equals(type)) {
+            QuantizedIndex.Encoding encoding = QuantizedIndex.Encoding.valueOf(type.toUpperCase());
+            int rescoreFactor = search.getQuantizationRescoreFactor() > 0
+                    ? search.getQuantizationRescoreFactor()
+                    : encoding.getDefaultRescoreFactor();
+            log.debug("Using {} quantized semantic index (rescoreFactor={})", encoding, rescoreFactor);
+            return new QuantizedIndex(vectorStore, encoding, rescoreFactor);
+        }
+        log.debug("Using HNSW semantic index (m={}, efConstruction={}, efSearch={})",
+                search.getHnswM(), search.getHnswEfConstruction(), search.getHnswEfSearch());
+        return new HnswIndex(vectorStore, search.getHnswM(), search.getHnswEfConstruction(), search.getHnswEfSearch());
+    }
+    
     /**
-     * Generate a unique ID for a document
+     * Generate a unique ID for a document. Derived from the page URL, the
+     * title and the content hash, so an unchanged chunk keeps its ID across
+     * re-crawls, and identical text on two pages or under two headings
+     * still gets two IDs. The n-th repeat of a section on the same page
+     * (occurrence n, counted from 0) gets an ID of its own as well.
      */
+    private String generateDocumentId(DocumentChunk chunk, int occurrence) {
+        String checksum = chunk.getChecksum() != null ? chunk.getChecksum() : generateChecksum(chunk.getContent());
+        String key = sha256Hex((chunk.getUrl() != null ? chunk.getUrl() : "")
+                + "\n" + (chunk.getTitle() != null ? chunk.getTitle() : "")
+                + "\n" + checksum
+                + (occurrence > 0 ? "\n" + occurrence : ""));
+        return chunk.getSource() + "-" + key.substring(0, 16);
+    }
+    
     private String generateDocumentId(DocumentChunk chunk) {
-        String checksum = chunk.getChecksum();
-        // Ensure we have enough characters for substring
-        String shortChecksum = checksum.length() >= 8 ? checksum.substring(0, 8) : checksum;
-        return chunk.getSource() + "-" + shortChecksum;
+        return generateDocumentId(chunk, 0);
+    }
+    
+    /**
+     * Set the IDs of the chunks parsed from one page or file, numbering
+     * repeats of the same section so the copies don't replace each other.
+     */
+    private void assignDocumentIds(List<DocumentChunk> chunks) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (DocumentChunk chunk : chunks) {
+            String id = generateDocumentId(chunk);
+            int occurrence = occurrences.merge(id, 1, Integer::sum) - 1;
+            chunk.setId(occurrence == 0 ? id : generateDocumentId(chunk, occurrence));
+        }
     }
     
     /**
-     * Generate checksum for content
+     * Generate checksum for content (hex SHA-256)
      */
     private String generateChecksum(String content) {
-        // Use absolute value and pad with zeros to ensure consistent length
-        int hash = Math.abs(content.hashCode());
-        return String.format("%08d", hash);
+        return sha256Hex(content);
+    }
+    
+    private static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
     }
     
     /**
@@ -642,23 +1347,147 @@ public class DocumentationService {
         return Optional.ofNullable(documentIndex.get(id));
     }
     
+    /**
+     * Get the chunk stored under an index ordinal, or null if it was removed.
+     * Ordinals taken from an index are only good to resolve within the same
+     * {@link #withStableOrdinals} call.
+     */
+    public DocumentChunk getDocumentByOrdinal(int ordinal) {
+        return chunkTable.get(ordinal);
+    }
+    
+    /**
+     * Get the keyword (BM25) index over all indexed documents
+     */
+    public KeywordIndex getKeywordIndex() {
+        ensureGuidelinesLoaded();
+        return keywordIndex;
+    }
+    
+    /**
+     * Get the per-value source/version/category/tag bitmaps used to
+     * pre-filter searches
+     */
+    public FilterIndex getFilterIndex() {
+        ensureGuidelinesLoaded();
+        return filterIndex;
+    }
+    
+    /**
+     * Get the prefix trie of titles, tags and terms behind search
+     * suggestions
+     */
+    public SuggestionIndex getSuggestionIndex() {
+        ensureGuidelinesLoaded();
+        return suggestionIndex;
+    }
+    
+    /**
+     * Get the MinHash clusters of near-duplicate documents
+     */
+    public NearDuplicateIndex getNearDuplicateIndex() {
+        ensureGuidelinesLoaded();
+        return nearDuplicateIndex;
+    }
+    
+    /**
+     * Get the embedding matrix for all indexed documents
+     */
+    public VectorStore getVectorStore() {
+        ensureGuidelinesLoaded();
+        return vectorStore;
+    }
+    
+    /**
+     * Get the nearest-neighbour index used for semantic search
+     */
+    public SemanticIndex getSemanticIndex() {
+        ensureGuidelinesLoaded();
+        return semanticIndex();
+    }
+    
+    /**
+     * Get the index generation, which changes whenever a document is
+     * indexed, removed or the index is cleared or reloaded
+     */
+    public long getIndexGeneration() {
+        ensureGuidelinesLoaded();
+        return indexGeneration.get();
+    }
+    
+    // Accessors that don't wait for the guidelines to load, for SearchService
+    // after it has decided whether to wait itself via awaitIndex()
+    
+    KeywordIndex keywordIndex() {
+        return keywordIndex;
+    }
+    
+    FilterIndex filterIndex() {
+        return filterIndex;
+    }
+    
+    VectorStore vectorStore() {
+        return vectorStore;
+    }
+    
+    NearDuplicateIndex nearDuplicateIndex() {
+        return nearDuplicateIndex;
+    }
+    
+    long indexGeneration() {
+        return indexGeneration.get();
+    }
+    
+    /**
+     * Number of ordinals handed out, tombstones included
+     */
+    int ordinalCount() {
+        return chunkTable.size();
+    }
+    
+    /**
+     * Run a search that takes ordinals from the indexes and resolves them
+     * to chunks, so that compaction can't renumber them in between.
+     */
+    <T> T withStableOrdinals(Supplier<T> search) {
+        ordinalsLock.readLock().lock();
+        try {
+            return search.get();
+        } finally {
+            ordinalsLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Get the ordinal assigned to a document id, or -1 if it is not indexed
+     */
+    public int getOrdinal(String id) {
+        return chunkTable.ordinalOf(id);
+    }
+    
     /**
      * Get documents by source
      */
     public List<DocumentChunk> getDocumentsBySource(String source) {
         ensureGuidelinesLoaded();
-        return documentIndex.values().stream()
-                .filter(chunk -> source.equals(chunk.getSource()))
-                .toList();
+        return withStableOrdinals(() -> {
+            List<DocumentChunk> chunks = new ArrayList<>();
+            filterIndex.match(source, null, null, null).forEach(ordinal -> {
+                DocumentChunk chunk = chunkTable.get(ordinal);
+                if (chunk != null) {
+                    chunks.add(chunk);
+                }
+            });
+            return chunks;
+        });
     }
     
     /**
-     * Update documentation from all configured sources
+     * Update documentation from all configured sources, following in-scope
+     * links up to spring-boost.documentation.crawler.max-depth
      */
     public Flux<DocumentChunk> updateAllDocumentation() {
-        return Flux.fromIterable(documentationSources.entrySet())
-                .flatMap(entry -> scrapeDocumentation(entry.getKey(), entry.getValue()))
-                .flatMap(Flux::fromIterable);
+        return crawl(crawlSeeds(), properties.getDocumentation().getCrawler().getMaxDepth(), true);
     }
     
     /**
@@ -675,6 +1504,12 @@ public class DocumentationService {
         return Map.of(
                 "totalDocuments", documentIndex.size(),
                 "documentsBySources", sourceStats,
+                "keywordVocabularySize", keywordIndex.getVocabularySize(),
+                "filterBitmapBytes", filterIndex.getMemoryBytes(),
+                "nearDuplicates", nearDuplicateIndex.getDuplicateCount(),
+                "vectorStoreBytes", vectorStore.getMemoryBytes(),
+                "semanticIndex", semanticIndex().getType(),
+                "quantizedBytes", semanticIndex() instanceof QuantizedIndex quantized ? quantized.getMemoryBytes() : 0L,
                 "lastUpdated", LocalDateTime.now()
         );
     }
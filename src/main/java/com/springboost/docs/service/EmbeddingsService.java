@@ -1,17 +1,25 @@
 package com.springboost.docs.service;
 
 import com.springboost.config.SpringBoostProperties;
+import com.springboost.docs.embeddings.EmbeddingsCache;
+import com.springboost.docs.embeddings.EmbeddingsProvider;
+import com.springboost.docs.embeddings.HashedEmbeddingsProvider;
+import com.springboost.docs.embeddings.LocalEmbeddingsProvider;
+import com.springboost.docs.embeddings.SimpleEmbeddingsProvider;
+import com.springboost.docs.index.Vectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ServiceLoader;
 
 /**
  * Service for generating and managing text embeddings for semantic search
@@ -23,208 +31,187 @@ public class EmbeddingsService {
     
     private final SpringBoostProperties properties;
     
-    // Simple in-memory cache for embeddings
-    private final Map<String, List<Double>> embeddingsCache = new ConcurrentHashMap<>();
+    private static final float[] EMPTY = new float[0];
+    
+    // Configured provider, resolved on first use
+    private volatile EmbeddingsProvider provider;
+    
+    // Bounded by spring-boost.documentation.cache-size / cache-max-bytes,
+    // created on first use (the constructor is generated)
+    private volatile EmbeddingsCache embeddingsCache;
     
     /**
-     * Generate embeddings for a given text
+     * Generate an L2-normalized embedding for a given text. The returned
+     * array may be shared through the cache and must not be modified.
      */
-    public List<Double> generateEmbeddings(String text) {
+    public float[] generateEmbeddings(String text) {
         if (text == null || text.trim().isEmpty()) {
-            return new ArrayList<>();
+            return EMPTY;
         }
-        
-        String textHash = generateTextHash(text);
-        
-        // Check cache first
-        if (embeddingsCache.containsKey(textHash)) {
-            log.debug("Retrieved embeddings from cache for text hash: {}", textHash);
-            return embeddingsCache.get(textHash);
+        return generateEmbeddings(List.of(text)).get(0);
+    }
+    
+    /**
+     * Generate embeddings for several texts, in order. Cached texts are
+     * served from the cache; the rest are de-duplicated (also against
+     * concurrent callers) and handed to the provider in batches of at most
+     * its maximum batch size. Null or blank texts get an empty vector.
+     */
+    public List<float[]> generateEmbeddings(List<String> texts) {
+        float[][] embeddings = new float[texts.size()][];
+        
+        Map<EmbeddingsCache.Key, String> textsByKey = new LinkedHashMap<>();
+        EmbeddingsCache.Key[] keys = new EmbeddingsCache.Key[texts.size()];
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (text == null || text.trim().isEmpty()) {
+                embeddings[i] = EMPTY;
+                continue;
+            }
+            keys[i] = EmbeddingsCache.Key.of(text);
+            textsByKey.putIfAbsent(keys[i], text);
         }
         
-        List<Double> embeddings;
-        
-        // Use configured embeddings provider
-        String provider = properties.getDocumentation().getEmbeddingsProvider();
-        
-        switch (provider.toLowerCase()) {
-            case "openai" -> embeddings = generateOpenAIEmbeddings(text);
-            case "local" -> embeddings = generateLocalEmbeddings(text);
-            case "simple" -> embeddings = generateSimpleEmbeddings(text);
-            default -> {
-                log.warn("Unknown embeddings provider '{}', falling back to simple embeddings", provider);
-                embeddings = generateSimpleEmbeddings(text);
+        if (!textsByKey.isEmpty()) {
+            Map<EmbeddingsCache.Key, float[]> vectors = cache().getAll(textsByKey.keySet(),
+                    missing -> embedMissing(missing, textsByKey));
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    embeddings[i] = vectors.get(keys[i]);
+                }
             }
         }
         
-        // Cache the result
-        embeddingsCache.put(textHash, embeddings);
-        
-        log.debug("Generated embeddings with dimension {} for text of length {}", 
-                embeddings.size(), text.length());
-        
-        return embeddings;
+        return Arrays.asList(embeddings);
     }
     
-    /**
-     * Generate embeddings using OpenAI API
-     */
-    private List<Double> generateOpenAIEmbeddings(String text) {
-        try {
-            // For now, we'll use a simple implementation
-            // In a real implementation, you would call the OpenAI API
-            log.info("OpenAI embeddings not implemented yet, falling back to simple embeddings");
-            return generateSimpleEmbeddings(text);
-            
-        } catch (Exception e) {
-            log.error("Failed to generate OpenAI embeddings, falling back to simple embeddings", e);
-            return generateSimpleEmbeddings(text);
+    private Map<EmbeddingsCache.Key, float[]> embedMissing(List<EmbeddingsCache.Key> missing,
+                                                           Map<EmbeddingsCache.Key, String> textsByKey) {
+        EmbeddingsProvider provider = getProvider();
+        Map<EmbeddingsCache.Key, float[]> vectors = new HashMap<>();
+        int batchSize = Math.max(1, provider.getMaxBatchSize());
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            List<EmbeddingsCache.Key> batch = missing.subList(from, Math.min(from + batchSize, missing.size()));
+            List<float[]> embedded = provider.embedBatch(batch.stream().map(textsByKey::get).toList());
+            if (embedded.size() != batch.size()) {
+                throw new IllegalStateException("Embeddings provider '" + provider.getName() + "' returned "
+                        + embedded.size() + " vectors for " + batch.size() + " texts");
+            }
+            for (int j = 0; j < batch.size(); j++) {
+                vectors.put(batch.get(j), embedded.get(j));
+            }
         }
+        log.debug("Generated {} embeddings with provider {}", missing.size(), provider.getName());
+        return vectors;
     }
     
-    /**
-     * Generate embeddings using a local model
-     */
-    private List<Double> generateLocalEmbeddings(String text) {
-        // Placeholder for local model implementation
-        log.info("Local embeddings not implemented yet, falling back to simple embeddings");
-        return generateSimpleEmbeddings(text);
+    private EmbeddingsCache cache() {
+        EmbeddingsCache current = embeddingsCache;
+        if (current == null) {
+            synchronized (this) {
+                current = embeddingsCache;
+                if (current == null) {
+                    SpringBoostProperties.DocumentationProperties documentation = properties.getDocumentation();
+                    current = new EmbeddingsCache(Math.max(1, documentation.getCacheSize()),
+                            Math.max(1, documentation.getCacheMaxBytes()));
+                    embeddingsCache = current;
+                }
+            }
+        }
+        return current;
     }
     
     /**
-     * Generate simple embeddings using basic text features
-     * This is a fallback implementation for demonstration purposes
+     * The configured embeddings provider, resolved on first use
      */
-    private List<Double> generateSimpleEmbeddings(String text) {
-        String normalizedText = text.toLowerCase().trim();
-        List<Double> embeddings = new ArrayList<>();
-        
-        // Feature 1: Text length (normalized)
-        embeddings.add((double) normalizedText.length() / 1000.0);
-        
-        // Feature 2-10: Keyword presence (Spring-related terms)
-        String[] keywords = {
-            "spring", "boot", "security", "data", "web", 
-            "controller", "service", "repository", "configuration", "bean"
-        };
-        
-        for (String keyword : keywords) {
-            double frequency = countOccurrences(normalizedText, keyword) / 100.0;
-            embeddings.add(Math.min(frequency, 1.0)); // Cap at 1.0
-        }
-        
-        // Feature 11-15: Code patterns
-        String[] codePatterns = {
-            "@", "public", "class", "import", "new"
-        };
-        
-        for (String pattern : codePatterns) {
-            double frequency = countOccurrences(normalizedText, pattern) / 50.0;
-            embeddings.add(Math.min(frequency, 1.0));
-        }
-        
-        // Feature 16-20: Structural elements
-        embeddings.add(countOccurrences(normalizedText, "{") / 20.0); // Braces
-        embeddings.add(countOccurrences(normalizedText, "(") / 30.0); // Parentheses
-        embeddings.add(countOccurrences(normalizedText, ".") / 100.0); // Dots
-        embeddings.add(countOccurrences(normalizedText, ";") / 50.0); // Semicolons
-        embeddings.add(countOccurrences(normalizedText, "\n") / 100.0); // Line breaks
-        
-        // Ensure we have a fixed dimension (50 dimensions for simplicity)
-        while (embeddings.size() < 50) {
-            embeddings.add(0.0);
+    public EmbeddingsProvider getProvider() {
+        EmbeddingsProvider current = provider;
+        if (current == null) {
+            synchronized (this) {
+                current = provider;
+                if (current == null) {
+                    current = resolveProvider(properties.getDocumentation().getEmbeddingsProvider());
+                    provider = current;
+                }
+            }
         }
-        
-        // Normalize the vector
-        return normalizeVector(embeddings);
+        return current;
     }
     
-    /**
-     * Count occurrences of a substring in text
-     */
-    private double countOccurrences(String text, String substring) {
-        int count = 0;
-        int index = 0;
-        
-        while ((index = text.indexOf(substring, index)) != -1) {
-            count++;
-            index += substring.length();
+    private EmbeddingsProvider resolveProvider(String name) {
+        switch (name.toLowerCase()) {
+            case HashedEmbeddingsProvider.NAME -> {
+                return hashedProvider();
+            }
+            case SimpleEmbeddingsProvider.NAME -> {
+                return new SimpleEmbeddingsProvider();
+            }
+            case LocalEmbeddingsProvider.NAME -> {
+                return loadLocalProvider();
+            }
+            case "openai" -> {
+                // Placeholder until a real implementation exists
+                log.info("{} embeddings not implemented yet, falling back to hashed embeddings", name);
+                return hashedProvider();
+            }
+            default -> {
+                for (EmbeddingsProvider candidate : ServiceLoader.load(EmbeddingsProvider.class)) {
+                    if (candidate.getName().equalsIgnoreCase(name)) {
+                        return candidate;
+                    }
+                }
+                log.warn("Unknown embeddings provider '{}', falling back to hashed embeddings", name);
+                return hashedProvider();
+            }
         }
-        
-        return count;
     }
     
-    /**
-     * Normalize a vector to unit length
-     */
-    private List<Double> normalizeVector(List<Double> vector) {
-        double magnitudeSquared = vector.stream()
-                .mapToDouble(Double::doubleValue)
-                .map(x -> x * x)
-                .sum();
-        
-        double magnitude = Math.sqrt(magnitudeSquared);
-        
-        if (magnitude == 0.0) {
-            return vector;
+    private EmbeddingsProvider loadLocalProvider() {
+        SpringBoostProperties.LocalModelProperties model = properties.getDocumentation().getLocalModel();
+        if (model.getPath() == null || model.getPath().isBlank()) {
+            log.warn("Local embeddings need spring-boost.documentation.local-model.path, falling back to hashed embeddings");
+            return hashedProvider();
+        }
+        int threads = model.getThreads() > 0
+                ? model.getThreads()
+                : Math.min(4, Runtime.getRuntime().availableProcessors());
+        try {
+            return LocalEmbeddingsProvider.load(Path.of(model.getPath()), threads, model.getBatchSize());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load local embedding model {}, falling back to hashed embeddings: {}",
+                    model.getPath(), e.getMessage());
+            return hashedProvider();
         }
-        
-        final double finalMagnitude = magnitude;
-        return vector.stream()
-                .map(x -> x / finalMagnitude)
-                .toList();
     }
     
-    /**
-     * Generate a hash for text to use as cache key
-     */
-    private String generateTextHash(String text) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
-            
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
+    private EmbeddingsProvider hashedProvider() {
+        return new HashedEmbeddingsProvider(Math.max(2, properties.getDocumentation().getHashedDimension()));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (provider instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.debug("Failed to close embeddings provider: {}", e.getMessage());
             }
-            
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            log.error("Failed to generate text hash", e);
-            return String.valueOf(text.hashCode());
         }
     }
     
     /**
-     * Calculate cosine similarity between two embedding vectors
+     * Calculate cosine similarity between two embedding vectors. Both are
+     * unit length, so this is just their dot product.
      */
-    public double calculateSimilarity(List<Double> vector1, List<Double> vector2) {
-        if (vector1 == null || vector2 == null || vector1.size() != vector2.size()) {
-            return 0.0;
-        }
-        
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-        
-        for (int i = 0; i < vector1.size(); i++) {
-            dotProduct += vector1.get(i) * vector2.get(i);
-            normA += Math.pow(vector1.get(i), 2);
-            normB += Math.pow(vector2.get(i), 2);
-        }
-        
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    public double calculateSimilarity(float[] vector1, float[] vector2) {
+        return Vectors.cosine(vector1, vector2);
     }
     
     /**
      * Clear the embeddings cache
      */
     public void clearCache() {
-        embeddingsCache.clear();
+        cache().clear();
         log.info("Embeddings cache cleared");
     }
     
@@ -232,9 +219,10 @@ public class EmbeddingsService {
      * Get cache statistics
      */
     public Map<String, Object> getCacheStats() {
-        return Map.of(
-                "cacheSize", embeddingsCache.size(),
-                "cacheKeys", embeddingsCache.keySet().size()
-        );
+        Map<String, Object> stats = new LinkedHashMap<>(cache().getStats());
+        stats.put("provider", getProvider().getName());
+        // Kept for existing consumers of the stats map
+        stats.put("cacheSize", stats.get("size"));
+        return stats;
     }
 }
@@ -0,0 +1,233 @@
+package com.springboost.docs.service;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Splits an HTML page into sections at its {@code h1}-{@code h3} headings,
+ * in a single walk over the DOM.
+ *
+ * <p>Every piece of text belongs to exactly one section: the one opened by
+ * the last heading before it, however the page nests its {@code section}
+ * or {@code div.sect1} containers. Lower headings stay inside the section.
+ * Preformatted code is taken once, as a fenced block in the section text
+ * that is also listed among the section's code snippets. The text is
+ * markdown: code is fenced with more backticks than it contains, and
+ * prose that would read as markdown syntax at the start of a block is
+ * escaped. Navigation, the table of contents and other page chrome is
+ * skipped.
+ *
+ * <p>Each section is titled with the breadcrumb of headings it falls under,
+ * like the chunks of {@link MarkdownChunker}.
+ */
+final class HtmlSectionSplitter {
+
+    private static final Set<String> SKIPPED_TAGS = Set.of(
+            "nav", "aside", "footer", "script", "style", "noscript", "template", "svg");
+
+    // Characters that open a markdown block when they start a line
+    private static final String BLOCK_MARKERS = "#>-+*_<`~";
+
+    /**
+     * One section of a page.
+     *
+     * @param title        heading breadcrumb, or null before the first heading
+     * @param text         the section's text, blocks separated by blank lines
+     * @param codeSnippets the section's preformatted code, in page order
+     */
+    record Section(String title, String text, List<String> codeSnippets) {
+    }
+
+    private HtmlSectionSplitter() {
+    }
+
+    static List<Section> split(Element root) {
+        List<Section> sections = new ArrayList<>();
+        split(root, sections::add);
+        return sections;
+    }
+
+    /**
+     * Split a page, handing each section to the sink as soon as the next
+     * heading closes it.
+     */
+    static void split(Element root, Consumer<Section> sink) {
+        Walker walker = new Walker(sink);
+        NodeTraversor.filter(walker, root);
+        walker.flush();
+    }
+
+    private static final class Walker implements NodeFilter {
+        private final Consumer<Section> sink;
+        // Enclosing headings, outermost first
+        private final Deque<Crumb> breadcrumb = new ArrayDeque<>();
+        private final StringBuilder text = new StringBuilder();
+        private final List<String> code = new ArrayList<>();
+        private boolean pendingSpace;
+        private boolean pendingBreak;
+
+        Walker(Consumer<Section> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public FilterResult head(Node node, int depth) {
+            if (node instanceof TextNode textNode) {
+                appendText(textNode.text());
+                return FilterResult.CONTINUE;
+            }
+            if (!(node instanceof Element element)) {
+                return FilterResult.CONTINUE;
+            }
+            String tag = element.normalName();
+            if (SKIPPED_TAGS.contains(tag) || "toc".equals(element.id())) {
+                return FilterResult.SKIP_ENTIRELY;
+            }
+            int level = headingLevel(tag);
+            if (level > 0) {
+                heading(level, element.text().trim());
+                return FilterResult.SKIP_ENTIRELY;
+            }
+            if ("pre".equals(tag)) {
+                String snippet = element.wholeText().strip();
+                if (!snippet.isEmpty()) {
+                    code.add(snippet);
+                    String fence = fenceFor(snippet);
+                    appendBlock(fence + "\n" + snippet + "\n" + fence);
+                }
+                return FilterResult.SKIP_ENTIRELY;
+            }
+            if (element.isBlock()) {
+                pendingBreak = true;
+            } else if ("br".equals(tag)) {
+                pendingSpace = true;
+            }
+            return FilterResult.CONTINUE;
+        }
+
+        @Override
+        public FilterResult tail(Node node, int depth) {
+            if (node instanceof Element element && element.isBlock()) {
+                pendingBreak = true;
+            }
+            return FilterResult.CONTINUE;
+        }
+
+        void flush() {
+            String content = text.toString().strip();
+            if (!content.isEmpty()) {
+                List<String> path = new ArrayList<>(breadcrumb.size());
+                breadcrumb.forEach(crumb -> path.add(crumb.text()));
+                String title = path.isEmpty() ? null : String.join(MarkdownChunker.BREADCRUMB_SEPARATOR, path);
+                sink.accept(new Section(title, content, List.copyOf(code)));
+            }
+            text.setLength(0);
+            code.clear();
+            pendingSpace = false;
+            pendingBreak = false;
+        }
+
+        private void heading(int level, String title) {
+            flush();
+            while (!breadcrumb.isEmpty() && breadcrumb.peekLast().level() >= level) {
+                breadcrumb.removeLast();
+            }
+            if (!title.isEmpty()) {
+                breadcrumb.addLast(new Crumb(level, title));
+            }
+        }
+
+        private void appendText(String fragment) {
+            if (fragment.isBlank()) {
+                pendingSpace = !fragment.isEmpty() || pendingSpace;
+                return;
+            }
+            if (Character.isWhitespace(fragment.charAt(0))) {
+                pendingSpace = true;
+            }
+            separate();
+            String run = fragment.strip();
+            if (text.length() == 0 || text.charAt(text.length() - 1) == '\n') {
+                run = escapeBlockStart(run);
+            }
+            text.append(run);
+            pendingSpace = Character.isWhitespace(fragment.charAt(fragment.length() - 1));
+        }
+
+        private void appendBlock(String block) {
+            pendingBreak = true;
+            separate();
+            text.append(block);
+            pendingBreak = true;
+        }
+
+        private void separate() {
+            if (text.length() > 0) {
+                if (pendingBreak) {
+                    text.append("\n\n");
+                } else if (pendingSpace) {
+                    text.append(' ');
+                }
+            }
+            pendingSpace = false;
+            pendingBreak = false;
+        }
+    }
+
+    /**
+     * A backtick fence longer than any backtick run in the code, so the
+     * code can't close it
+     */
+    static String fenceFor(String code) {
+        int longest = 0;
+        int run = 0;
+        for (int i = 0; i < code.length(); i++) {
+            run = code.charAt(i) == '`' ? run + 1 : 0;
+            longest = Math.max(longest, run);
+        }
+        return "`".repeat(Math.max(3, longest + 1));
+    }
+
+    /**
+     * Backslash-escape what would make a line of prose parse as a heading,
+     * list, quote, fence, thematic break or HTML block
+     */
+    static String escapeBlockStart(String line) {
+        if (line.isEmpty()) {
+            return line;
+        }
+        if (BLOCK_MARKERS.indexOf(line.charAt(0)) >= 0) {
+            return "\\" + line;
+        }
+        int digits = 0;
+        while (digits < line.length() && Character.isDigit(line.charAt(digits))) {
+            digits++;
+        }
+        if (digits > 0 && digits < line.length() && (line.charAt(digits) == '.' || line.charAt(digits) == ')')) {
+            return line.substring(0, digits) + "\\" + line.substring(digits);
+        }
+        return line;
+    }
+
+    private static int headingLevel(String tag) {
+        return switch (tag) {
+            case "h1" -> 1;
+            case "h2" -> 2;
+            case "h3" -> 3;
+            default -> 0;
+        };
+    }
+
+    private record Crumb(int level, String text) {
+    }
+}
@@ -0,0 +1,308 @@
+package com.springboost.docs.service;
+
+import com.vladsch.flexmark.ast.FencedCodeBlock;
+import com.vladsch.flexmark.ast.Heading;
+import com.vladsch.flexmark.ast.IndentedCodeBlock;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Splits markdown into search chunks along its block structure, using the
+ * flexmark parser.
+ *
+ * <p>The top-level blocks of the document (paragraphs, lists, tables, code
+ * blocks, ...) are packed into chunks of at most {@code maxTokens}, so
+ * short sibling sections share a chunk instead of each standing alone. When
+ * a chunk is full it is cut at its last heading, as long as that leaves at
+ * least {@code minTokens} before it, and the section that heading opens
+ * moves on to the next chunk. A section too large for one chunk continues
+ * in the next, which repeats up to {@code overlapTokens} of whole trailing
+ * blocks for context. Code blocks are never split, even when larger than
+ * the budget; any other oversized block is split between lines.
+ *
+ * <p>Each chunk is titled with the breadcrumb of headings its content falls
+ * under, e.g. "Spring Security &gt; OAuth2 Resource Server &gt; JWT", or
+ * just "Spring Security" for several of its sections packed together.
+ *
+ * <p>Token counts are estimated at four characters per token, which is
+ * close enough for budgeting English prose and code.
+ */
+class MarkdownChunker {
+
+    static final String BREADCRUMB_SEPARATOR = " > ";
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    // Immutable once built, and safe to share between parsing threads
+    private static final Parser PARSER = Parser.builder().build();
+
+    private final int maxTokens;
+    private final int overlapTokens;
+    private final int minTokens;
+
+    /**
+     * One chunk of a document.
+     *
+     * @param title  heading breadcrumb, or null before the first heading
+     * @param text   the chunk's markdown
+     * @param tokens estimated token count of the text
+     */
+    record Chunk(String title, String text, int tokens) {
+    }
+
+    MarkdownChunker(int maxTokens, int overlapTokens, int minTokens) {
+        if (maxTokens < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + maxTokens);
+        }
+        this.maxTokens = maxTokens;
+        this.overlapTokens = Math.max(0, Math.min(overlapTokens, maxTokens / 2));
+        this.minTokens = Math.max(0, Math.min(minTokens, maxTokens));
+    }
+
+    List<Chunk> chunk(String markdown) {
+        List<Chunk> chunks = new ArrayList<>();
+        chunk(markdown, chunks::add);
+        return chunks;
+    }
+
+    /**
+     * Chunk a document, handing each chunk to the sink as soon as it is
+     * complete.
+     */
+    void chunk(String markdown, Consumer<Chunk> sink) {
+        Builder builder = new Builder(sink);
+        for (Node block = PARSER.parse(markdown).getFirstChild(); block != null; block = block.getNext()) {
+            String text = sourceOf(markdown, block);
+            if (text.isBlank()) {
+                continue;
+            }
+            if (block instanceof Heading heading) {
+                builder.heading(heading.getLevel(), heading.getText().toString().trim(), text);
+            } else if (block instanceof FencedCodeBlock || block instanceof IndentedCodeBlock) {
+                builder.block(text);
+            } else if (tokens(text) > maxTokens) {
+                splitLines(text).forEach(builder::block);
+            } else {
+                builder.block(text);
+            }
+        }
+        builder.flush();
+    }
+
+    static int tokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * The block's markdown from the start of its first line, so indented
+     * blocks keep their indentation, without trailing blank lines.
+     */
+    private static String sourceOf(String markdown, Node block) {
+        int start = markdown.lastIndexOf('\n', block.getStartOffset() - 1) + 1;
+        int end = Math.min(block.getEndOffset(), markdown.length());
+        return markdown.substring(start, end).stripTrailing();
+    }
+
+    /**
+     * Pieces of an oversized block, each within the budget unless a single
+     * line is longer than that.
+     */
+    private List<String> splitLines(String text) {
+        List<String> pieces = new ArrayList<>();
+        StringBuilder piece = new StringBuilder();
+        for (String line : text.split("\n")) {
+            if (piece.length() > 0 && tokens(piece.toString()) + tokens(line) + 1 > maxTokens) {
+                pieces.add(piece.toString());
+                piece.setLength(0);
+            }
+            if (piece.length() > 0) {
+                piece.append('\n');
+            }
+            piece.append(line);
+        }
+        if (!piece.toString().isBlank()) {
+            pieces.add(piece.toString());
+        }
+        return pieces;
+    }
+
+    /**
+     * Packs blocks into chunks for one document.
+     */
+    private final class Builder {
+        private final Consumer<Chunk> sink;
+        // Enclosing headings, outermost first
+        private final Deque<Crumb> breadcrumb = new ArrayDeque<>();
+        private final List<Block> blocks = new ArrayList<>();
+        private int tokens;
+
+        Builder(Consumer<Chunk> sink) {
+            this.sink = sink;
+        }
+
+        void heading(int level, String text, String markdown) {
+            while (!breadcrumb.isEmpty() && breadcrumb.peekLast().level() >= level) {
+                breadcrumb.removeLast();
+            }
+            breadcrumb.addLast(new Crumb(level, text));
+            add(new Block(markdown, tokens(markdown) + 1, true, currentBreadcrumb()));
+        }
+
+        void block(String markdown) {
+            add(new Block(markdown, tokens(markdown) + 1, false, currentBreadcrumb()));
+        }
+
+        void flush() {
+            emit(blocks.size());
+        }
+
+        private void add(Block block) {
+            if (!blocks.isEmpty() && tokens + block.tokens() > maxTokens) {
+                int cut = sectionBoundary();
+                if (cut > 0) {
+                    // Emit the whole sections before the last heading; the
+                    // section it opens carries on into the next chunk
+                    emit(cut);
+                }
+                if (tokens + block.tokens() > maxTokens) {
+                    continueSection(block);
+                }
+            }
+            append(block);
+        }
+
+        /**
+         * Make room for a block by emitting what there is so far, keeping
+         * any headings it ends with (they belong to the block) or else up
+         * to overlapTokens of trailing context.
+         */
+        private void continueSection(Block block) {
+            int headings = 0;
+            while (headings < blocks.size() && blocks.get(blocks.size() - 1 - headings).heading()) {
+                headings++;
+            }
+            if (headings == blocks.size()) {
+                // Nothing but headings yet: they go with the block, however big
+                return;
+            }
+            if (headings > 0) {
+                emit(blocks.size() - headings);
+                return;
+            }
+            // A block over the budget on its own (code) is oversized anyway,
+            // and most needs the prose leading into it
+            int room = block.tokens() > maxTokens ? overlapTokens : maxTokens - block.tokens();
+            List<Block> overlap = trailingOverlap(room);
+            emit(blocks.size());
+            overlap.forEach(this::append);
+        }
+
+        /**
+         * Index of the last run of headings that leaves at least minTokens
+         * before it, or 0 if there is none.
+         */
+        private int sectionBoundary() {
+            int before = tokens;
+            for (int i = blocks.size() - 1; i > 0; i--) {
+                before -= blocks.get(i).tokens();
+                if (blocks.get(i).heading() && !blocks.get(i - 1).heading() && before >= minTokens) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+        private void emit(int count) {
+            if (count == 0) {
+                return;
+            }
+            List<Block> emitted = blocks.subList(0, count);
+            List<String> texts = new ArrayList<>(count);
+            for (Block block : emitted) {
+                texts.add(block.text());
+                tokens -= block.tokens();
+            }
+            String text = String.join("\n\n", texts);
+            sink.accept(new Chunk(title(emitted), text, tokens(text)));
+            emitted.clear();
+        }
+
+        private void append(Block block) {
+            blocks.add(block);
+            tokens += block.tokens();
+        }
+
+        /**
+         * Whole trailing blocks of the current chunk fitting in the overlap
+         * budget and the room left, oldest first. Never the entire chunk,
+         * so every chunk makes progress.
+         */
+        private List<Block> trailingOverlap(int room) {
+            List<Block> overlap = new ArrayList<>();
+            int budget = Math.min(overlapTokens, room);
+            for (int i = blocks.size() - 1; i > 0; i--) {
+                Block block = blocks.get(i);
+                if (block.tokens() > budget) {
+                    break;
+                }
+                budget -= block.tokens();
+                overlap.add(0, block);
+            }
+            return overlap;
+        }
+
+        private List<String> currentBreadcrumb() {
+            List<String> path = new ArrayList<>(breadcrumb.size());
+            for (Crumb crumb : breadcrumb) {
+                path.add(crumb.text());
+            }
+            return path;
+        }
+    }
+
+    /**
+     * The breadcrumb the content of a chunk has in common, e.g. the parent
+     * of several sibling sections packed together, or null before the
+     * first heading. Headings only count when there is no other content.
+     */
+    private static String title(List<Block> blocks) {
+        boolean content = blocks.stream().anyMatch(block -> !block.heading() && !block.breadcrumb().isEmpty());
+        List<String> common = null;
+        for (Block block : blocks) {
+            if (block.breadcrumb().isEmpty() || (content && block.heading())) {
+                continue;
+            }
+            if (common == null) {
+                common = block.breadcrumb();
+                continue;
+            }
+            int shared = 0;
+            while (shared < common.size() && shared < block.breadcrumb().size()
+                    && common.get(shared).equals(block.breadcrumb().get(shared))) {
+                shared++;
+            }
+            if (shared == 0) {
+                // Sections of different top-level headings: keep the first
+                break;
+            }
+            common = common.subList(0, shared);
+        }
+        return common != null ? String.join(BREADCRUMB_SEPARATOR, common) : null;
+    }
+
+    private record Crumb(int level, String text) {
+    }
+
+    /**
+     * A top-level block with its estimated tokens, counting the separator
+     * before it, and the headings it falls under.
+     */
+    private record Block(String text, int tokens, boolean heading, List<String> breadcrumb) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.springboost.docs.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of computed query results, each stamped with the
+ * {@link DocumentationService#getIndexGeneration() index generation} it
+ * was computed against.
+ *
+ * <p>A result is only served for the generation it was stored under. The
+ * first lookup or store under a newer generation drops every entry at
+ * once, since all of them describe an index that no longer exists.
+ */
+class QueryResultCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries;
+    private final int maxEntries;
+    private long generation = Long.MIN_VALUE;
+
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    QueryResultCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        // Access order, evicting the least recently used past the bound
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > QueryResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Cached result for the key at the given generation, or null. Counts a
+     * hit or a miss.
+     */
+    synchronized V get(K key, long currentGeneration) {
+        advance(currentGeneration);
+        V value = currentGeneration == generation ? entries.get(key) : null;
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Store a result computed at the given generation. Results from a
+     * generation older than the newest one seen are discarded.
+     */
+    synchronized void put(K key, long computedGeneration, V value) {
+        advance(computedGeneration);
+        if (computedGeneration == generation) {
+            entries.put(key, value);
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized Map<String, Object> getStats() {
+        long lookups = hits + misses;
+        return Map.of(
+                "size", entries.size(),
+                "maxEntries", maxEntries,
+                "hits", hits,
+                "misses", misses,
+                "hitRate", lookups == 0 ? 0.0 : (double) hits / lookups,
+                "invalidations", invalidations,
+                "generation", generation
+        );
+    }
+
+    private void advance(long newGeneration) {
+        if (newGeneration > generation) {
+            if (!entries.isEmpty()) {
+                invalidations++;
+                entries.clear();
+            }
+            generation = newGeneration;
+        }
+    }
+}
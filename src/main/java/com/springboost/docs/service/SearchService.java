@@ -1,6 +1,15 @@
 package com.springboost.docs.service;
 
+import com.springboost.config.SpringBoostProperties;
+import com.springboost.docs.index.NearDuplicateIndex;
+import com.springboost.docs.index.RoaringBitmap;
+import com.springboost.docs.index.SemanticIndex;
+import com.springboost.docs.index.Tokenizer;
+import com.springboost.docs.index.TopKCollector;
+import com.springboost.docs.index.VectorStore;
+import com.springboost.docs.index.Vectors;
 import com.springboost.docs.model.DocumentChunk;
+import com.springboost.docs.model.ScoredChunk;
 import com.springboost.docs.model.SearchRequest;
 import com.springboost.docs.model.SearchResult;
 import lombok.RequiredArgsConstructor;
@@ -8,6 +17,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
 
 /**
@@ -18,11 +28,27 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SearchService {
     
+    // Hybrid search fuses this many times maxResults candidates per mode
+    private static final int HYBRID_POOL_FACTOR = 4;
+    // Collapsing near-duplicates ranks this many times maxResults candidates,
+    // so the results stay full after the duplicates are dropped
+    private static final int DIVERSITY_POOL_FACTOR = 2;
+    
     private final DocumentationService documentationService;
     private final EmbeddingsService embeddingsService;
+    private final SpringBoostProperties properties;
+    
+    // Created on first use from spring-boost.documentation.search.result-cache-size
+    private volatile SearchCaches caches;
+    
+    // Last recall measured by getSemanticRecall(), for the generation it was measured at
+    private volatile MeasuredRecall measuredRecall;
     
     /**
-     * Perform a search based on the search request
+     * Perform a search based on the search request. Each enabled mode keeps
+     * its own bounded top-k heap; in hybrid mode the two heaps are fused in
+     * one pass over their union, so a query never holds or sorts more than a
+     * few times maxResults candidates.
      */
     public SearchResult search(SearchRequest request) {
         if (!request.isValid()) {
@@ -31,368 +57,443 @@ public class SearchService {
         
         long startTime = System.currentTimeMillis();
         
-        List<DocumentChunk> results = new ArrayList<>();
+        // Waits for the index to be published unless the caller opted into
+        // whatever has been indexed so far; such partial results are never
+        // cached
+        boolean complete = documentationService.awaitIndex(request.isAllowPartialResults());
+        return documentationService.withStableOrdinals(() -> search(request, complete, startTime));
+    }
+    
+    /**
+     * Search the index as it is now, once the caller has waited for it as
+     * far as the request wants. Runs with the ordinals held stable.
+     */
+    private SearchResult search(SearchRequest request, boolean complete, long startTime) {
+        // Read before searching, so a result is never stored under a
+        // generation newer than the index it was computed from
+        SearchCaches caches = complete ? caches() : null;
+        long generation = documentationService.indexGeneration();
+        SearchKey key = caches != null ? SearchKey.of(request, properties.getDocumentation().getSearch()) : null;
+        if (caches != null) {
+            SearchResult cached = caches.results().get(key, generation);
+            if (cached != null) {
+                return SearchResult.builder()
+                        .query(request.getQuery())
+                        .results(cached.getResults())
+                        .totalResults(cached.getTotalResults())
+                        .candidatesScored(cached.getCandidatesScored())
+                        .searchTimeMs(System.currentTimeMillis() - startTime)
+                        .searchType(cached.getSearchType())
+                        .build();
+            }
+        }
+        
+        List<ScoredChunk> results;
+        boolean failed = false;
+        int candidatesScored = 0;
         String searchType = "hybrid";
         
         try {
-            if (request.isSemanticSearch()) {
-                results.addAll(performSemanticSearch(request));
-                searchType = "semantic";
-            }
+            TopKCollector semanticResults = null;
+            TopKCollector keywordResults = null;
             
-            if (request.isKeywordSearch()) {
-                List<DocumentChunk> keywordResults = performKeywordSearch(request);
-                results.addAll(keywordResults);
-                searchType = request.isSemanticSearch() ? "hybrid" : "keyword";
-            }
-            
-            // If no specific search type is enabled, default to semantic
-            if (!request.isSemanticSearch() && !request.isKeywordSearch()) {
-                results.addAll(performSemanticSearch(request));
-                searchType = "semantic";
-            }
+            // Resolved once from the filter bitmaps and shared by both modes
+            RoaringBitmap candidates = documentationService.filterIndex().match(
+                    request.getSource(), request.getVersion(), request.getCategory(), request.getTags());
+            // Ranked deep enough to fill maxResults with distinct clusters
+            int depth = collapseNearDuplicates() ? request.getMaxResults() * DIVERSITY_POOL_FACTOR : request.getMaxResults();
             
-            // Remove duplicates and filter
-            results = deduplicateAndFilter(results, request);
-            
-            // Sort by relevance score
-            results.sort((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()));
-            
-            // Limit results
-            if (results.size() > request.getMaxResults()) {
-                results = results.subList(0, request.getMaxResults());
+            if (request.isSemanticSearch() && request.isKeywordSearch()) {
+                // Deeper per-mode heaps so the fusion can promote hits that
+                // rank moderately in both modes over the top of just one
+                int pool = depth * HYBRID_POOL_FACTOR;
+                float[] queryEmbedding = embeddingsService.generateEmbeddings(request.getQuery());
+                semanticResults = performSemanticSearch(request, candidates, queryEmbedding, pool);
+                keywordResults = performKeywordSearch(request, candidates, pool);
+                candidatesScored = semanticResults.offered() + keywordResults.offered();
+                results = fuseHybrid(semanticResults, keywordResults, queryEmbedding, request, depth);
+            } else {
+                if (request.isKeywordSearch()) {
+                    keywordResults = performKeywordSearch(request, candidates, depth);
+                    searchType = "keyword";
+                } else {
+                    // If no specific search type is enabled, default to semantic
+                    float[] queryEmbedding = embeddingsService.generateEmbeddings(request.getQuery());
+                    semanticResults = performSemanticSearch(request, candidates, queryEmbedding, depth);
+                    searchType = "semantic";
+                }
+                candidatesScored = (semanticResults != null ? semanticResults.offered() : 0)
+                        + (keywordResults != null ? keywordResults.offered() : 0);
+                results = toScoredChunks(semanticResults != null ? semanticResults : keywordResults,
+                        semanticResults != null, request.getMaxResults());
             }
             
         } catch (Exception e) {
             log.error("Search failed for query '{}': {}", request.getQuery(), e.getMessage());
             results = new ArrayList<>();
+            failed = true;
         }
         
         long searchTime = System.currentTimeMillis() - startTime;
         
-        return SearchResult.builder()
+        SearchResult result = SearchResult.builder()
                 .query(request.getQuery())
-                .results(results)
+                .results(List.copyOf(results))
                 .totalResults(results.size())
+                .candidatesScored(candidatesScored)
                 .searchTimeMs(searchTime)
                 .searchType(searchType)
+                .partial(!complete)
                 .build();
+        if (caches != null && !failed) {
+            caches.results().put(key, generation, result);
+        }
+        return result;
     }
     
     /**
-     * Perform semantic search using embeddings
+     * Perform semantic search using embeddings. Queries the configured
+     * nearest-neighbour index and keeps only the best {@code k} matches.
+     *
+     * @param candidates ordinals passing the request filters, or null if
+     *                   the request has none
      */
-    private List<DocumentChunk> performSemanticSearch(SearchRequest request) {
-        List<Double> queryEmbedding = embeddingsService.generateEmbeddings(request.getQuery());
+    private TopKCollector performSemanticSearch(SearchRequest request, RoaringBitmap candidates,
+                                                float[] queryEmbedding, int k) {
+        if (candidates != null && candidates.isEmpty()) {
+            return new TopKCollector(k);
+        }
         
-        List<DocumentChunk> candidates = getCandidateDocuments(request);
-        List<DocumentChunk> results = new ArrayList<>();
+        SemanticIndex index = documentationService.semanticIndex();
         
-        for (DocumentChunk chunk : candidates) {
-            if (chunk.getEmbedding() != null && !chunk.getEmbedding().isEmpty()) {
-                double similarity = embeddingsService.calculateSimilarity(queryEmbedding, chunk.getEmbedding());
-                
-                if (similarity >= request.getMinRelevanceScore()) {
-                    chunk.setRelevanceScore(similarity);
-                    results.add(chunk);
-                }
-            }
-        }
+        TopKCollector topK = candidates != null
+                ? index.topKWithin(queryEmbedding, k, request.getMinRelevanceScore(), candidates)
+                : index.topK(queryEmbedding, k, request.getMinRelevanceScore(), null);
         
-        log.debug("Semantic search found {} results for query '{}'", results.size(), request.getQuery());
-        return results;
+        log.debug("Semantic search kept {} of {} candidates for query '{}'",
+                topK.size(), topK.offered(), request.getQuery());
+        return topK;
     }
     
     /**
-     * Perform keyword-based search
+     * Perform keyword-based search against the BM25 inverted index. Only
+     * documents containing at least one query term are ever visited, and
+     * only the best {@code k} are kept.
+     *
+     * @param candidates ordinals passing the request filters, or null if
+     *                   the request has none
      */
-    private List<DocumentChunk> performKeywordSearch(SearchRequest request) {
-        String query = request.getQuery().toLowerCase();
-        List<String> queryTerms = Arrays.asList(query.split("\\s+"));
+    private TopKCollector performKeywordSearch(SearchRequest request, RoaringBitmap candidates, int k) {
+        List<String> queryTerms = Tokenizer.tokenize(request.getQuery()).stream()
+                .distinct()
+                .collect(Collectors.toList());
         
-        List<DocumentChunk> candidates = getCandidateDocuments(request);
-        List<DocumentChunk> results = new ArrayList<>();
+        TopKCollector topK = new TopKCollector(k);
+        if (candidates != null && candidates.isEmpty()) {
+            return topK;
+        }
         
-        for (DocumentChunk chunk : candidates) {
-            double score = calculateKeywordScore(chunk, queryTerms, request.isFuzzySearch());
-            
+        documentationService.keywordIndex().search(queryTerms, request.isFuzzySearch(), candidates, (ordinal, score) -> {
             if (score >= request.getMinRelevanceScore()) {
-                chunk.setRelevanceScore(score);
-                results.add(chunk);
+                topK.offer(ordinal, (float) score);
             }
-        }
+        });
         
-        log.debug("Keyword search found {} results for query '{}'", results.size(), request.getQuery());
-        return results;
+        log.debug("Keyword search kept {} of {} candidates for query '{}'",
+                topK.size(), topK.offered(), request.getQuery());
+        return topK;
     }
     
     /**
-     * Get candidate documents based on filters
+     * Turn a single mode's top-k heap into at most {@code limit} ranked
+     * results, one per near-duplicate cluster.
      */
-    private List<DocumentChunk> getCandidateDocuments(SearchRequest request) {
-        Collection<DocumentChunk> allDocs = documentationService.getAllDocuments();
-        
-        return allDocs.stream()
-                .filter(chunk -> matchesFilters(chunk, request))
-                .collect(Collectors.toList());
+    private List<ScoredChunk> toScoredChunks(TopKCollector topK, boolean semantic, int limit) {
+        List<ScoredChunk> results = new ArrayList<>(Math.min(topK.size(), limit));
+        IntPredicate distinct = distinctClusters();
+        topK.drainDescending((ordinal, score) -> {
+            DocumentChunk chunk = documentationService.getDocumentByOrdinal(ordinal);
+            if (chunk != null && results.size() < limit && distinct.test(ordinal)) {
+                results.add(new ScoredChunk(chunk, score, semantic ? score : 0.0, semantic ? 0.0 : score));
+            }
+        });
+        return results;
     }
     
     /**
-     * Check if a document chunk matches the search filters
+     * Fuse the semantic and keyword heaps in a single pass over their union,
+     * scoring every candidate on both signals. A keyword-only candidate gets
+     * its exact similarity from the vector store, so it isn't treated as
+     * unrelated just because the approximate index didn't return it.
+     *
+     * <p>"rrf" (reciprocal-rank fusion) sums {@code 1 / (rrfK + rank)} over
+     * both modes, "weighted" sums the raw scores with
+     * {@code hybridSemanticWeight}, and "max" keeps the better of the two.
+     * RRF scores are divided by their maximum so they stay in [0, 1]. The
+     * best {@code depth} are then cut down to maxResults, one per
+     * near-duplicate cluster.
      */
-    private boolean matchesFilters(DocumentChunk chunk, SearchRequest request) {
-        // Source filter
-        if (request.getSource() != null && !request.getSource().equals(chunk.getSource())) {
-            return false;
-        }
-        
-        // Version filter
-        if (request.getVersion() != null && !request.getVersion().equals(chunk.getVersion())) {
-            return false;
-        }
-        
-        // Category filter
-        if (request.getCategory() != null && !request.getCategory().equals(chunk.getCategory())) {
-            return false;
-        }
-        
-        // Tags filter
-        if (request.getTags() != null && !request.getTags().isEmpty()) {
-            if (chunk.getTags() == null || chunk.getTags().isEmpty()) {
-                return false;
+    private List<ScoredChunk> fuseHybrid(TopKCollector semanticResults, TopKCollector keywordResults,
+                                         float[] queryEmbedding, SearchRequest request, int depth) {
+        SpringBoostProperties.SearchProperties config = properties.getDocumentation().getSearch();
+        String fusion = config.getHybridFusion().toLowerCase();
+        double semanticWeight = config.getHybridSemanticWeight();
+        int rrfK = Math.max(1, config.getRrfK());
+        
+        // ordinal -> {semantic score, keyword score, semantic rank, keyword rank}; ranks are 1-based, 0 = absent
+        Map<Integer, double[]> signals = new HashMap<>();
+        int[] rank = {0};
+        semanticResults.drainDescending((ordinal, score) -> {
+            double[] signal = signals.computeIfAbsent(ordinal, o -> new double[4]);
+            signal[0] = score;
+            signal[2] = ++rank[0];
+        });
+        rank[0] = 0;
+        keywordResults.drainDescending((ordinal, score) -> {
+            double[] signal = signals.computeIfAbsent(ordinal, o -> new double[4]);
+            signal[1] = score;
+            signal[3] = ++rank[0];
+        });
+        
+        VectorStore vectors = documentationService.vectorStore();
+        double rrfMax = 2.0 / (rrfK + 1);
+        TopKCollector fused = new TopKCollector(depth);
+        signals.forEach((ordinal, signal) -> {
+            if (signal[2] == 0) {
+                double similarity = vectors.dot(ordinal, queryEmbedding);
+                signal[0] = similarity >= request.getMinRelevanceScore() ? similarity : 0.0;
             }
             
-            // Check if any requested tag matches
-            boolean hasMatchingTag = request.getTags().stream()
-                    .anyMatch(requestedTag -> chunk.getTags().contains(requestedTag));
-            
-            if (!hasMatchingTag) {
-                return false;
+            double score = switch (fusion) {
+                case "weighted" -> semanticWeight * signal[0] + (1 - semanticWeight) * signal[1];
+                case "max" -> Math.max(signal[0], signal[1]);
+                default -> (reciprocalRank(signal[2], rrfK) + reciprocalRank(signal[3], rrfK)) / rrfMax;
+            };
+            fused.offer(ordinal, (float) score);
+        });
+        
+        List<ScoredChunk> results = new ArrayList<>(Math.min(fused.size(), request.getMaxResults()));
+        IntPredicate distinct = distinctClusters();
+        fused.drainDescending((ordinal, score) -> {
+            DocumentChunk chunk = documentationService.getDocumentByOrdinal(ordinal);
+            if (chunk != null && results.size() < request.getMaxResults() && distinct.test(ordinal)) {
+                double[] signal = signals.get(ordinal);
+                results.add(new ScoredChunk(chunk, score, signal[0], signal[1]));
             }
-        }
-        
-        return true;
+        });
+        return results;
+    }
+    
+    private static double reciprocalRank(double rank, int rrfK) {
+        return rank > 0 ? 1.0 / (rrfK + rank) : 0.0;
+    }
+    
+    private boolean collapseNearDuplicates() {
+        return properties.getDocumentation().getSearch().isCollapseNearDuplicates();
     }
     
     /**
-     * Calculate keyword-based relevance score
+     * Accepts the first ordinal offered from each near-duplicate cluster, so
+     * draining results best-first keeps the best of each; accepts every
+     * ordinal when collapsing is off.
      */
-    private double calculateKeywordScore(DocumentChunk chunk, List<String> queryTerms, boolean fuzzySearch) {
-        String content = (chunk.getTitle() + " " + chunk.getContent()).toLowerCase();
-        double score = 0.0;
-        
-        for (String term : queryTerms) {
-            if (term.trim().isEmpty()) continue;
-            
-            double termScore = 0.0;
-            
-            // Exact matches in title (higher weight)
-            if (chunk.getTitle() != null && chunk.getTitle().toLowerCase().contains(term)) {
-                termScore += 3.0;
-            }
-            
-            // Exact matches in content
-            long exactMatches = countOccurrences(content, term);
-            termScore += exactMatches * 1.0;
-            
-            // Fuzzy matches (if enabled)
-            if (fuzzySearch) {
-                termScore += calculateFuzzyMatches(content, term) * 0.5;
-            }
-            
-            // Bonus for matches in tags
-            if (chunk.getTags() != null) {
-                long tagMatches = chunk.getTags().stream()
-                        .mapToLong(tag -> countOccurrences(tag.toLowerCase(), term))
-                        .sum();
-                termScore += tagMatches * 2.0;
-            }
-            
-            // Normalize by content length
-            termScore = termScore / Math.log(content.length() + 1);
-            
-            score += termScore;
+    private IntPredicate distinctClusters() {
+        if (!collapseNearDuplicates()) {
+            return ordinal -> true;
         }
-        
-        // Normalize by number of query terms
-        return score / queryTerms.size();
+        NearDuplicateIndex nearDuplicates = documentationService.nearDuplicateIndex();
+        Set<Integer> seen = new HashSet<>();
+        return ordinal -> seen.add(nearDuplicates.clusterOf(ordinal));
     }
     
     /**
-     * Count exact occurrences of a term in text
+     * Search for similar documents to a given document
      */
-    private long countOccurrences(String text, String term) {
-        if (text == null || term == null) return 0;
-        
-        int count = 0;
-        int index = 0;
-        
-        while ((index = text.indexOf(term, index)) != -1) {
-            count++;
-            index += term.length();
+    public List<ScoredChunk> findSimilarDocuments(String documentId, int maxResults) {
+        documentationService.awaitIndex(false);
+        return documentationService.withStableOrdinals(() -> similarDocuments(documentId, maxResults));
+    }
+    
+    private List<ScoredChunk> similarDocuments(String documentId, int maxResults) {
+        SearchCaches caches = caches();
+        if (caches == null) {
+            return computeSimilarDocuments(documentId, maxResults);
         }
         
-        return count;
+        long generation = documentationService.getIndexGeneration();
+        SimilarKey key = new SimilarKey(documentId, maxResults, collapseNearDuplicates());
+        List<ScoredChunk> similar = caches.similar().get(key, generation);
+        if (similar == null) {
+            similar = List.copyOf(computeSimilarDocuments(documentId, maxResults));
+            caches.similar().put(key, generation, similar);
+        }
+        return similar;
     }
     
-    /**
-     * Calculate fuzzy matches using simple character-based similarity
-     */
-    private double calculateFuzzyMatches(String content, String term) {
-        String[] words = content.split("\\s+");
-        double maxSimilarity = 0.0;
+    private List<ScoredChunk> computeSimilarDocuments(String documentId, int maxResults) {
+        // Read from the store by ordinal: indexed chunks don't keep their vector
+        VectorStore vectors = documentationService.getVectorStore();
+        int targetOrdinal = documentationService.getOrdinal(documentId);
+        float[] targetVector = targetOrdinal >= 0 ? vectors.get(targetOrdinal) : null;
+        if (targetVector == null || maxResults <= 0) {
+            return List.of();
+        }
         
-        for (String word : words) {
-            if (word.length() >= term.length() - 2 && word.length() <= term.length() + 2) {
-                double similarity = calculateStringSimilarity(word, term);
-                maxSimilarity = Math.max(maxSimilarity, similarity);
+        // The document and its copies (e.g. in another version) aren't
+        // similar documents. They are dropped from an unfiltered query with
+        // room for them rather than filtered out inside it, which would make
+        // an HNSW search fall back to an exact scan.
+        boolean collapse = collapseNearDuplicates();
+        NearDuplicateIndex nearDuplicates = documentationService.getNearDuplicateIndex();
+        int targetCluster = nearDuplicates.clusterOf(targetOrdinal);
+        TopKCollector topK = documentationService.getSemanticIndex().topK(
+                targetVector,
+                (collapse ? maxResults * DIVERSITY_POOL_FACTOR : maxResults) + 1,
+                0.7, // High similarity threshold
+                null);
+        
+        List<ScoredChunk> similar = new ArrayList<>(Math.min(topK.size(), maxResults));
+        IntPredicate distinct = distinctClusters();
+        topK.drainDescending((ordinal, similarity) -> {
+            if (ordinal == targetOrdinal || (collapse && nearDuplicates.clusterOf(ordinal) == targetCluster)) {
+                return;
             }
-        }
+            DocumentChunk candidate = documentationService.getDocumentByOrdinal(ordinal);
+            if (candidate != null && similar.size() < maxResults && distinct.test(ordinal)) {
+                similar.add(ScoredChunk.semantic(candidate, similarity));
+            }
+        });
         
-        return maxSimilarity;
+        return similar;
     }
     
     /**
-     * Calculate string similarity using Levenshtein distance
+     * Measure how closely the configured semantic index matches an exact
+     * scan, using stored vectors as sample queries. Recall is the fraction
+     * of the exact top-k the index also returned. Samples are drawn at
+     * random ordinals; fewer are used if most ordinals are tombstones.
      */
-    private double calculateStringSimilarity(String s1, String s2) {
-        int distance = calculateLevenshteinDistance(s1, s2);
-        int maxLength = Math.max(s1.length(), s2.length());
-        
-        if (maxLength == 0) return 1.0;
-        
-        return 1.0 - (double) distance / maxLength;
+    public Map<String, Object> measureSemanticRecall(int sampleQueries, int k) {
+        documentationService.awaitIndex(false);
+        return documentationService.withStableOrdinals(() -> measureRecall(sampleQueries, k));
     }
     
     /**
-     * Calculate Levenshtein distance between two strings
+     * The semantic recall reported by health diagnostics: measured like
+     * {@link #measureSemanticRecall} at most once per index generation, and
+     * not while the index is still loading.
      */
-    private int calculateLevenshteinDistance(String s1, String s2) {
-        int m = s1.length();
-        int n = s2.length();
-        
-        int[][] dp = new int[m + 1][n + 1];
-        
-        for (int i = 0; i <= m; i++) {
-            dp[i][0] = i;
+    public Map<String, Object> getSemanticRecall(int sampleQueries, int k) {
+        if (!documentationService.awaitIndex(true)) {
+            return Map.of("status", "index loading");
         }
-        
-        for (int j = 0; j <= n; j++) {
-            dp[0][j] = j;
-        }
-        
-        for (int i = 1; i <= m; i++) {
-            for (int j = 1; j <= n; j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1];
-                } else {
-                    dp[i][j] = 1 + Math.min(dp[i - 1][j],
-                            Math.min(dp[i][j - 1], dp[i - 1][j - 1]));
-                }
-            }
+        long generation = documentationService.indexGeneration();
+        MeasuredRecall measured = measuredRecall;
+        if (measured == null || measured.generation() != generation
+                || measured.sampleQueries() != sampleQueries || measured.k() != k) {
+            measured = new MeasuredRecall(generation, sampleQueries, k, measureSemanticRecall(sampleQueries, k));
+            measuredRecall = measured;
         }
-        
-        return dp[m][n];
+        return measured.recall();
     }
     
-    /**
-     * Remove duplicates and apply final filtering
-     */
-    private List<DocumentChunk> deduplicateAndFilter(List<DocumentChunk> results, SearchRequest request) {
-        Map<String, DocumentChunk> uniqueResults = new LinkedHashMap<>();
-        
-        for (DocumentChunk chunk : results) {
-            String key = chunk.getId();
-            
-            // Keep the result with the higher relevance score
-            if (!uniqueResults.containsKey(key) || 
-                chunk.getRelevanceScore() > uniqueResults.get(key).getRelevanceScore()) {
-                uniqueResults.put(key, chunk);
+    private Map<String, Object> measureRecall(int sampleQueries, int k) {
+        SemanticIndex index = documentationService.semanticIndex();
+        VectorStore exact = documentationService.vectorStore();
+        int ordinals = documentationService.ordinalCount();
+        
+        Random random = new Random(42);
+        Set<Integer> sampled = new HashSet<>();
+        int queries = 0;
+        int found = 0;
+        int expected = 0;
+        long indexNanos = 0;
+        long exactNanos = 0;
+        for (int attempt = 0; ordinals > 0 && queries < sampleQueries && attempt < sampleQueries * 10; attempt++) {
+            int sample = random.nextInt(ordinals);
+            float[] query = sampled.add(sample) ? exact.get(sample) : null;
+            if (query == null) {
+                continue;
             }
+            queries++;
+            
+            long start = System.nanoTime();
+            TopKCollector approximate = index.topK(query, k, -1.0, null);
+            indexNanos += System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            TopKCollector truth = exact.topK(query, k, -1.0, null);
+            exactNanos += System.nanoTime() - start;
+            
+            Set<Integer> truthOrdinals = new HashSet<>();
+            truth.drainDescending((ordinal, score) -> truthOrdinals.add(ordinal));
+            int[] hits = {0};
+            approximate.drainDescending((ordinal, score) -> {
+                if (truthOrdinals.contains(ordinal)) {
+                    hits[0]++;
+                }
+            });
+            found += hits[0];
+            expected += truthOrdinals.size();
         }
         
-        return uniqueResults.values().stream()
-                .filter(chunk -> chunk.getRelevanceScore() >= request.getMinRelevanceScore())
-                .collect(Collectors.toList());
+        return Map.of(
+                "semanticIndex", index.getType(),
+                "sampleQueries", queries,
+                "k", k,
+                "recall", expected == 0 ? 1.0 : (double) found / expected,
+                "avgIndexLatencyMicros", queries == 0 ? 0.0 : indexNanos / 1000.0 / queries,
+                "avgExactLatencyMicros", queries == 0 ? 0.0 : exactNanos / 1000.0 / queries
+        );
     }
     
     /**
-     * Search for similar documents to a given document
+     * Get search suggestions based on partial query: titles, tags and terms
+     * with a word starting with it, most popular first
      */
-    public List<DocumentChunk> findSimilarDocuments(String documentId, int maxResults) {
-        Optional<DocumentChunk> targetDoc = documentationService.getDocumentById(documentId);
-        
-        if (targetDoc.isEmpty() || targetDoc.get().getEmbedding() == null) {
+    public List<String> getSearchSuggestions(String partialQuery, int maxSuggestions) {
+        if (partialQuery == null || partialQuery.trim().length() < 2) {
             return List.of();
         }
         
-        DocumentChunk target = targetDoc.get();
-        List<DocumentChunk> candidates = documentationService.getAllDocuments().stream()
-                .filter(chunk -> !chunk.getId().equals(documentId))
-                .filter(chunk -> chunk.getEmbedding() != null)
-                .collect(Collectors.toList());
-        
-        List<DocumentChunk> similar = new ArrayList<>();
-        
-        for (DocumentChunk candidate : candidates) {
-            double similarity = embeddingsService.calculateSimilarity(
-                    target.getEmbedding(), candidate.getEmbedding());
-            
-            if (similarity > 0.7) { // High similarity threshold
-                candidate.setRelevanceScore(similarity);
-                similar.add(candidate);
-            }
-        }
-        
-        similar.sort((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()));
-        
-        return similar.stream()
-                .limit(maxResults)
-                .collect(Collectors.toList());
+        return documentationService.getSuggestionIndex().suggest(partialQuery.trim(), maxSuggestions);
     }
     
     /**
-     * Get search suggestions based on partial query
+     * Get search statistics, recomputed only when the index has changed
      */
-    public List<String> getSearchSuggestions(String partialQuery, int maxSuggestions) {
-        if (partialQuery == null || partialQuery.trim().length() < 2) {
-            return List.of();
+    public Map<String, Object> getSearchStats() {
+        SearchCaches caches = caches();
+        if (caches == null) {
+            return computeSearchStats();
         }
         
-        String queryLower = partialQuery.toLowerCase();
-        Set<String> suggestions = new HashSet<>();
-        
-        // Extract common terms from documents
-        for (DocumentChunk chunk : documentationService.getAllDocuments()) {
-            // From title
-            if (chunk.getTitle() != null) {
-                String[] titleWords = chunk.getTitle().toLowerCase().split("\\s+");
-                for (String word : titleWords) {
-                    if (word.startsWith(queryLower) && word.length() > queryLower.length()) {
-                        suggestions.add(chunk.getTitle());
-                    }
-                }
-            }
-            
-            // From tags
-            if (chunk.getTags() != null) {
-                for (String tag : chunk.getTags()) {
-                    if (tag.toLowerCase().contains(queryLower)) {
-                        suggestions.add(tag.replace("-", " "));
-                    }
-                }
-            }
+        long generation = documentationService.getIndexGeneration();
+        Map<String, Object> stats = caches.stats().get("searchStats", generation);
+        if (stats == null) {
+            stats = computeSearchStats();
+            caches.stats().put("searchStats", generation, stats);
         }
-        
-        return suggestions.stream()
-                .limit(maxSuggestions)
-                .collect(Collectors.toList());
+        return stats;
     }
     
     /**
-     * Get search statistics
+     * Get hit rates of the search result caches, or an empty map when
+     * caching is disabled
      */
-    public Map<String, Object> getSearchStats() {
+    public Map<String, Object> getResultCacheStats() {
+        SearchCaches caches = caches();
+        if (caches == null) {
+            return Map.of("enabled", false);
+        }
+        return Map.of(
+                "enabled", true,
+                "searchResults", caches.results().getStats(),
+                "similarDocuments", caches.similar().getStats()
+        );
+    }
+    
+    private Map<String, Object> computeSearchStats() {
         Collection<DocumentChunk> allDocs = documentationService.getAllDocuments();
         
         Map<String, Long> sourceStats = allDocs.stream()
@@ -408,15 +509,77 @@ public class SearchService {
                         Collectors.counting()
                 ));
         
-        long docsWithEmbeddings = allDocs.stream()
-                .mapToLong(chunk -> chunk.getEmbedding() != null ? 1 : 0)
-                .sum();
+        long docsWithEmbeddings = documentationService.getVectorStore().size();
         
         return Map.of(
                 "totalDocuments", allDocs.size(),
                 "documentsWithEmbeddings", docsWithEmbeddings,
                 "documentsBySource", sourceStats,
-                "documentsByCategory", categoryStats
+                "documentsByCategory", categoryStats,
+                "semanticIndex", documentationService.getSemanticIndex().getType(),
+                "similarityKernel", Vectors.kernel().getName()
         );
     }
+    
+    private SearchCaches caches() {
+        SearchCaches current = caches;
+        if (current == null) {
+            int size = properties.getDocumentation().getSearch().getResultCacheSize();
+            if (size <= 0) {
+                return null;
+            }
+            synchronized (this) {
+                current = caches;
+                if (current == null) {
+                    current = new SearchCaches(
+                            new QueryResultCache<>(size),
+                            new QueryResultCache<>(size),
+                            new QueryResultCache<>(1));
+                    caches = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    private record SearchCaches(QueryResultCache<SearchKey, SearchResult> results,
+                                QueryResultCache<SimilarKey, List<ScoredChunk>> similar,
+                                QueryResultCache<String, Map<String, Object>> stats) {
+    }
+    
+    /**
+     * Everything that determines a search's results. Whitespace in the query
+     * is normalized and tags are order-insensitive, since they are OR'ed;
+     * the hybrid fusion and collapsing settings are included as they can
+     * change at runtime.
+     */
+    private record SearchKey(String query, String source, String version, String category, Set<String> tags,
+                             int maxResults, double minRelevanceScore,
+                             boolean semantic, boolean keyword, boolean fuzzy,
+                             String fusion, double semanticWeight, int rrfK, boolean collapseNearDuplicates) {
+        
+        static SearchKey of(SearchRequest request, SpringBoostProperties.SearchProperties config) {
+            return new SearchKey(
+                    request.getQuery().trim().replaceAll("\\s+", " "),
+                    request.getSource(),
+                    request.getVersion(),
+                    request.getCategory(),
+                    request.getTags() != null ? new TreeSet<>(request.getTags()) : Set.of(),
+                    request.getMaxResults(),
+                    request.getMinRelevanceScore(),
+                    request.isSemanticSearch(),
+                    request.isKeywordSearch(),
+                    request.isFuzzySearch(),
+                    config.getHybridFusion(),
+                    config.getHybridSemanticWeight(),
+                    config.getRrfK(),
+                    config.isCollapseNearDuplicates());
+        }
+    }
+    
+    private record MeasuredRecall(long generation, int sampleQueries, int k, Map<String, Object> recall) {
+    }
+    
+    private record SimilarKey(String documentId, int maxResults, boolean collapseNearDuplicates) {
+    }
 }
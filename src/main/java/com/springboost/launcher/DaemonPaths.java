@@ -7,6 +7,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -26,6 +27,10 @@ public final class DaemonPaths {
 
     public static final Path HOME = Paths.get(System.getProperty("user.home"), ".spring-boost");
 
+    // Module of the SIMD similarity kernel, which ThinLauncher adds to the
+    // daemon's command only; it is left out of the identity key
+    static final String VECTOR_MODULE = "jdk.incubator.vector";
+
     private DaemonPaths() {
     }
 
@@ -45,6 +50,10 @@ public final class DaemonPaths {
         return HOME.resolve("daemon-" + key + ".log");
     }
 
+    public static Path indexFile(String key) {
+        return HOME.resolve("index-" + key + ".bin");
+    }
+
     /**
      * Derives a stable identity for "this jar, launched this way" from the
      * current process's own launch arguments, minus the trailing subcommand
@@ -52,20 +61,43 @@ public final class DaemonPaths {
      * computes this for itself) and the daemon it spawns (by cloning the
      * launcher's own arguments) resolve to the identical key, since the
      * daemon's launch command differs from the launcher's only in that
-     * trailing argument.
+     * trailing argument and in {@code --add-modules jdk.incubator.vector},
+     * which is ignored.
      */
     public static String currentIdentityKey() {
         ProcessHandle.Info info = ProcessHandle.current().info();
         String[] args = info.arguments().orElseGet(DaemonPaths::argsFromJavaCommand);
-        String command = info.command().orElse("java");
+        return identityKey(info.command().orElse("java"), args);
+    }
 
-        List<String> identity = args.length <= 1
+    static String identityKey(String command, String[] launchArgs) {
+        List<String> args = withoutVectorModule(launchArgs);
+        List<String> identity = args.size() <= 1
                 ? List.of(command)
-                : Arrays.asList(Arrays.copyOfRange(args, 0, args.length - 1));
+                : args.subList(0, args.size() - 1);
 
         return sha256Hex(command + "|" + String.join("|", identity)).substring(0, 16);
     }
 
+    /**
+     * Whether the arguments already add the SIMD kernel's module.
+     */
+    static boolean addsVectorModule(String[] args) {
+        return withoutVectorModule(args).size() < args.length;
+    }
+
+    private static List<String> withoutVectorModule(String[] args) {
+        List<String> kept = new ArrayList<>(args.length);
+        for (int i = 0; i < args.length; i++) {
+            if ("--add-modules".equals(args[i]) && i + 1 < args.length && VECTOR_MODULE.equals(args[i + 1])) {
+                i++;
+            } else if (!("--add-modules=" + VECTOR_MODULE).equals(args[i])) {
+                kept.add(args[i]);
+            }
+        }
+        return kept;
+    }
+
     /** Fallback when {@code ProcessHandle.Info.arguments()} isn't available on this platform. */
     static String[] argsFromJavaCommand() {
         String sunJavaCommand = System.getProperty("sun.java.command", "");
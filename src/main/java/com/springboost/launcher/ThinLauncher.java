@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.module.ModuleFinder;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
@@ -103,6 +104,11 @@ public final class ThinLauncher {
      * it is) and swaps its trailing {@code mcp} argument for {@code mcp-daemon},
      * so the daemon boots via the same mechanism regardless of how spring-boost
      * was launched.
+     *
+     * <p>The daemon also gets {@code --add-modules jdk.incubator.vector} for
+     * the SIMD search kernel when the JDK has it. It is added here rather
+     * than by the wrapper script so the JVM's "Using incubator modules"
+     * warning lands in the daemon log, not on the editor's stderr.
      */
     private static List<String> buildRelaunchCommand() {
         ProcessHandle.Info info = ProcessHandle.current().info();
@@ -111,6 +117,11 @@ public final class ThinLauncher {
 
         List<String> command = new ArrayList<>();
         command.add(javaBin);
+        if (!DaemonPaths.addsVectorModule(originalArgs)
+                && ModuleFinder.ofSystem().find(DaemonPaths.VECTOR_MODULE).isPresent()) {
+            command.add("--add-modules");
+            command.add(DaemonPaths.VECTOR_MODULE);
+        }
         command.addAll(List.of(originalArgs));
         int lastIdx = command.size() - 1;
         if (lastIdx >= 1 && "mcp".equals(command.get(lastIdx))) {
@@ -336,9 +336,7 @@ public class DocumentationManagementTool implements McpTool {
     }
     
     private long countDocumentsWithEmbeddings() {
-        return documentationService.getAllDocuments().stream()
-                .mapToLong(chunk -> chunk.getEmbedding() != null && !chunk.getEmbedding().isEmpty() ? 1 : 0)
-                .sum();
+        return documentationService.getVectorStore().size();
     }
     
     private Map<String, Long> getCategoryDistribution() {
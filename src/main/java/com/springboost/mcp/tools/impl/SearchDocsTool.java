@@ -1,6 +1,7 @@
 package com.springboost.mcp.tools.impl;
 
 import com.springboost.docs.model.DocumentChunk;
+import com.springboost.docs.model.ScoredChunk;
 import com.springboost.docs.model.SearchRequest;
 import com.springboost.docs.model.SearchResult;
 import com.springboost.docs.service.SearchService;
@@ -21,6 +22,9 @@ import java.util.stream.Collectors;
 @Component
 public class SearchDocsTool implements McpTool {
     
+    private static final int DEFAULT_MAX_RESULTS = 5;
+    private static final int ABSOLUTE_MAX_RESULTS = 20;
+    
     private final SearchService searchService;
     
     public SearchDocsTool(SearchService searchService) {
@@ -76,9 +80,9 @@ public class SearchDocsTool implements McpTool {
                 "maxResults", Map.of(
                         "type", "integer",
                         "description", "Maximum number of results to return",
-                        "default", 5,
+                        "default", DEFAULT_MAX_RESULTS,
                         "minimum", 1,
-                        "maximum", 20
+                        "maximum", ABSOLUTE_MAX_RESULTS
                 ),
                 "semanticSearch", Map.of(
                         "type", "boolean",
@@ -90,6 +94,11 @@ public class SearchDocsTool implements McpTool {
                         "description", "Enable keyword-based search",
                         "default", false
                 ),
+                "allowPartialResults", Map.of(
+                        "type", "boolean",
+                        "description", "Search what is indexed so far instead of waiting for the documentation index to finish loading",
+                        "default", false
+                ),
                 "format", Map.of(
                         "type", "string",
                         "description", "Result format",
@@ -114,9 +123,13 @@ public class SearchDocsTool implements McpTool {
             String version = (String) params.get("version");
             String category = (String) params.get("category");
             boolean includeCode = (boolean) params.getOrDefault("includeCode", true);
-            int maxResults = ((Number) params.getOrDefault("maxResults", 5)).intValue();
+            // Clamped to the schema's range: the search sizes its candidate
+            // pools as a multiple of it
+            int maxResults = Math.max(1, Math.min(ABSOLUTE_MAX_RESULTS,
+                    ((Number) params.getOrDefault("maxResults", DEFAULT_MAX_RESULTS)).intValue()));
             boolean semanticSearch = (boolean) params.getOrDefault("semanticSearch", true);
             boolean keywordSearch = (boolean) params.getOrDefault("keywordSearch", false);
+            boolean allowPartialResults = (boolean) params.getOrDefault("allowPartialResults", false);
             String format = (String) params.getOrDefault("format", "full");
             
             // Build search request
@@ -125,7 +138,8 @@ public class SearchDocsTool implements McpTool {
                     .maxResults(maxResults)
                     .includeCodeSnippets(includeCode)
                     .semanticSearch(semanticSearch)
-                    .keywordSearch(keywordSearch);
+                    .keywordSearch(keywordSearch)
+                    .allowPartialResults(allowPartialResults);
             
             // Apply filters
             if (!"all".equals(source)) {
@@ -156,6 +170,14 @@ public class SearchDocsTool implements McpTool {
             // Format results based on requested format
             result.put("results", formatSearchResults(searchResult.getResults(), format, includeCode));
             result.put("resultCount", searchResult.getTotalResults());
+            result.put("candidatesScored", searchResult.getCandidatesScored());
+            result.put("partial", searchResult.isPartial());
+            
+            // The extras below need the whole index, so a partial search
+            // returns without waiting for it
+            if (searchResult.isPartial()) {
+                return result;
+            }
             
             // Add search suggestions if few results
             if (searchResult.getTotalResults() < 3) {
@@ -164,8 +186,8 @@ public class SearchDocsTool implements McpTool {
             
             // Add similar documents for top result
             if (searchResult.hasResults()) {
-                DocumentChunk topResult = searchResult.getTopResult();
-                List<DocumentChunk> similar = searchService.findSimilarDocuments(topResult.getId(), 3);
+                DocumentChunk topResult = searchResult.getTopResult().chunk();
+                List<ScoredChunk> similar = searchService.findSimilarDocuments(topResult.getId(), 3);
                 result.put("similarDocuments", formatSimilarDocuments(similar));
             }
             
@@ -185,8 +207,9 @@ public class SearchDocsTool implements McpTool {
     /**
      * Format search results based on the requested format
      */
-    private List<Map<String, Object>> formatSearchResults(List<DocumentChunk> results, String format, boolean includeCode) {
-        return results.stream().map(chunk -> {
+    private List<Map<String, Object>> formatSearchResults(List<ScoredChunk> results, String format, boolean includeCode) {
+        return results.stream().map(hit -> {
+            DocumentChunk chunk = hit.chunk();
             Map<String, Object> formatted = new HashMap<>();
             
             switch (format) {
@@ -196,14 +219,14 @@ public class SearchDocsTool implements McpTool {
                     formatted.put("url", chunk.getUrl());
                     formatted.put("source", chunk.getSource());
                     formatted.put("version", chunk.getVersion());
-                    formatted.put("relevanceScore", chunk.getRelevanceScore());
+                    formatted.put("relevanceScore", hit.score());
                     break;
                     
                 case "links-only":
                     formatted.put("title", chunk.getTitle());
                     formatted.put("url", chunk.getUrl());
                     formatted.put("source", chunk.getSource());
-                    formatted.put("relevanceScore", chunk.getRelevanceScore());
+                    formatted.put("relevanceScore", hit.score());
                     break;
                     
                 case "full":
@@ -216,7 +239,9 @@ public class SearchDocsTool implements McpTool {
                     formatted.put("category", chunk.getCategory());
                     formatted.put("tags", chunk.getTags());
                     formatted.put("wordCount", chunk.getWordCount());
-                    formatted.put("relevanceScore", chunk.getRelevanceScore());
+                    formatted.put("relevanceScore", hit.score());
+                    formatted.put("semanticScore", hit.semanticScore());
+                    formatted.put("keywordScore", hit.keywordScore());
                     formatted.put("createdAt", chunk.getCreatedAt());
                     formatted.put("updatedAt", chunk.getUpdatedAt());
                     
@@ -241,14 +266,15 @@ public class SearchDocsTool implements McpTool {
     /**
      * Format similar documents for display
      */
-    private List<Map<String, Object>> formatSimilarDocuments(List<DocumentChunk> similarDocs) {
-        return similarDocs.stream().map(chunk -> {
+    private List<Map<String, Object>> formatSimilarDocuments(List<ScoredChunk> similarDocs) {
+        return similarDocs.stream().map(hit -> {
+            DocumentChunk chunk = hit.chunk();
             Map<String, Object> formatted = new HashMap<>();
             formatted.put("title", chunk.getTitle());
             formatted.put("url", chunk.getUrl());
             formatted.put("source", chunk.getSource());
             formatted.put("category", chunk.getCategory() != null ? chunk.getCategory() : "unknown");
-            formatted.put("similarityScore", chunk.getRelevanceScore());
+            formatted.put("similarityScore", hit.score());
             return formatted;
         }).collect(Collectors.toList());
     }
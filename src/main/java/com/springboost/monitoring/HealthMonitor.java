@@ -179,6 +179,7 @@ public class HealthMonitor {
             searchHealth.put("healthy", healthy);
             searchHealth.put("responseTimeMs", responseTime);
             searchHealth.put("searchStats", searchStats);
+            searchHealth.put("resultCache", searchService.getResultCacheStats());
             searchHealth.put("status", healthy ? "UP" : "DOWN");
             
         } catch (Exception e) {
@@ -204,7 +205,7 @@ public class HealthMonitor {
             long responseTime = System.currentTimeMillis() - startTime;
             
             boolean healthy = embeddings != null && 
-                            !embeddings.isEmpty() && 
+                            embeddings.length > 0 && 
                             responseTime < 1000 &&
                             errorHandler.isComponentHealthy("embeddings");
             
@@ -212,7 +213,7 @@ public class HealthMonitor {
             
             embeddingsHealth.put("healthy", healthy);
             embeddingsHealth.put("responseTimeMs", responseTime);
-            embeddingsHealth.put("embeddingDimension", embeddings != null ? embeddings.size() : 0);
+            embeddingsHealth.put("embeddingDimension", embeddings != null ? embeddings.length : 0);
             embeddingsHealth.put("cacheStats", cacheStats);
             embeddingsHealth.put("status", healthy ? "UP" : "DOWN");
             
@@ -338,6 +339,11 @@ public class HealthMonitor {
             // Search service diagnostics
             Map<String, Object> searchStats = searchService.getSearchStats();
             diagnostics.put("searchService", searchStats);
+            diagnostics.put("searchResultCache", searchService.getResultCacheStats());
+            
+            // Approximate vs exact semantic search quality, re-measured
+            // only after the index changed
+            diagnostics.put("semanticRecall", searchService.getSemanticRecall(20, 10));
             
             // Embeddings service diagnostics
             Map<String, Object> embeddingsStats = embeddingsService.getCacheStats();
@@ -0,0 +1,205 @@
+package com.springboost.docs.crawler;
+
+import com.springboost.config.SpringBoostProperties;
+import com.springboost.docs.model.DocumentChunk;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Crawls a stub documentation site served from a local HTTP server and
+ * verifies link scoping, depth limits, conditional revisits, missing
+ * pages, the per-host concurrency bound and the per-page size cap.
+ */
+class DocumentationCrawlerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private String base;
+
+    private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long responseDelayMillis;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newFixedThreadPool(16);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followsInScopeLinksOnly() {
+        List<CrawledPage> pages = crawler(4).crawl(Map.of("docs", base + "/docs/index.html"), 3)
+                .collectList().block(TIMEOUT);
+
+        assertEquals(Set.of("/docs/index.html", "/docs/a.html", "/docs/b.html", "/docs/c.html"), paths(pages));
+        assertFalse(requests.contains("/other/x.html"), "links outside the seed directory must not be fetched");
+        assertFalse(requests.contains("/docs/logo.png"), "assets must not be fetched");
+        assertEquals(4, requests.size(), "every page is fetched exactly once");
+        pages.forEach(page -> assertEquals(1, page.chunks().size()));
+    }
+
+    @Test
+    void stopsAtMaxDepth() {
+        List<CrawledPage> pages = crawler(4).crawl(Map.of("docs", base + "/docs/index.html"), 1)
+                .collectList().block(TIMEOUT);
+
+        assertEquals(Set.of("/docs/index.html", "/docs/a.html", "/docs/b.html"), paths(pages));
+    }
+
+    @Test
+    void revisitUsesConditionalRequestAndKeepsFollowingCachedLinks() {
+        DocumentationCrawler crawler = crawler(4);
+        crawler.crawl(Map.of("docs", base + "/docs/index.html"), 3).collectList().block(TIMEOUT);
+
+        List<CrawledPage> second = crawler.crawl(Map.of("docs", base + "/docs/index.html"), 3)
+                .collectList().block(TIMEOUT);
+
+        CrawledPage a = second.stream().filter(page -> page.url().endsWith("/docs/a.html")).findFirst().orElseThrow();
+        assertTrue(a.notModified());
+        assertTrue(a.chunks().isEmpty());
+        // c.html is only linked from a.html, so it was reached through the cached links
+        assertTrue(paths(second).contains("/docs/c.html"));
+    }
+
+    @Test
+    void perHostConcurrencyIsBounded() {
+        responseDelayMillis = 50;
+        List<CrawledPage> pages = crawler(2).crawl(Map.of("wide", base + "/wide/index.html"), 1)
+                .collectList().block(TIMEOUT);
+
+        assertEquals(11, pages.size());
+        assertTrue(maxInFlight.get() <= 2, "max in flight was " + maxInFlight.get());
+    }
+
+    @Test
+    void oversizedPageIsParsedUpToMaxPageBytes() {
+        SpringBoostProperties.CrawlerProperties properties = properties(4);
+        properties.setMaxPageBytes(1024);
+        List<CrawledPage> pages = crawler(properties).crawl(Map.of("big", base + "/big/page.html"), 0)
+                .collectList().block(TIMEOUT);
+
+        assertEquals(1, pages.size());
+        String text = pages.get(0).chunks().get(0).getContent();
+        assertTrue(text.startsWith("Spring Boot reference."), text);
+        assertTrue(text.length() > 500 && text.length() < 1024, "length was " + text.length());
+    }
+
+    @Test
+    void missingPageIsReportedGone() {
+        List<CrawledPage> pages = crawler(4).crawl(Map.of("docs", base + "/docs/missing.html"), 0)
+                .collectList().block(TIMEOUT);
+
+        assertEquals(1, pages.size());
+        assertTrue(pages.get(0).gone());
+        assertTrue(pages.get(0).chunks().isEmpty());
+    }
+
+    private DocumentationCrawler crawler(int perHostConcurrency) {
+        return crawler(properties(perHostConcurrency));
+    }
+
+    private static SpringBoostProperties.CrawlerProperties properties(int perHostConcurrency) {
+        SpringBoostProperties.CrawlerProperties properties = new SpringBoostProperties.CrawlerProperties();
+        properties.setPerHostConcurrency(perHostConcurrency);
+        properties.setParseConcurrency(2);
+        return properties;
+    }
+
+    private DocumentationCrawler crawler(SpringBoostProperties.CrawlerProperties properties) {
+        return new DocumentationCrawler(WebClient.builder(), properties,
+                (page, source, url) -> List.of(DocumentChunk.create(page.title(), page.body().text(), url, source)));
+    }
+
+    private static Set<String> paths(List<CrawledPage> pages) {
+        return pages.stream().map(page -> page.url().replaceFirst("^http://[^/]+", "")).collect(Collectors.toSet());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requests.add(path);
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            if (responseDelayMillis > 0) {
+                Thread.sleep(responseDelayMillis);
+            }
+            if (path.equals("/docs/a.html") && "\"a1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            String body = switch (path) {
+                case "/docs/index.html" -> page("Index", "a.html", "b.html", "/other/x.html", "logo.png",
+                        "https://example.com/docs/", "a.html#section");
+                case "/docs/a.html" -> {
+                    exchange.getResponseHeaders().set("ETag", "\"a1\"");
+                    yield page("A", "c.html", "index.html");
+                }
+                case "/docs/b.html", "/docs/c.html", "/other/x.html" -> page(path, "index.html");
+                case "/wide/index.html" -> page("Wide", "p0.html", "p1.html", "p2.html", "p3.html", "p4.html",
+                        "p5.html", "p6.html", "p7.html", "p8.html", "p9.html");
+                case "/big/page.html" -> "<html><body><p>" + "Spring Boot reference. ".repeat(2000) + "</p></body></html>";
+                default -> path.startsWith("/wide/") ? page(path) : null;
+            };
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static String page(String title, String... links) {
+        StringBuilder html = new StringBuilder("<html><head><title>").append(title).append("</title></head><body>");
+        html.append("<p>Documentation page ").append(title).append("</p>");
+        for (String link : links) {
+            html.append("<a href=\"").append(link).append("\">").append(link).append("</a>");
+        }
+        return html.append("</body></html>").toString();
+    }
+}
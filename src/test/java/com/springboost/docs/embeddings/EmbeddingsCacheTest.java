@@ -0,0 +1,124 @@
+package com.springboost.docs.embeddings;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the cache stays within its entry and byte bounds, keeps
+ * frequently used entries through a scan of one-off keys, and loads a key
+ * missed by several threads at once only once.
+ */
+class EmbeddingsCacheTest {
+
+    @Test
+    void staysWithinEntryAndByteBounds() {
+        EmbeddingsCache byCount = new EmbeddingsCache(100, Long.MAX_VALUE);
+        for (int i = 0; i < 1000; i++) {
+            byCount.put(key(i), new float[8]);
+        }
+        assertEquals(100, byCount.size());
+        assertEquals(900L, byCount.getStats().get("evictions"));
+
+        // Each 384-dimension entry weighs 1536 bytes plus overhead
+        EmbeddingsCache byWeight = new EmbeddingsCache(1000, 20_000);
+        for (int i = 0; i < 100; i++) {
+            byWeight.put(key(i), new float[384]);
+        }
+        assertTrue((long) byWeight.getStats().get("weightBytes") <= 20_000);
+        assertEquals(12, byWeight.size());
+    }
+
+    @Test
+    void frequentlyUsedEntriesSurviveAScanOfOneOffKeys() {
+        // An LRU of 60 entries would lose every hot key: 99 other keys are
+        // touched between two uses of the same hot key
+        EmbeddingsCache cache = new EmbeddingsCache(60, Long.MAX_VALUE);
+        int hotKeys = 50;
+        for (int i = 0; i < 20_000; i++) {
+            access(cache, key(1_000_000 + i));
+            access(cache, key(i % hotKeys));
+        }
+
+        int resident = 0;
+        for (int i = 0; i < hotKeys; i++) {
+            if (cache.getIfPresent(key(i)) != null) {
+                resident++;
+            }
+        }
+        assertTrue(resident >= hotKeys * 9 / 10, "only " + resident + " hot keys resident");
+    }
+
+    @Test
+    void concurrentMissesOnTheSameKeyLoadOnce() throws Exception {
+        EmbeddingsCache cache = new EmbeddingsCache(100, Long.MAX_VALUE);
+        EmbeddingsCache.Key shared = EmbeddingsCache.Key.of("spring boot actuator");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<float[]>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.getAll(List.of(shared), missing -> {
+                        loads.incrementAndGet();
+                        sleep(50);
+                        Map<EmbeddingsCache.Key, float[]> loaded = new HashMap<>();
+                        missing.forEach(key -> loaded.put(key, new float[]{1f}));
+                        return loaded;
+                    }).get(shared);
+                }));
+            }
+            start.countDown();
+
+            float[] first = results.get(0).get(10, TimeUnit.SECONDS);
+            assertNotNull(first);
+            for (Future<float[]> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void keyIsMurmur3x64_128OfUtf8Bytes() {
+        assertEquals(new EmbeddingsCache.Key(0xcbd8a7b341bd9b02L, 0x5b1e906a48ae1d19L), EmbeddingsCache.Key.of("hello"));
+        assertEquals(new EmbeddingsCache.Key(0, 0), EmbeddingsCache.Key.of(""));
+    }
+
+    private static void access(EmbeddingsCache cache, EmbeddingsCache.Key key) {
+        if (cache.getIfPresent(key) == null) {
+            cache.put(key, new float[4]);
+        }
+    }
+
+    private static EmbeddingsCache.Key key(int i) {
+        return EmbeddingsCache.Key.of("text-" + i);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.springboost.docs.embeddings;
+
+import com.springboost.docs.index.Vectors;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies hashed embeddings are normalized and deterministic, and that they
+ * separate related from unrelated texts where the simple provider can't.
+ */
+class HashedEmbeddingsProviderTest {
+
+    private final HashedEmbeddingsProvider provider = new HashedEmbeddingsProvider(256);
+
+    @Test
+    void vectorsAreUnitLengthAndDeterministic() {
+        float[] vector = provider.embed("Spring Boot auto-configuration");
+        assertEquals(256, vector.length);
+        assertEquals(1.0, Math.sqrt(Vectors.dot(vector, vector)), 1e-5);
+        assertArrayEquals(vector, new HashedEmbeddingsProvider(256).embed("spring BOOT auto configuration"));
+
+        // No terms, no direction
+        assertEquals(0f, Vectors.dot(provider.embed("!? -"), provider.embed("!? -")));
+    }
+
+    @Test
+    void relatedTextsScoreAboveUnrelatedOnes() {
+        String query = "configure transaction isolation for JPA repositories";
+        String related = "Transaction isolation levels can be configured on Spring Data JPA repositories";
+        String unrelated = "Actuator exposes health and metrics endpoints over HTTP";
+
+        double relatedScore = Vectors.cosine(provider.embed(query), provider.embed(related));
+        double unrelatedScore = Vectors.cosine(provider.embed(query), provider.embed(unrelated));
+        assertTrue(relatedScore > unrelatedScore + 0.2, relatedScore + " vs " + unrelatedScore);
+
+        // The simple provider only counts a few fixed keywords, none of which
+        // occur here, so it can't tell the two apart
+        SimpleEmbeddingsProvider simple = new SimpleEmbeddingsProvider();
+        double simpleRelated = Vectors.cosine(simple.embed(query), simple.embed(related));
+        double simpleUnrelated = Vectors.cosine(simple.embed(query), simple.embed(unrelated));
+        assertTrue(relatedScore - unrelatedScore > simpleRelated - simpleUnrelated);
+    }
+
+    @Test
+    void characterTrigramsMatchSpellingVariants() {
+        float[] joined = provider.embed("autoconfiguration");
+        float[] hyphenated = provider.embed("auto-configuration");
+        float[] other = provider.embed("serialization");
+
+        assertTrue(Vectors.cosine(joined, hyphenated) > 0.4);
+        assertTrue(Vectors.cosine(joined, hyphenated) > Vectors.cosine(joined, other) + 0.2);
+    }
+}
@@ -0,0 +1,78 @@
+package com.springboost.docs.embeddings;
+
+import com.springboost.docs.index.Vectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifies model loading, WordPiece-style splitting of unknown words, mean
+ * pooling, and that the parallel batch path matches one-at-a-time results.
+ */
+class LocalEmbeddingsProviderTest {
+
+    private static final String MODEL = """
+            5 3
+            spring 1 0 0
+            security 0 1 0
+            boot 0 0 1
+            ##boot 0 0.5 0.5
+            data 1 1 0
+            """;
+
+    @Test
+    void loadsModelAndMeanPoolsKnownTokens(@TempDir Path tempDir) throws IOException {
+        try (LocalEmbeddingsProvider provider = load(tempDir)) {
+            assertEquals(5, provider.getVocabularySize());
+            assertEquals(3, provider.getDimension());
+
+            assertArrayEquals(Vectors.normalize(new float[]{1f, 1f, 0f}), provider.embed("Spring, Security!"));
+            // Unknown words contribute nothing
+            assertArrayEquals(Vectors.normalize(new float[]{1f, 1f, 0f}), provider.embed("spring quux security"));
+            // "springboot" is split into "spring" + "##boot"
+            assertArrayEquals(Vectors.normalize(new float[]{1f, 0.5f, 0.5f}), provider.embed("springboot"));
+        }
+    }
+
+    @Test
+    void parallelBatchMatchesSequentialEmbedding(@TempDir Path tempDir) throws IOException {
+        try (LocalEmbeddingsProvider provider = load(tempDir)) {
+            String[] words = {"spring", "security", "boot", "data", "springboot"};
+            List<String> texts = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                texts.add(words[i % words.length] + " " + words[(i * 7) % words.length]);
+            }
+
+            List<float[]> batch = provider.embedBatch(texts);
+
+            assertEquals(texts.size(), batch.size());
+            for (int i = 0; i < texts.size(); i++) {
+                assertArrayEquals(provider.embed(texts.get(i)), batch.get(i));
+            }
+        }
+    }
+
+    @Test
+    void rejectsInconsistentDimensions(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("broken.txt");
+        Files.writeString(file, "spring 1 0 0\nboot 1 0\n", StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> LocalEmbeddingsProvider.load(file, 2, 64));
+    }
+
+    private static LocalEmbeddingsProvider load(Path tempDir) throws IOException {
+        Path file = tempDir.resolve("model.txt");
+        Files.writeString(file, MODEL, StandardCharsets.UTF_8);
+        return LocalEmbeddingsProvider.load(file, 4, 64);
+    }
+}
@@ -0,0 +1,121 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies roaring bitmaps agree with a {@link BitSet} across array and
+ * bitmap containers, and that filter lookups combine fields with AND, tags
+ * with OR and expand {@code .x} versions.
+ */
+class FilterIndexTest {
+
+    @Test
+    void bitmapMatchesBitSetAcrossContainerTypes() {
+        Random random = new Random(3);
+        RoaringBitmap sparse = new RoaringBitmap();
+        RoaringBitmap dense = new RoaringBitmap();
+        BitSet sparseExpected = new BitSet();
+        BitSet denseExpected = new BitSet();
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(1 << 20);
+            sparse.add(value);
+            sparseExpected.set(value);
+            // Well past ARRAY_MAX values in the first two chunks
+            int packed = random.nextInt(1 << 17);
+            dense.add(packed);
+            denseExpected.set(packed);
+        }
+        for (int i = 0; i < 8_000; i++) {
+            int value = random.nextInt(1 << 17);
+            dense.remove(value);
+            denseExpected.clear(value);
+        }
+
+        assertSame(sparseExpected, sparse);
+        assertSame(denseExpected, dense);
+
+        BitSet and = (BitSet) sparseExpected.clone();
+        and.and(denseExpected);
+        assertSame(and, RoaringBitmap.and(sparse, dense));
+
+        BitSet or = (BitSet) sparseExpected.clone();
+        or.or(denseExpected);
+        assertSame(or, RoaringBitmap.or(sparse, dense));
+        assertSame(or, RoaringBitmap.or(dense, sparse));
+    }
+
+    @Test
+    void filtersCombineFieldsWithAndAndTagsWithOr() {
+        FilterIndex index = new FilterIndex();
+        index.add(0, chunk("spring-security", "6.2.1", "reference", "oauth2"));
+        index.add(1, chunk("spring-security", "6.3.0", "guide", "jwt"));
+        index.add(2, chunk("spring-security", "5.8.0", "reference", "oauth2"));
+        index.add(3, chunk("spring-boot", "3.2.0", "reference", "jwt"));
+        index.add(4, chunk("spring-security", "60.0", "reference"));
+
+        assertNull(index.match(null, null, null, List.of()));
+        assertValues(index.match("spring-security", null, null, null), 0, 1, 2, 4);
+        assertValues(index.match("spring-security", "6.x", null, null), 0, 1);
+        assertValues(index.match("spring-security", "6.x", "reference", null), 0);
+        assertValues(index.match(null, null, null, List.of("oauth2", "jwt")), 0, 1, 2, 3);
+        assertValues(index.match("spring-security", null, "reference", List.of("jwt")));
+        assertTrue(index.match("spring-data", null, null, null).isEmpty());
+    }
+
+    @Test
+    void reindexingAndRemovalUpdateTheBitmaps() {
+        FilterIndex index = new FilterIndex();
+        index.add(0, chunk("spring-security", "6.2.1", "reference", "oauth2"));
+        index.add(1, chunk("spring-security", "6.2.1", "reference", "oauth2"));
+
+        index.add(0, chunk("spring-boot", "3.2.0", "guide"));
+        assertValues(index.match("spring-security", null, null, null), 1);
+        assertValues(index.match("spring-boot", null, "guide", null), 0);
+        assertEquals(1, index.count(FilterIndex.Field.TAG, "oauth2"));
+
+        index.remove(1);
+        assertEquals(0, index.count(FilterIndex.Field.SOURCE, "spring-security"));
+        assertTrue(index.match(null, null, null, List.of("oauth2")).isEmpty());
+
+        // Callers get a copy they can keep
+        RoaringBitmap boot = index.match("spring-boot", null, null, null);
+        boot.add(7);
+        assertValues(index.match("spring-boot", null, null, null), 0);
+    }
+
+    private static void assertSame(BitSet expected, RoaringBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        List<Integer> values = new ArrayList<>();
+        actual.forEach(values::add);
+        assertEquals(expected.stream().boxed().toList(), values);
+        for (int value = 0; value < (1 << 17); value += 7) {
+            assertEquals(expected.get(value), actual.contains(value));
+        }
+    }
+
+    private static void assertValues(RoaringBitmap bitmap, int... expected) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        assertEquals(Arrays.stream(expected).boxed().toList(), values);
+    }
+
+    private static DocumentChunk chunk(String source, String version, String category, String... tags) {
+        DocumentChunk chunk = new DocumentChunk();
+        chunk.setSource(source);
+        chunk.setVersion(version);
+        chunk.setCategory(category);
+        chunk.setTags(List.of(tags));
+        return chunk;
+    }
+}
@@ -0,0 +1,146 @@
+package com.springboost.docs.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the HNSW graph finds nearly the same neighbours as an exact scan
+ * of the same vectors, re-links re-indexed vectors, and honours removals
+ * and filters without scanning exactly unless a filter hid results.
+ */
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+    private static final int VECTORS = 2000;
+
+    @Test
+    void recallAgainstExactScanIsHigh() {
+        Random random = new Random(7);
+        VectorStore store = new VectorStore();
+        HnswIndex index = new HnswIndex(store);
+        for (int ordinal = 0; ordinal < VECTORS; ordinal++) {
+            assertTrue(index.add(ordinal, randomUnitVector(random)));
+        }
+
+        int found = 0;
+        int expected = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomUnitVector(random);
+            Set<Integer> exact = ordinals(store.topK(query, 10, -1.0, null));
+            Set<Integer> approximate = ordinals(index.topK(query, 10, -1.0, null));
+            expected += exact.size();
+            approximate.retainAll(exact);
+            found += approximate.size();
+        }
+
+        double recall = (double) found / expected;
+        assertTrue(recall >= 0.9, "recall@10 should be at least 0.9, was " + recall);
+        assertEquals(VECTORS, index.size());
+    }
+
+    @Test
+    void removedOrdinalsAreNeverReturned() {
+        Random random = new Random(11);
+        VectorStore store = new VectorStore();
+        HnswIndex index = new HnswIndex(store);
+        List<float[]> vectors = new ArrayList<>();
+        for (int ordinal = 0; ordinal < 500; ordinal++) {
+            float[] vector = randomUnitVector(random);
+            vectors.add(vector);
+            index.add(ordinal, vector);
+        }
+
+        index.remove(42);
+        Set<Integer> hits = ordinals(index.topK(vectors.get(42), 10, -1.0, null));
+
+        assertFalse(hits.contains(42));
+        assertEquals(10, hits.size());
+        assertEquals(499, index.size());
+    }
+
+    @Test
+    void reindexedOrdinalIsFoundAtItsNewVector() {
+        Random random = new Random(19);
+        HnswIndex index = new HnswIndex(new VectorStore());
+        for (int ordinal = 0; ordinal < 1000; ordinal++) {
+            index.add(ordinal, randomUnitVector(random));
+        }
+
+        List<float[]> moved = new ArrayList<>();
+        for (int ordinal = 0; ordinal < 1000; ordinal += 50) {
+            float[] vector = randomUnitVector(random);
+            moved.add(vector);
+            index.add(ordinal, vector);
+        }
+
+        for (int i = 0; i < moved.size(); i++) {
+            assertEquals(Set.of(i * 50), ordinals(index.topK(moved.get(i), 1, -1.0, null)));
+        }
+        assertEquals(1000, index.size());
+    }
+
+    @Test
+    void selectiveFilterFallsBackToExactScan() {
+        Random random = new Random(13);
+        VectorStore store = new VectorStore();
+        HnswIndex index = new HnswIndex(store, 8, 100, 16);
+        for (int ordinal = 0; ordinal < 1000; ordinal++) {
+            index.add(ordinal, randomUnitVector(random));
+        }
+
+        // Only every 100th ordinal passes -- far fewer than efSearch candidates
+        float[] query = randomUnitVector(random);
+        Set<Integer> hits = ordinals(index.topK(query, 5, -1.0, ordinal -> ordinal % 100 == 0));
+        Set<Integer> exact = ordinals(store.topK(query, 5, -1.0, ordinal -> ordinal % 100 == 0));
+
+        assertEquals(exact, hits);
+    }
+
+    @Test
+    void shortfallFromMinScoreDoesNotTriggerExactScan() {
+        Random random = new Random(17);
+        int[] scans = {0};
+        VectorStore store = new VectorStore() {
+            @Override
+            public TopKCollector topK(float[] query, int k, double minScore, IntPredicate filter) {
+                scans[0]++;
+                return super.topK(query, k, minScore, filter);
+            }
+        };
+        HnswIndex index = new HnswIndex(store, 8, 100, 16);
+        for (int ordinal = 0; ordinal < 1000; ordinal++) {
+            index.add(ordinal, randomUnitVector(random));
+        }
+
+        // Only the query's own vector clears 0.7, and the filter rejects it:
+        // an exact scan could not find anything the graph missed
+        Set<Integer> hits = ordinals(index.topK(store.get(7), 5, 0.7, ordinal -> ordinal != 7));
+
+        assertTrue(hits.isEmpty());
+        assertEquals(0, scans[0]);
+    }
+
+    private static Set<Integer> ordinals(TopKCollector collector) {
+        Set<Integer> ordinals = new HashSet<>();
+        collector.drainDescending((ordinal, score) -> ordinals.add(ordinal));
+        return ordinals;
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Vectors.normalize(vector);
+    }
+}
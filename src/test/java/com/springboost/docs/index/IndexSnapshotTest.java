@@ -0,0 +1,357 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies a written snapshot loads back into equivalent chunk, keyword and
+ * vector indexes, HNSW graph, quantized codes and near-duplicate clusters,
+ * with tombstoned ordinals compacted away, whether mapped from a file or
+ * read from a stream, that a corrupt length fails the load cleanly, and
+ * that a snapshot from a different identity is ignored.
+ */
+class IndexSnapshotTest {
+
+    @Test
+    void roundTripPreservesChunksPostingsAndVectors(@TempDir Path tempDir) throws IOException {
+        ChunkTable table = new ChunkTable();
+        KeywordIndex keywordIndex = new KeywordIndex();
+        VectorStore vectors = new VectorStore();
+        index(table, keywordIndex, vectors, chunk("a", "Security filter chain", "Configure the security filter chain.", 1f, 0f, 0f));
+        index(table, keywordIndex, vectors, chunk("b", "Removed", "This chunk is removed before the snapshot.", 0f, 1f, 0f));
+        index(table, keywordIndex, vectors, chunk("c", "Data repositories", "Repositories derive security-free queries.", 0.6f, 0f, 0.8f));
+        int removed = table.remove("b");
+        keywordIndex.remove(removed);
+        vectors.remove(removed);
+
+        Path file = tempDir.resolve("index.bin");
+        IndexSnapshot.write(file, "jar-1", table, keywordIndex, vectors);
+
+        KeywordIndex loadedKeywords = new KeywordIndex();
+        VectorStore loadedVectors = new VectorStore();
+        List<DocumentChunk> loaded = IndexSnapshot.read(file, "jar-1", loadedKeywords, loadedVectors);
+
+        assertNotNull(loaded);
+        assertEquals(List.of("a", "c"), loaded.stream().map(DocumentChunk::getId).toList());
+        DocumentChunk first = loaded.get(0);
+        assertEquals("Security filter chain", first.getTitle());
+        assertEquals(List.of("security"), first.getTags());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4), first.getCreatedAt());
+        assertNull(first.getEmbedding());
+        assertArrayEquals(new float[]{1f, 0f, 0f}, loadedVectors.get(0));
+
+        // Ordinals are renumbered densely: "c" moves from 2 to 1
+        assertEquals(Map.of(0, scores(keywordIndex, "security").get(0), 1, scores(keywordIndex, "security").get(2)),
+                scores(loadedKeywords, "security"));
+        assertEquals(2, loadedKeywords.getDocumentCount());
+
+        List<Integer> nearest = new ArrayList<>();
+        loadedVectors.topK(new float[]{0f, 0f, 1f}, 1, -1.0, null).drainDescending((ordinal, score) -> nearest.add(ordinal));
+        assertEquals(List.of(1), nearest);
+
+        // The mapped store still accepts new rows past the snapshot
+        loadedVectors.add(2, new float[]{0f, 1f, 0f});
+        assertEquals(3, loadedVectors.size());
+    }
+
+    @Test
+    void streamedSnapshotLoadsLikeMappedOne(@TempDir Path tempDir) throws IOException {
+        ChunkTable table = new ChunkTable();
+        KeywordIndex keywordIndex = new KeywordIndex();
+        VectorStore vectors = new VectorStore();
+        index(table, keywordIndex, vectors, chunk("a", "Actuator", "Health endpoints.", 1f, 0f, 0f));
+        index(table, keywordIndex, vectors, chunk("b", "Security", "Security filter chain.", 0f, 0.6f, 0.8f));
+
+        Path file = tempDir.resolve("index.bin");
+        IndexSnapshot.write(file, "bundled", table, keywordIndex, vectors);
+
+        KeywordIndex loadedKeywords = new KeywordIndex();
+        VectorStore loadedVectors = new VectorStore();
+        List<DocumentChunk> loaded;
+        try (InputStream in = Files.newInputStream(file)) {
+            loaded = IndexSnapshot.read(in, "index.bin", "bundled", loadedKeywords, loadedVectors);
+        }
+
+        assertNotNull(loaded);
+        assertEquals(List.of("a", "b"), loaded.stream().map(DocumentChunk::getId).toList());
+        assertArrayEquals(new float[]{0f, 0.6f, 0.8f}, loadedVectors.get(1));
+        assertEquals(scores(keywordIndex, "security"), scores(loadedKeywords, "security"));
+        loadedVectors.add(2, new float[]{0f, 1f, 0f});
+        assertEquals(3, loadedVectors.size());
+
+        try (InputStream in = Files.newInputStream(file)) {
+            assertNull(IndexSnapshot.read(in, "index.bin", "jar-1", new KeywordIndex(), new VectorStore()));
+        }
+    }
+
+    @Test
+    void hnswGraphIsSavedAndAdoptedWithoutDroppedNodes(@TempDir Path tempDir) throws IOException {
+        Random random = new Random(3);
+        ChunkTable table = new ChunkTable();
+        KeywordIndex keywordIndex = new KeywordIndex();
+        VectorStore vectors = new VectorStore();
+        HnswIndex graph = new HnswIndex(vectors, 8, 64, 32);
+        for (int i = 0; i < 300; i++) {
+            DocumentChunk chunk = chunk("c" + i, "Chunk " + i, "Chunk number " + i + ".", randomUnitVector(random));
+            int ordinal = table.put(chunk);
+            keywordIndex.add(ordinal, chunk);
+            graph.add(ordinal, chunk.getEmbedding());
+        }
+        for (int i = 0; i < 300; i += 10) {
+            int removed = table.remove("c" + i);
+            keywordIndex.remove(removed);
+            graph.remove(removed);
+        }
+
+        Path file = tempDir.resolve("index.bin");
+        IndexSnapshot.write(file, "jar-1", table, keywordIndex, vectors, graph);
+
+        VectorStore loadedVectors = new VectorStore();
+        HnswIndex loadedGraph = new HnswIndex(loadedVectors, 8, 64, 32);
+        List<DocumentChunk> loaded = IndexSnapshot.read(file, "jar-1", new KeywordIndex(), loadedVectors, loadedGraph);
+
+        assertNotNull(loaded);
+        assertEquals(270, loadedGraph.size());
+        int found = 0;
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomUnitVector(random);
+            List<String> exact = ids(table, vectors.topK(query, 5, -1.0, null));
+            List<String> approximate = ids(loaded, loadedGraph.topK(query, 5, -1.0, null));
+            approximate.retainAll(exact);
+            found += approximate.size();
+        }
+        assertTrue(found >= 90, "recall@5 of the adopted graph should be at least 0.9, found " + found + "/100");
+
+        // A graph built with a different m is re-linked rather than adopted
+        VectorStore relinkedVectors = new VectorStore();
+        HnswIndex relinked = new HnswIndex(relinkedVectors, 4, 64, 32);
+        IndexSnapshot.read(file, "jar-1", new KeywordIndex(), relinkedVectors, relinked);
+        assertEquals(270, relinked.size());
+    }
+
+    @Test
+    void int8CodesAreSavedAndAdoptedWithoutReEncoding(@TempDir Path tempDir) throws IOException {
+        assertQuantizedCodesRoundTrip(QuantizedIndex.Encoding.INT8, tempDir);
+    }
+
+    @Test
+    void binaryCodesAreSavedAndAdoptedWithoutReEncoding(@TempDir Path tempDir) throws IOException {
+        assertQuantizedCodesRoundTrip(QuantizedIndex.Encoding.BINARY, tempDir);
+    }
+
+    private static void assertQuantizedCodesRoundTrip(QuantizedIndex.Encoding encoding, Path tempDir) throws IOException {
+        Random random = new Random(5);
+        ChunkTable table = new ChunkTable();
+        KeywordIndex keywordIndex = new KeywordIndex();
+        VectorStore vectors = new VectorStore();
+        QuantizedIndex quantized = new QuantizedIndex(vectors, encoding);
+        for (int i = 0; i < 200; i++) {
+            DocumentChunk chunk = chunk("c" + i, "Chunk " + i, "Chunk number " + i + ".", randomUnitVector(random));
+            int ordinal = table.put(chunk);
+            keywordIndex.add(ordinal, chunk);
+            quantized.add(ordinal, chunk.getEmbedding());
+        }
+        for (int i = 0; i < 200; i += 10) {
+            int removed = table.remove("c" + i);
+            keywordIndex.remove(removed);
+            quantized.remove(removed);
+        }
+
+        Path file = tempDir.resolve("index.bin");
+        IndexSnapshot.write(file, "jar-1", table, keywordIndex, vectors, quantized);
+
+        int[] rebuilds = {0};
+        VectorStore loadedVectors = new VectorStore();
+        QuantizedIndex loadedQuantized = new QuantizedIndex(loadedVectors, encoding) {
+            @Override
+            public void rebuildFromStore() {
+                rebuilds[0]++;
+                super.rebuildFromStore();
+            }
+        };
+        List<DocumentChunk> loaded = IndexSnapshot.read(file, "jar-1", new KeywordIndex(), loadedVectors, loadedQuantized);
+
+        assertNotNull(loaded);
+        assertEquals(0, rebuilds[0], "saved codes must be adopted, not re-encoded from the vectors");
+        assertEquals(180, loadedQuantized.size());
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomUnitVector(random);
+            assertEquals(ids(table, quantized.topK(query, 5, -1.0, null)),
+                    ids(loaded, loadedQuantized.topK(query, 5, -1.0, null)));
+        }
+    }
+
+    @Test
+    void nearDuplicateClustersAreSavedAndAdoptedWithoutReHashing(@TempDir Path tempDir) throws IOException {
+        String section = "Spring Boot auto-configuration attempts to automatically configure your Spring "
+                + "application based on the jar dependencies that you have added, for example an in-memory "
+                + "database when one is on the classpath and no connection beans are configured.";
+        ChunkTable table = new ChunkTable();
+        KeywordIndex keywordIndex = new KeywordIndex();
+        NearDuplicateIndex nearDuplicates = new NearDuplicateIndex();
+        List<DocumentChunk> chunks = List.of(
+                chunk("a", "Auto-configuration", section),
+                chunk("b", "Auto-configuration", section + " It backs off once you define your own."),
+                chunk("c", "Scheduling", "Schedule tasks with cron expressions and fixed delays."),
+                chunk("d", "Auto-configuration", section + " See the reference for details."));
+        for (DocumentChunk chunk : chunks) {
+            int ordinal = table.put(chunk);
+            keywordIndex.add(ordinal, chunk);
+            nearDuplicates.add(ordinal, chunk);
+        }
+        assertEquals(List.of(0, 0, 2, 0), List.of(nearDuplicates.clusterOf(0), nearDuplicates.clusterOf(1),
+                nearDuplicates.clusterOf(2), nearDuplicates.clusterOf(3)));
+        // The cluster is named after "a", which the snapshot drops
+        int removed = table.remove("a");
+        keywordIndex.remove(removed);
+        nearDuplicates.remove(removed);
+
+        Path file = tempDir.resolve("index.bin");
+        VectorStore vectors = new VectorStore();
+        IndexSnapshot.write(file, "jar-1", table, keywordIndex, vectors, vectors, nearDuplicates);
+
+        int[] hashed = {0};
+        NearDuplicateIndex loadedNearDuplicates = new NearDuplicateIndex() {
+            @Override
+            public void add(int ordinal, DocumentChunk chunk) {
+                hashed[0]++;
+                super.add(ordinal, chunk);
+            }
+        };
+        VectorStore loadedVectors = new VectorStore();
+        List<DocumentChunk> loaded = IndexSnapshot.read(file, "jar-1", new KeywordIndex(), loadedVectors,
+                loadedVectors, loadedNearDuplicates);
+
+        assertEquals(List.of("b", "c", "d"), loaded.stream().map(DocumentChunk::getId).toList());
+        assertEquals(0, hashed[0], "saved signatures must be adopted, not re-hashed from the chunks");
+        assertEquals(loadedNearDuplicates.clusterOf(0), loadedNearDuplicates.clusterOf(2));
+        assertNotEquals(loadedNearDuplicates.clusterOf(0), loadedNearDuplicates.clusterOf(1));
+        assertEquals(1, loadedNearDuplicates.getDuplicateCount());
+        // The refiled buckets still find the cluster for a new chunk
+        loadedNearDuplicates.add(3, chunk("e", "Auto-configuration", section));
+        assertEquals(loadedNearDuplicates.clusterOf(0), loadedNearDuplicates.clusterOf(3));
+    }
+
+    @Test
+    void snapshotWithoutNearDuplicatesHashesTheLoadedChunks(@TempDir Path tempDir) throws IOException {
+        ChunkTable table = new ChunkTable();
+        KeywordIndex keywordIndex = new KeywordIndex();
+        VectorStore vectors = new VectorStore();
+        index(table, keywordIndex, vectors, chunk("a", "Actuator", "Health endpoints report application status."));
+        index(table, keywordIndex, vectors, chunk("b", "Actuator", "Health endpoints report application status."));
+        Path file = tempDir.resolve("index.bin");
+        IndexSnapshot.write(file, "jar-1", table, keywordIndex, vectors);
+
+        NearDuplicateIndex nearDuplicates = new NearDuplicateIndex();
+        VectorStore loadedVectors = new VectorStore();
+        IndexSnapshot.read(file, "jar-1", new KeywordIndex(), loadedVectors, loadedVectors, nearDuplicates);
+
+        assertEquals(0, nearDuplicates.clusterOf(1));
+    }
+
+    @Test
+    void corruptLengthFieldsFailTheLoadBeforeAllocating(@TempDir Path tempDir) throws IOException {
+        ChunkTable table = new ChunkTable();
+        KeywordIndex keywordIndex = new KeywordIndex();
+        VectorStore vectors = new VectorStore();
+        // No vectors, so the vector region can't bound the chunk count
+        index(table, keywordIndex, vectors, chunk("a", "Actuator", "Health endpoints."));
+        Path file = tempDir.resolve("index.bin");
+        IndexSnapshot.write(file, "jar-1", table, keywordIndex, vectors);
+        byte[] snapshot = Files.readAllBytes(file);
+        // magic, version, identity length and "jar-1", then the chunk count
+        int countOffset = 4 + 4 + 4 + "jar-1".length();
+        int firstIdOffset = countOffset + 4 + 4 + 8;
+
+        for (int offset : new int[] {countOffset, firstIdOffset}) {
+            byte[] corrupt = snapshot.clone();
+            ByteBuffer.wrap(corrupt).putInt(offset, Integer.MAX_VALUE - 8);
+            Path corruptFile = tempDir.resolve("corrupt-" + offset + ".bin");
+            Files.write(corruptFile, corrupt);
+
+            assertThrows(IOException.class,
+                    () -> IndexSnapshot.read(corruptFile, "jar-1", new KeywordIndex(), new VectorStore()));
+        }
+    }
+
+    @Test
+    void snapshotFromDifferentIdentityIsIgnored(@TempDir Path tempDir) throws IOException {
+        ChunkTable table = new ChunkTable();
+        KeywordIndex keywordIndex = new KeywordIndex();
+        VectorStore vectors = new VectorStore();
+        index(table, keywordIndex, vectors, chunk("a", "Actuator", "Health endpoints.", 1f, 0f, 0f));
+
+        Path file = tempDir.resolve("index.bin");
+        IndexSnapshot.write(file, "jar-1", table, keywordIndex, vectors);
+
+        assertNull(IndexSnapshot.read(file, "jar-2", new KeywordIndex(), new VectorStore()));
+        assertNull(IndexSnapshot.read(tempDir.resolve("missing.bin"), "jar-1", new KeywordIndex(), new VectorStore()));
+    }
+
+    private static void index(ChunkTable table, KeywordIndex keywordIndex, VectorStore vectors, DocumentChunk chunk) {
+        int ordinal = table.put(chunk);
+        keywordIndex.add(ordinal, chunk);
+        vectors.add(ordinal, chunk.getEmbedding());
+    }
+
+    private static List<String> ids(ChunkTable table, TopKCollector topK) {
+        List<String> ids = new ArrayList<>();
+        topK.drainDescending((ordinal, score) -> ids.add(table.get(ordinal).getId()));
+        return ids;
+    }
+
+    private static List<String> ids(List<DocumentChunk> chunks, TopKCollector topK) {
+        List<String> ids = new ArrayList<>();
+        topK.drainDescending((ordinal, score) -> ids.add(chunks.get(ordinal).getId()));
+        return ids;
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[16];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Vectors.normalize(vector);
+    }
+
+
+    private static Map<Integer, Double> scores(KeywordIndex index, String query) {
+        Map<Integer, Double> scores = new HashMap<>();
+        index.search(Tokenizer.tokenize(query), false, scores::put);
+        return scores;
+    }
+
+    private static DocumentChunk chunk(String id, String title, String content, float... embedding) {
+        return DocumentChunk.builder()
+                .id(id)
+                .title(title)
+                .content(content)
+                .source("test")
+                .tags(List.of("security"))
+                .embedding(embedding)
+                .embeddingDimension(embedding.length)
+                .createdAt(LocalDateTime.of(2024, 1, 2, 3, 4))
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies BM25 ranking, field boosts and in-place replacement for the
+ * keyword index that replaced the per-query substring scan.
+ */
+class KeywordIndexTest {
+
+    @Test
+    void onlyDocumentsContainingTheTermAreScoredAndTitleMatchesRankHigher() {
+        KeywordIndex index = new KeywordIndex();
+        index.add(0, chunk("Security filter chain", "Configure the filter chain for web requests."));
+        index.add(1, chunk("Web requests", "The security filter chain applies to every request."));
+        index.add(2, chunk("Data repositories", "Repositories derive queries from method names."));
+
+        Map<Integer, Double> scores = search(index, "security", false);
+
+        assertEquals(2, scores.size(), "document without the term must not be visited");
+        assertTrue(scores.get(0) > scores.get(1), "title match should outrank a content-only match");
+        scores.values().forEach(score -> assertTrue(score > 0.0 && score < 1.0, "scores are normalized to (0, 1)"));
+    }
+
+    @Test
+    void reindexingAnOrdinalReplacesItsPostings() {
+        KeywordIndex index = new KeywordIndex();
+        index.add(0, chunk("Actuator", "Health and metrics endpoints."));
+        index.add(0, chunk("Testing", "Slices such as WebMvcTest."));
+
+        assertTrue(search(index, "actuator", false).isEmpty());
+        assertEquals(1, search(index, "webmvctest", false).size());
+        assertEquals(1, index.getDocumentCount());
+    }
+
+    @Test
+    void fuzzySearchMatchesMisspelledTermsAtReducedScore() {
+        KeywordIndex index = new KeywordIndex();
+        index.add(0, chunk("Repositories", "Spring Data repositories and query methods."));
+
+        assertFalse(search(index, "repositores", true).isEmpty());
+        assertTrue(search(index, "repositores", false).isEmpty());
+        assertTrue(search(index, "repositores", true).get(0) < search(index, "repositories", false).get(0));
+    }
+
+    private static Map<Integer, Double> search(KeywordIndex index, String query, boolean fuzzy) {
+        Map<Integer, Double> scores = new HashMap<>();
+        index.search(Tokenizer.tokenize(query), fuzzy, scores::put);
+        return scores;
+    }
+
+    private static DocumentChunk chunk(String title, String content) {
+        DocumentChunk chunk = DocumentChunk.create(title, content, "test://" + title, "test");
+        chunk.setTags(List.of());
+        return chunk;
+    }
+}
@@ -0,0 +1,85 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies near-identical chunks share a cluster while distinct ones don't,
+ * that small edits keep the estimated similarity above the threshold,
+ * that the hash mixer is the real fmix64, and that clusters follow
+ * re-indexing and removal.
+ */
+class NearDuplicateIndexTest {
+
+    private static final String SECTION = "Spring Boot auto-configuration attempts to automatically configure your "
+            + "Spring application based on the jar dependencies that you have added. For example, if HSQLDB is on "
+            + "your classpath and you have not manually configured any database connection beans, then Spring Boot "
+            + "auto-configures an in-memory database. You need to opt-in to auto-configuration by adding the "
+            + "EnableAutoConfiguration or SpringBootApplication annotations to one of your configuration classes.";
+
+    @Test
+    void nearIdenticalChunksShareAClusterAndDistinctOnesDoNot() {
+        NearDuplicateIndex index = new NearDuplicateIndex();
+        index.add(0, chunk(SECTION));
+        index.add(1, chunk("Spring Security provides authentication, authorization and protection against "
+                + "common attacks, with first class support for securing both imperative and reactive applications."));
+        index.add(2, chunk(SECTION.replace("HSQLDB", "H2")));
+
+        assertEquals(0, index.clusterOf(2));
+        assertEquals(1, index.clusterOf(1));
+        assertEquals(1, index.getDuplicateCount());
+        // Never filed
+        assertEquals(7, index.clusterOf(7));
+    }
+
+    @Test
+    void smallEditsKeepTheEstimatedSimilarityHighAndUnrelatedTextsDoNot() {
+        int[] original = NearDuplicateIndex.minHash(Tokenizer.tokenize(SECTION));
+        int[] edited = NearDuplicateIndex.minHash(Tokenizer.tokenize(SECTION + " Requires Java 17 or later."));
+        int[] unrelated = NearDuplicateIndex.minHash(Tokenizer.tokenize(
+                "Actuator endpoints let you monitor and interact with your application."));
+
+        double similar = NearDuplicateIndex.similarity(original, edited);
+        assertTrue(similar >= NearDuplicateIndex.DEFAULT_MIN_SIMILARITY, "similarity " + similar);
+        assertTrue(NearDuplicateIndex.similarity(original, unrelated) < 0.2);
+        assertEquals(1.0, NearDuplicateIndex.similarity(original, original));
+    }
+
+    @Test
+    void mixIsMurmurHash3Fmix64() {
+        assertEquals(0xB456BCFC34C2CB2CL, NearDuplicateIndex.mix(1));
+        assertEquals(0x18B8C062F6F42398L, NearDuplicateIndex.mix(0x123456789ABCDEF0L));
+        assertEquals(0, NearDuplicateIndex.mix(0));
+    }
+
+    @Test
+    void reindexingAndRemovalUpdateClusters() {
+        NearDuplicateIndex index = new NearDuplicateIndex();
+        index.add(0, chunk(SECTION));
+        index.add(1, chunk(SECTION));
+        assertEquals(0, index.clusterOf(1));
+
+        index.add(1, chunk("Something else entirely, about scheduling tasks with cron expressions."));
+        assertNotEquals(0, index.clusterOf(1));
+        assertEquals(0, index.getDuplicateCount());
+
+        index.add(2, chunk(SECTION));
+        index.remove(2);
+        assertEquals(0, index.getDuplicateCount());
+        // A later copy still joins the cluster of the remaining original
+        index.add(3, chunk(SECTION));
+        assertEquals(0, index.clusterOf(3));
+
+        index.clear();
+        assertEquals(3, index.clusterOf(3));
+        assertEquals(0, index.getDuplicateCount());
+    }
+
+    private static DocumentChunk chunk(String content) {
+        return DocumentChunk.builder().content(content).build();
+    }
+}
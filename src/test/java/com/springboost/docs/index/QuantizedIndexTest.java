@@ -0,0 +1,132 @@
+package com.springboost.docs.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies int8 and binary quantized scans, after full-precision re-scoring,
+ * find nearly the same neighbours with the same scores as an exact scan, and
+ * honour removals and filters.
+ */
+class QuantizedIndexTest {
+
+    private static final int DIMENSION = 128;
+    private static final int VECTORS = 4000;
+
+    @Test
+    void int8RecallAgainstExactScanIsHigh() {
+        double recall = recall(QuantizedIndex.Encoding.INT8);
+        assertTrue(recall >= 0.95, "int8 recall@10 should be at least 0.95, was " + recall);
+    }
+
+    @Test
+    void binaryRecallAgainstExactScanIsHigh() {
+        double recall = recall(QuantizedIndex.Encoding.BINARY);
+        assertTrue(recall >= 0.85, "binary recall@10 should be at least 0.85, was " + recall);
+    }
+
+    @Test
+    void scoresAreRescoredWithFullPrecision() {
+        Random random = new Random(5);
+        VectorStore store = new VectorStore();
+        QuantizedIndex index = new QuantizedIndex(store, QuantizedIndex.Encoding.BINARY);
+        for (int ordinal = 0; ordinal < 300; ordinal++) {
+            index.add(ordinal, clusteredVector(random, random.nextInt(10)));
+        }
+
+        float[] query = clusteredVector(random, 3);
+        Map<Integer, Float> exact = scores(store.topK(query, 5, -1.0, null));
+        Map<Integer, Float> quantized = scores(index.topK(query, 5, -1.0, null));
+        for (Map.Entry<Integer, Float> hit : quantized.entrySet()) {
+            assertEquals(Vectors.dot(store.get(hit.getKey()), query), hit.getValue(), 1e-6f);
+        }
+        assertEquals(exact.keySet(), quantized.keySet());
+    }
+
+    @Test
+    void removalsAndFiltersAreHonoured() {
+        Random random = new Random(17);
+        VectorStore store = new VectorStore();
+        QuantizedIndex index = new QuantizedIndex(store, QuantizedIndex.Encoding.INT8);
+        List<float[]> vectors = new ArrayList<>();
+        for (int ordinal = 0; ordinal < 500; ordinal++) {
+            float[] vector = clusteredVector(random, random.nextInt(10));
+            vectors.add(vector);
+            index.add(ordinal, vector);
+        }
+
+        index.remove(42);
+        assertFalse(scores(index.topK(vectors.get(42), 10, -1.0, null)).containsKey(42));
+        assertEquals(499, index.size());
+
+        Set<Integer> hits = scores(index.topK(vectors.get(7), 5, -1.0, ordinal -> ordinal % 50 == 0)).keySet();
+        assertEquals(scores(store.topK(vectors.get(7), 5, -1.0, ordinal -> ordinal % 50 == 0)).keySet(), hits);
+    }
+
+    @Test
+    void rebuildFromStoreEncodesLoadedVectors() {
+        Random random = new Random(23);
+        VectorStore store = new VectorStore();
+        for (int ordinal = 0; ordinal < 200; ordinal++) {
+            store.add(ordinal, clusteredVector(random, random.nextInt(10)));
+        }
+
+        QuantizedIndex index = new QuantizedIndex(store, QuantizedIndex.Encoding.INT8);
+        index.rebuildFromStore();
+
+        assertEquals(200, index.size());
+        // One byte per dimension plus a float scale, against four bytes per dimension
+        assertTrue(index.getMemoryBytes() * 3 < store.getMemoryBytes());
+        float[] query = store.get(99);
+        assertEquals(Set.of(99), scores(index.topK(query, 1, -1.0, null)).keySet());
+    }
+
+    private static double recall(QuantizedIndex.Encoding encoding) {
+        Random random = new Random(7);
+        VectorStore store = new VectorStore();
+        QuantizedIndex index = new QuantizedIndex(store, encoding);
+        for (int ordinal = 0; ordinal < VECTORS; ordinal++) {
+            assertTrue(index.add(ordinal, clusteredVector(random, random.nextInt(40))));
+        }
+
+        int found = 0;
+        int expected = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = clusteredVector(random, random.nextInt(40));
+            Set<Integer> exact = scores(store.topK(query, 10, -1.0, null)).keySet();
+            Set<Integer> approximate = new HashSet<>(scores(index.topK(query, 10, -1.0, null)).keySet());
+            expected += exact.size();
+            approximate.retainAll(exact);
+            found += approximate.size();
+        }
+        return (double) found / expected;
+    }
+
+    private static Map<Integer, Float> scores(TopKCollector collector) {
+        Map<Integer, Float> scores = new HashMap<>();
+        collector.drainDescending((ordinal, score) -> scores.put(ordinal, (float) score));
+        return scores;
+    }
+
+    // Embeddings of related texts cluster; uniformly random vectors would be
+    // the worst case for sign-bit codes
+    private static float[] clusteredVector(Random random, int cluster) {
+        Random centre = new Random(1000 + cluster);
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) (centre.nextGaussian() + 0.6 * random.nextGaussian());
+        }
+        return Vectors.normalize(vector);
+    }
+}
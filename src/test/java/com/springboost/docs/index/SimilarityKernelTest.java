@@ -0,0 +1,69 @@
+package com.springboost.docs.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifies the scalar and the selected (possibly SIMD) kernels agree with a
+ * naive dot product, including offsets and lengths that leave a tail after
+ * the last full vector lane.
+ */
+class SimilarityKernelTest {
+
+    @Test
+    void kernelsMatchNaiveDotProduct() {
+        Random random = new Random(3);
+        for (int length : new int[]{0, 1, 3, 7, 17, 50, 384, 769, 1536}) {
+            float[] a = randomArray(random, length + 5);
+            float[] b = randomArray(random, length + 9);
+
+            double expected = 0;
+            for (int i = 0; i < length; i++) {
+                expected += a[2 + i] * b[7 + i];
+            }
+
+            double tolerance = 1e-4 * Math.max(1, length);
+            assertEquals(expected, Vectors.scalarKernel().dot(a, 2, b, 7, length), tolerance,
+                    "scalar, length " + length);
+            assertEquals(expected, Vectors.kernel().dot(a, 2, b, 7, length), tolerance,
+                    Vectors.kernel().getName() + ", length " + length);
+        }
+    }
+
+    @Test
+    void int8KernelsMatchNaiveDotProduct() {
+        Random random = new Random(4);
+        for (int length : new int[]{0, 1, 7, 17, 50, 384, 771}) {
+            byte[] a = new byte[length + 3];
+            byte[] b = new byte[length + 6];
+            random.nextBytes(a);
+            random.nextBytes(b);
+
+            int expected = 0;
+            for (int i = 0; i < length; i++) {
+                expected += a[3 + i] * b[6 + i];
+            }
+
+            assertEquals(expected, Vectors.scalarKernel().dot(a, 3, b, 6, length), "scalar, length " + length);
+            assertEquals(expected, Vectors.kernel().dot(a, 3, b, 6, length),
+                    Vectors.kernel().getName() + ", length " + length);
+        }
+    }
+
+    @Test
+    void unitVectorWithItselfIsOne() {
+        float[] vector = Vectors.normalize(randomArray(new Random(5), 384));
+        assertEquals(1.0f, Vectors.dot(vector, vector), 1e-5f);
+    }
+
+    private static float[] randomArray(Random random, int length) {
+        float[] array = new float[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = (float) random.nextGaussian();
+        }
+        return array;
+    }
+}
@@ -0,0 +1,70 @@
+package com.springboost.docs.index;
+
+import com.springboost.docs.model.DocumentChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies suggestions match title words, tag parts and terms by prefix,
+ * come back ranked by popularity, and follow re-indexing and removal.
+ */
+class SuggestionIndexTest {
+
+    @Test
+    void suggestionsMatchByPrefixAndRankByPopularity() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.add(0, chunk("Security Filter Chain", "Configure security filters.", "spring-security"));
+        index.add(1, chunk("Method Security", "Secure service methods.", "spring-security"));
+        index.add(2, chunk("Session Management", "Sessions and security context.", "spring-session"));
+
+        // The tag is on two chunks, each title on one, "security" in two
+        // chunks' content and "secure" in one; titles and tags are boosted
+        // over bare terms
+        assertEquals(List.of("spring security", "Method Security", "Security Filter Chain", "security", "secure"),
+                index.suggest("secu", 5));
+        assertEquals(List.of("spring security", "spring session"), index.suggest("spring", 2));
+        assertEquals(List.of("Session Management", "spring session", "sessions"), index.suggest("SESS", 10));
+        assertTrue(index.suggest("xyz", 5).isEmpty());
+    }
+
+    @Test
+    void theQueryItselfIsNotSuggested() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.add(0, chunk("Actuator", "actuator endpoints", null));
+
+        assertEquals(List.of(), index.suggest("actuator", 5));
+        assertEquals(List.of("Actuator"), index.suggest("actu", 5));
+    }
+
+    @Test
+    void reindexingAndRemovalWithdrawOldSuggestions() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.add(0, chunk("Actuator Endpoints", "health metrics", "actuator"));
+        index.add(1, chunk("Actuator Security", "secure endpoints", "actuator"));
+
+        index.add(0, chunk("Testing Slices", "webmvctest", "testing"));
+        assertEquals(List.of("Actuator Security"), index.suggest("actuator ", 5));
+        assertEquals(List.of("Actuator Security", "actuator"), index.suggest("act", 5));
+        assertTrue(index.suggest("heal", 5).isEmpty());
+
+        index.remove(1);
+        assertTrue(index.suggest("act", 5).isEmpty());
+        assertEquals(List.of("Testing Slices", "testing"), index.suggest("test", 5));
+        assertEquals(1, index.getDocumentCount());
+
+        index.clear();
+        assertTrue(index.suggest("test", 5).isEmpty());
+    }
+
+    private static DocumentChunk chunk(String title, String content, String tag) {
+        DocumentChunk chunk = new DocumentChunk();
+        chunk.setTitle(title);
+        chunk.setContent(content);
+        chunk.setTags(tag != null ? List.of(tag) : List.of());
+        return chunk;
+    }
+}
@@ -0,0 +1,133 @@
+package com.springboost.docs.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the trigram-filtered fuzzy lookup finds exactly the terms a full
+ * Levenshtein scan of the vocabulary would, including after removals.
+ */
+class TermDictionaryTest {
+
+    private static final int MAX_LENGTH_DELTA = 2;
+    private static final double MIN_SIMILARITY = 0.75;
+
+    @Test
+    void lookupMatchesExhaustiveScan() {
+        Random random = new Random(11);
+        TermDictionary dictionary = new TermDictionary();
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String term = randomTerm(random);
+            vocabulary.add(term);
+            dictionary.add(term);
+            // Near-duplicates so there is something to find
+            String variant = mutate(random, term);
+            vocabulary.add(variant);
+            dictionary.add(variant);
+        }
+        for (int i = 0; i < 500; i++) {
+            String term = vocabulary.remove(random.nextInt(vocabulary.size()));
+            if (!vocabulary.contains(term)) {
+                dictionary.remove(term);
+            }
+        }
+
+        int matches = 0;
+        for (int q = 0; q < 200; q++) {
+            String query = q % 2 == 0 ? mutate(random, vocabulary.get(random.nextInt(vocabulary.size()))) : randomTerm(random);
+            Map<String, Double> expected = exhaustive(vocabulary, query);
+            Map<String, Double> actual = new HashMap<>();
+            dictionary.forEachSimilar(query, MAX_LENGTH_DELTA, MIN_SIMILARITY, actual::put);
+            assertEquals(expected, actual, "query " + query);
+            matches += actual.size();
+        }
+        assertTrue(matches > 50, "expected the queries to find some matches, found " + matches);
+    }
+
+    @Test
+    void boundedDistanceIsExactWithinTheBound() {
+        Random random = new Random(13);
+        for (int i = 0; i < 2000; i++) {
+            String a = randomTerm(random);
+            String b = random.nextBoolean() ? mutate(random, a) : randomTerm(random);
+            int distance = levenshtein(a, b);
+            for (int max = 0; max <= 4; max++) {
+                int bounded = TermDictionary.boundedDistance(a, b, max);
+                assertEquals(distance <= max ? distance : max + 1, bounded, a + " / " + b + " max " + max);
+            }
+        }
+    }
+
+    private static Map<String, Double> exhaustive(List<String> vocabulary, String query) {
+        Map<String, Double> matches = new HashMap<>();
+        for (String candidate : vocabulary) {
+            if (candidate.equals(query) || Math.abs(candidate.length() - query.length()) > MAX_LENGTH_DELTA) {
+                continue;
+            }
+            int maxLength = Math.max(candidate.length(), query.length());
+            double similarity = 1.0 - (double) levenshtein(query, candidate) / maxLength;
+            if (similarity >= MIN_SIMILARITY) {
+                matches.put(candidate, similarity);
+            }
+        }
+        return matches;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    // A small alphabet makes repeated trigrams and near misses common
+    private static String randomTerm(Random random) {
+        int length = 2 + random.nextInt(12);
+        StringBuilder term = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            term.append((char) ('a' + random.nextInt(6)));
+        }
+        return term.toString();
+    }
+
+    private static String mutate(Random random, String term) {
+        StringBuilder mutated = new StringBuilder(term);
+        int edits = 1 + random.nextInt(3);
+        for (int e = 0; e < edits; e++) {
+            int position = random.nextInt(mutated.length() + 1);
+            switch (random.nextInt(3)) {
+                case 0 -> mutated.insert(position, (char) ('a' + random.nextInt(6)));
+                case 1 -> {
+                    if (mutated.length() > 1 && position < mutated.length()) {
+                        mutated.deleteCharAt(position);
+                    }
+                }
+                default -> {
+                    if (position < mutated.length()) {
+                        mutated.setCharAt(position, (char) ('a' + random.nextInt(6)));
+                    }
+                }
+            }
+        }
+        return mutated.toString();
+    }
+}
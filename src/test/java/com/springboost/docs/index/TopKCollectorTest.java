@@ -0,0 +1,60 @@
+package com.springboost.docs.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the collector keeps the k best scores, and that equal scores
+ * are kept by lowest ordinal whatever order they are offered in.
+ */
+class TopKCollectorTest {
+
+    @Test
+    void keepsTheBestScoresInDescendingOrder() {
+        TopKCollector collector = new TopKCollector(3);
+        float[] scores = {0.2f, 0.9f, 0.5f, 0.1f, 0.7f};
+        for (int ordinal = 0; ordinal < scores.length; ordinal++) {
+            collector.offer(ordinal, scores[ordinal]);
+        }
+
+        assertEquals(List.of(1, 4, 2), drain(collector));
+        assertEquals(5, collector.offered());
+    }
+
+    @Test
+    void equalScoresAreKeptByLowestOrdinalRegardlessOfOfferOrder() {
+        TopKCollector ascending = new TopKCollector(2);
+        TopKCollector descending = new TopKCollector(2);
+        for (int ordinal = 0; ordinal < 5; ordinal++) {
+            ascending.offer(ordinal, 0.5f);
+            descending.offer(4 - ordinal, 0.5f);
+        }
+
+        assertEquals(List.of(0, 1), drain(ascending));
+        assertEquals(List.of(0, 1), drain(descending));
+    }
+
+    @Test
+    void tieWithTheMinimumIsKeptOnlyWithALowerOrdinal() {
+        TopKCollector collector = new TopKCollector(2);
+        collector.offer(3, 0.9f);
+        collector.offer(5, 0.5f);
+
+        assertFalse(collector.offer(7, 0.5f));
+        assertFalse(collector.offer(5, 0.5f));
+        assertTrue(collector.offer(4, 0.5f));
+        assertEquals(List.of(3, 4), drain(collector));
+    }
+
+    private static List<Integer> drain(TopKCollector collector) {
+        List<Integer> ordinals = new ArrayList<>();
+        collector.drainDescending((ordinal, score) -> ordinals.add(ordinal));
+        return ordinals;
+    }
+}
@@ -0,0 +1,87 @@
+package com.springboost.docs.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the off-heap vector store returns the same top-k as an exhaustive
+ * sort, across buffer growth and removals.
+ */
+class VectorStoreTest {
+
+    private static final int DIMENSION = 32;
+
+    @Test
+    void topKMatchesExhaustiveScanAfterGrowthAndRemoval() {
+        Random random = new Random(42);
+        VectorStore store = new VectorStore();
+        List<float[]> vectors = new ArrayList<>();
+
+        // More rows than the initial capacity, to force at least one regrow
+        for (int ordinal = 0; ordinal < 1000; ordinal++) {
+            float[] vector = randomUnitVector(random);
+            vectors.add(vector);
+            assertTrue(store.add(ordinal, vector));
+        }
+        for (int ordinal = 0; ordinal < 1000; ordinal += 3) {
+            store.remove(ordinal);
+        }
+
+        float[] query = randomUnitVector(random);
+        List<Integer> expected = new ArrayList<>();
+        for (int ordinal = 0; ordinal < 1000; ordinal++) {
+            if (ordinal % 3 != 0) {
+                expected.add(ordinal);
+            }
+        }
+        expected.sort(Comparator.comparingDouble((Integer o) -> Vectors.dot(query, vectors.get(o))).reversed());
+
+        List<Integer> actual = new ArrayList<>();
+        store.topK(query, 10, -1.0, null).drainDescending((ordinal, score) -> actual.add(ordinal));
+
+        assertEquals(expected.subList(0, 10), actual);
+    }
+
+    @Test
+    void filterAndMinScoreAreApplied() {
+        VectorStore store = new VectorStore();
+        store.add(0, new float[]{1f, 0f});
+        store.add(1, new float[]{0.6f, 0.8f});
+        store.add(2, new float[]{0f, 1f});
+
+        List<Integer> hits = new ArrayList<>();
+        store.topK(new float[]{1f, 0f}, 5, 0.5, ordinal -> ordinal != 0)
+                .drainDescending((ordinal, score) -> hits.add(ordinal));
+
+        assertEquals(List.of(1), hits);
+    }
+
+    @Test
+    void rejectsMismatchedDimensionsAndReleasesOnClear() {
+        VectorStore store = new VectorStore();
+        assertTrue(store.add(0, new float[]{1f, 0f}));
+        assertFalse(store.add(1, new float[]{1f, 0f, 0f}));
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(0L, store.getMemoryBytes());
+        assertNull(store.get(0));
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Vectors.normalize(vector);
+    }
+}
@@ -0,0 +1,177 @@
+package com.springboost.docs.service;
+
+import com.springboost.config.SpringBoostProperties;
+import com.springboost.docs.index.Tokenizer;
+import com.springboost.docs.model.DocumentChunk;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies a re-crawled page only re-embeds the sections whose content
+ * changed, that sections gone from the page leave every index, that
+ * repeated sections are kept apart, that oversized sections are split
+ * within the chunking budget, and that compaction drops tombstones.
+ */
+class DocumentationServiceIncrementalRefreshTest {
+
+    private static final String URL = "https://docs.example.com/guide/page.html";
+
+    @Test
+    void refreshReEmbedsOnlyChangedChunksAndTombstonesRemovedOnes() {
+        SpringBoostProperties properties = new SpringBoostProperties();
+        properties.getDocumentation().setPersistIndex(false);
+        CountingEmbeddingsService embeddings = new CountingEmbeddingsService(properties);
+        DocumentationService service = new DocumentationService(embeddings, WebClient.builder(), properties);
+        int guidelines = service.getAllDocuments().size();
+
+        List<DocumentChunk> first = parse(service, section("Caching", "cache abstraction"),
+                section("Scheduling", "quartzlike scheduler"));
+        assertEquals(2, service.refreshPage(URL, first).changed().size());
+        DocumentChunk caching = first.get(0);
+
+        embeddings.calls.set(0);
+        List<DocumentChunk> second = parse(service, section("Caching", "cache abstraction"),
+                section("Scheduling", "cron triggers"), section("Retries", "retry templates"));
+        DocumentationService.PageRefresh refresh = service.refreshPage(URL, second);
+
+        assertEquals(2, embeddings.calls.get(), "only the changed and the new section are embedded");
+        assertEquals(2, refresh.changed().size());
+        assertEquals(1, refresh.removed());
+        assertSame(caching, service.getDocumentById(caching.getId()).orElseThrow());
+        assertEquals(guidelines + 3, service.getAllDocuments().size());
+        assertEquals(Set.of("Caching", "Scheduling", "Retries"), service.getAllDocuments().stream()
+                .filter(chunk -> URL.equals(chunk.getUrl()))
+                .map(DocumentChunk::getTitle)
+                .collect(Collectors.toSet()));
+        assertTrue(keywordHits(service, "quartzlike").isEmpty(), "removed section must leave the keyword index");
+
+        // Re-crawling an unchanged page touches nothing
+        embeddings.calls.set(0);
+        refresh = service.refreshPage(URL, parse(service, section("Caching", "cache abstraction"),
+                section("Scheduling", "cron triggers"), section("Retries", "retry templates")));
+        assertEquals(0, embeddings.calls.get());
+        assertFalse(refresh.modified());
+    }
+
+    @Test
+    void repeatedSectionsOnOnePageGetDistinctIds() {
+        DocumentationService service = service();
+        service.getAllDocuments();
+
+        List<DocumentChunk> chunks = parse(service, section("Caching", "cache abstraction"),
+                section("Caching", "cache abstraction"), section("Caching again", "cache abstraction"));
+
+        assertEquals(3, chunks.stream().map(DocumentChunk::getId).distinct().count());
+        assertEquals(3, service.refreshPage(URL, chunks).changed().size());
+        assertEquals(3, service.getAllDocuments().stream().filter(chunk -> URL.equals(chunk.getUrl())).count());
+    }
+
+    @Test
+    void compactionRenumbersLiveChunksDensely() {
+        DocumentationService service = service();
+        int guidelines = service.getAllDocuments().size();
+        service.refreshPage(URL, parse(service, section("Scheduling", "quartzlike scheduler"),
+                section("Retries", "retry templates"), section("Caching", "cache abstraction")));
+        String gone = "https://docs.example.com/guide/gone.html";
+        service.refreshPage(gone, service.parseDocumentationPage(
+                Jsoup.parse("<html><body>" + section("Tracing", "span exporters") + "</body></html>", gone),
+                "example-docs", gone));
+
+        // The page lost two sections and the other page disappeared
+        service.refreshPage(URL, parse(service, section("Caching", "cache abstraction")));
+        assertEquals(1, service.refreshPage(gone, List.of()).removed());
+        service.compactIndex();
+
+        Collection<DocumentChunk> documents = service.getAllDocuments();
+        assertEquals(guidelines + 1, documents.size());
+        documents.forEach(chunk -> assertTrue(service.getOrdinal(chunk.getId()) < documents.size(),
+                "ordinals must be dense after compaction"));
+        assertEquals(documents.size(), service.getVectorStore().size());
+        assertEquals(1, keywordHits(service, "abstraction").size());
+        assertTrue(keywordHits(service, "exporters").isEmpty());
+    }
+
+    @Test
+    void oversizedSectionIsSplitWithinTheChunkingBudget() {
+        SpringBoostProperties properties = new SpringBoostProperties();
+        properties.getDocumentation().setPersistIndex(false);
+        properties.getDocumentation().getChunking().setMaxTokens(64);
+        properties.getDocumentation().getChunking().setOverlapTokens(8);
+        properties.getDocumentation().getChunking().setMinTokens(16);
+        DocumentationService service = new DocumentationService(
+                new EmbeddingsService(properties), WebClient.builder(), properties);
+
+        StringBuilder html = new StringBuilder("<html><body><h2>Configuration</h2>");
+        for (int i = 0; i < 12; i++) {
+            html.append("<p>Paragraph ").append(i)
+                    .append(" describes one more property of the configuration in a sentence or two.</p>");
+        }
+        String code = "@Bean\nDataSource dataSource() {\n" + "    // builder call\n".repeat(20) + "}";
+        html.append("<pre>").append(code).append("</pre></body></html>");
+
+        List<DocumentChunk> chunks = service.parseDocumentationPage(Jsoup.parse(html.toString(), URL), "example-docs", URL);
+
+        assertTrue(chunks.size() > 1, "a section over the budget must be split");
+        List<DocumentChunk> withCode = chunks.stream()
+                .filter(chunk -> !chunk.getCodeSnippets().isEmpty())
+                .toList();
+        assertEquals(1, withCode.size());
+        assertTrue(withCode.get(0).getContent().contains("```\n" + code + "\n```"), "code must stay whole");
+        for (DocumentChunk chunk : chunks) {
+            assertEquals("Configuration", chunk.getTitle());
+            if (chunk != withCode.get(0)) {
+                assertTrue(MarkdownChunker.tokens(chunk.getContent()) <= 64, "chunk over budget: " + chunk.getContent());
+            }
+        }
+        assertEquals(chunks.size(), chunks.stream().map(DocumentChunk::getId).distinct().count());
+    }
+
+    private static DocumentationService service() {
+        SpringBoostProperties properties = new SpringBoostProperties();
+        properties.getDocumentation().setPersistIndex(false);
+        return new DocumentationService(new EmbeddingsService(properties), WebClient.builder(), properties);
+    }
+
+    private static List<DocumentChunk> parse(DocumentationService service, String... sections) {
+        String html = "<html><body>" + String.join("", sections) + "</body></html>";
+        return service.parseDocumentationPage(Jsoup.parse(html, URL), "example-docs", URL);
+    }
+
+    private static String section(String title, String topic) {
+        return "<section><h2>" + title + "</h2><p>This section explains " + topic
+                + " in enough detail to pass the minimum content length for indexing.</p></section>";
+    }
+
+    private static List<Integer> keywordHits(DocumentationService service, String term) {
+        List<Integer> hits = new ArrayList<>();
+        service.getKeywordIndex().search(Tokenizer.tokenize(term), false, (ordinal, score) -> hits.add(ordinal));
+        return hits;
+    }
+
+    private static class CountingEmbeddingsService extends EmbeddingsService {
+        final AtomicInteger calls = new AtomicInteger();
+
+        CountingEmbeddingsService(SpringBoostProperties properties) {
+            super(properties);
+        }
+
+        @Override
+        public List<float[]> generateEmbeddings(List<String> texts) {
+            calls.addAndGet(texts.size());
+            return super.generateEmbeddings(texts);
+        }
+    }
+}
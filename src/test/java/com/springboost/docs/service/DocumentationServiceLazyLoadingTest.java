@@ -2,24 +2,38 @@ package com.springboost.docs.service;
 
 import com.springboost.config.SpringBoostProperties;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Verifies guideline indexing is deferred until first access, not done
  * eagerly at startup -- the eager version added several seconds to every
  * stdio MCP session's boot time regardless of whether search-docs was ever
- * called, worsening the already-marginal connection-timeout problem.
+ * called, worsening the already-marginal connection-timeout problem. It
+ * may start in the background once the context is ready, and concurrent
+ * callers then share that one load, which stops if clearIndex() replaces
+ * it.
  */
 class DocumentationServiceLazyLoadingTest {
 
     @Test
     void loadingHappensOnFirstAccessAndOnlyOnce() {
         SpringBoostProperties properties = new SpringBoostProperties();
+        properties.getDocumentation().setPersistIndex(false);
         EmbeddingsService embeddingsService = new EmbeddingsService(properties);
-        DocumentationService service = new DocumentationService(embeddingsService, WebClient.builder());
+        DocumentationService service = new DocumentationService(embeddingsService, WebClient.builder(), properties);
         service.initialize(); // simulates @PostConstruct -- must not eagerly load
 
         int firstCallCount = service.getAllDocuments().size();
@@ -30,4 +44,62 @@ class DocumentationServiceLazyLoadingTest {
         assertEquals(firstCallCount, secondCallCount,
                 "second access should return the already-loaded index, not reload or duplicate entries");
     }
+
+    @Test
+    void concurrentCallersShareOneBackgroundLoad() {
+        SpringBoostProperties properties = new SpringBoostProperties();
+        properties.getDocumentation().setPersistIndex(false);
+        properties.getDocumentation().setIngestBatchSize(16);
+        EmbeddingsService embeddingsService = new EmbeddingsService(properties);
+        DocumentationService service = new DocumentationService(embeddingsService, WebClient.builder(), properties);
+        service.prewarmIndex(); // simulates ApplicationReadyEvent -- returns without waiting
+
+        List<CompletableFuture<Integer>> callers = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> service.getAllDocuments().size()))
+                .toList();
+        int count = callers.get(0).join();
+
+        assertTrue(count > 100, "expected the bundled guideline corpus to load, got " + count);
+        callers.forEach(caller -> assertEquals(count, (int) caller.join(),
+                "every caller should wait for the same published index, neither partial nor duplicated"));
+        assertTrue(service.awaitIndex(true), "a loaded index is complete even for callers accepting partial results");
+    }
+
+    @Test
+    void loadReplacedByClearIndexStopsWithoutRepopulatingOrPersisting(@TempDir Path tempDir) throws InterruptedException {
+        SpringBoostProperties properties = new SpringBoostProperties();
+        properties.getDocumentation().setIndexDirectory(tempDir.toString());
+        properties.getDocumentation().setBundledIndex(false);
+        properties.getDocumentation().setIngestBatchSize(16);
+        CountDownLatch embedding = new CountDownLatch(1);
+        CountDownLatch cleared = new CountDownLatch(1);
+        EmbeddingsService embeddingsService = new EmbeddingsService(properties) {
+            @Override
+            public List<float[]> generateEmbeddings(List<String> texts) {
+                embedding.countDown();
+                try {
+                    cleared.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.generateEmbeddings(texts);
+            }
+        };
+        DocumentationService service = new DocumentationService(embeddingsService, WebClient.builder(), properties);
+        Set<Thread> running = Thread.getAllStackTraces().keySet();
+        service.prewarmIndex();
+        Thread loader = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("guideline-ingest") && !running.contains(thread))
+                .findFirst()
+                .orElseThrow();
+
+        assertTrue(embedding.await(10, TimeUnit.SECONDS));
+        service.clearIndex();
+        cleared.countDown();
+        loader.join(10_000);
+
+        assertFalse(loader.isAlive());
+        assertEquals(0, service.ordinalCount(), "the replaced load must not index into the cleared structures");
+        assertEquals(0, tempDir.toFile().list().length, "the replaced load must not persist a snapshot");
+    }
 }
@@ -0,0 +1,105 @@
+package com.springboost.docs.service;
+
+import com.springboost.config.SpringBoostProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies a fresh service (a restarted daemon) loads the index snapshot
+ * written by the previous one instead of re-indexing the guidelines, and
+ * moves an unreadable one aside.
+ */
+class DocumentationServicePersistenceTest {
+
+    @Test
+    void secondServiceLoadsSnapshotWithoutReEmbedding(@TempDir Path tempDir) {
+        SpringBoostProperties properties = new SpringBoostProperties();
+        properties.getDocumentation().setIndexDirectory(tempDir.toString());
+        // A packaged build may have left the pre-computed guideline index on
+        // the classpath; this test is about the snapshot a daemon writes
+        properties.getDocumentation().setBundledIndex(false);
+
+        CountingEmbeddingsService firstEmbeddings = new CountingEmbeddingsService(properties);
+        DocumentationService first = new DocumentationService(firstEmbeddings, WebClient.builder(), properties);
+        int indexed = first.getAllDocuments().size();
+        assertTrue(firstEmbeddings.calls.get() >= indexed, "first run should embed every chunk");
+
+        CountingEmbeddingsService secondEmbeddings = new CountingEmbeddingsService(properties);
+        DocumentationService second = new DocumentationService(secondEmbeddings, WebClient.builder(), properties);
+
+        assertEquals(indexed, second.getAllDocuments().size());
+        assertEquals(0, secondEmbeddings.calls.get(), "snapshot load must not re-embed anything");
+        assertEquals(first.getKeywordIndex().getVocabularySize(), second.getKeywordIndex().getVocabularySize());
+        assertEquals(first.getSemanticIndex().size(), second.getSemanticIndex().size());
+    }
+
+    @Test
+    void snapshotWrittenWithOtherChunkingIsNotReused(@TempDir Path tempDir) {
+        SpringBoostProperties properties = new SpringBoostProperties();
+        properties.getDocumentation().setIndexDirectory(tempDir.toString());
+        properties.getDocumentation().setBundledIndex(false);
+
+        new DocumentationService(new CountingEmbeddingsService(properties), WebClient.builder(), properties)
+                .getAllDocuments();
+
+        properties.getDocumentation().getChunking().setMaxTokens(256);
+        CountingEmbeddingsService secondEmbeddings = new CountingEmbeddingsService(properties);
+        DocumentationService second = new DocumentationService(secondEmbeddings, WebClient.builder(), properties);
+
+        assertTrue(second.getAllDocuments().size() > 0);
+        assertTrue(secondEmbeddings.calls.get() > 0, "chunks cut with other settings must be re-indexed");
+    }
+
+    @Test
+    void unreadableSnapshotIsMovedAsideAndRebuilt(@TempDir Path tempDir) throws IOException {
+        SpringBoostProperties properties = new SpringBoostProperties();
+        properties.getDocumentation().setIndexDirectory(tempDir.toString());
+        properties.getDocumentation().setBundledIndex(false);
+        int indexed = new DocumentationService(new CountingEmbeddingsService(properties), WebClient.builder(), properties)
+                .getAllDocuments().size();
+
+        // Keep the header, so the identity still matches, and garble the rest
+        Path file;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            file = files.findFirst().orElseThrow();
+        }
+        byte[] snapshot = Files.readAllBytes(file);
+        int identityLength = ByteBuffer.wrap(snapshot).getInt(8);
+        Arrays.fill(snapshot, 12 + identityLength, snapshot.length, (byte) 0x7f);
+        Files.write(file, snapshot);
+
+        DocumentationService second = new DocumentationService(
+                new CountingEmbeddingsService(properties), WebClient.builder(), properties);
+
+        assertEquals(indexed, second.getAllDocuments().size());
+        assertTrue(Files.isRegularFile(file.resolveSibling(file.getFileName() + ".corrupt")));
+        assertTrue(Files.isRegularFile(file), "the rebuilt index must be persisted again");
+    }
+
+    private static class CountingEmbeddingsService extends EmbeddingsService {
+        final AtomicInteger calls = new AtomicInteger();
+
+        CountingEmbeddingsService(SpringBoostProperties properties) {
+            super(properties);
+        }
+
+        @Override
+        public List<float[]> generateEmbeddings(List<String> texts) {
+            calls.addAndGet(texts.size());
+            return super.generateEmbeddings(texts);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.springboost.docs.service;
+
+import com.springboost.config.SpringBoostProperties;
+import com.springboost.docs.embeddings.EmbeddingsProvider;
+import com.springboost.docs.embeddings.SimpleEmbeddingsProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Verifies batch embedding de-duplicates texts, serves cached ones without
+ * calling the provider, respects the provider's batch size, and resolves
+ * providers registered through the ServiceLoader SPI.
+ */
+class EmbeddingsServiceBatchTest {
+
+    private EmbeddingsService service;
+
+    @BeforeEach
+    void setUp() {
+        RecordingProvider.BATCHES.clear();
+        SpringBoostProperties properties = new SpringBoostProperties();
+        properties.getDocumentation().setEmbeddingsProvider(RecordingProvider.NAME);
+        service = new EmbeddingsService(properties);
+    }
+
+    @Test
+    void batchDeduplicatesAndSplitsByProviderBatchSize() {
+        List<float[]> vectors = service.generateEmbeddings(
+                Arrays.asList("spring boot", "spring data", "spring boot", " ", null, "spring security"));
+
+        assertEquals(RecordingProvider.NAME, service.getProvider().getName());
+        assertEquals(List.of(List.of("spring boot", "spring data"), List.of("spring security")), RecordingProvider.BATCHES);
+        assertEquals(6, vectors.size());
+        assertSame(vectors.get(0), vectors.get(2));
+        assertEquals(0, vectors.get(3).length);
+        assertEquals(0, vectors.get(4).length);
+        assertArrayEquals(new SimpleEmbeddingsProvider().embed("spring data"), vectors.get(1));
+    }
+
+    @Test
+    void cachedTextsAreNotSentToProviderAgain() {
+        float[] single = service.generateEmbeddings("spring boot");
+        RecordingProvider.BATCHES.clear();
+
+        List<float[]> vectors = service.generateEmbeddings(List.of("spring boot", "actuator"));
+
+        assertEquals(List.of(List.of("actuator")), RecordingProvider.BATCHES);
+        assertSame(single, vectors.get(0));
+    }
+
+    /**
+     * Registered in META-INF/services; delegates to the simple provider.
+     */
+    public static class RecordingProvider implements EmbeddingsProvider {
+        static final String NAME = "recording";
+        static final List<List<String>> BATCHES = new CopyOnWriteArrayList<>();
+
+        private final SimpleEmbeddingsProvider delegate = new SimpleEmbeddingsProvider();
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return 2;
+        }
+
+        @Override
+        public float[] embed(String text) {
+            return delegate.embed(text);
+        }
+
+        @Override
+        public List<float[]> embedBatch(List<String> texts) {
+            BATCHES.add(List.copyOf(texts));
+            return EmbeddingsProvider.super.embedBatch(texts);
+        }
+    }
+}
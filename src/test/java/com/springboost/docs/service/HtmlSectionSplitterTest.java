@@ -0,0 +1,89 @@
+package com.springboost.docs.service;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Verifies nested sections are split into non-overlapping pieces titled
+ * with their heading breadcrumb, that code is taken once, that the text
+ * parses back as the same markdown blocks, and that page chrome is left
+ * out.
+ */
+class HtmlSectionSplitterTest {
+
+    @Test
+    void nestedSectionsAreSplitWithoutOverlap() {
+        String html = """
+                <html><body>
+                <nav><a href="/">Home</a> <a href="/docs">Docs</a></nav>
+                <div id="toc"><ul><li>Caching</li><li>Providers</li></ul></div>
+                <p>Intro to the <b>reference</b>.</p>
+                <div class="sect1"><h2>Caching</h2>
+                  <div class="paragraph"><p>Enable caching with <code>@EnableCaching</code>.</p></div>
+                  <div class="sect2"><h3>Providers</h3>
+                    <p>Pick a provider.</p>
+                    <h4>Redis</h4>
+                    <pre><code>spring.cache.type=redis
+                spring.data.redis.host=localhost</code></pre>
+                  </div>
+                </div>
+                <footer>Copyright</footer>
+                </body></html>
+                """;
+
+        List<HtmlSectionSplitter.Section> sections = HtmlSectionSplitter.split(Jsoup.parse(html).body());
+
+        assertEquals(3, sections.size(), sections.toString());
+        assertNull(sections.get(0).title());
+        assertEquals("Intro to the reference.", sections.get(0).text());
+        assertEquals("Caching", sections.get(1).title());
+        assertEquals("Enable caching with @EnableCaching.", sections.get(1).text());
+        assertEquals("Caching > Providers", sections.get(2).title());
+        assertEquals("Pick a provider.\n\nRedis\n\n```\nspring.cache.type=redis\nspring.data.redis.host=localhost\n```",
+                sections.get(2).text());
+        assertEquals(List.of("spring.cache.type=redis\nspring.data.redis.host=localhost"), sections.get(2).codeSnippets());
+        sections.forEach(section -> assertFalse(section.text().contains("Copyright") || section.text().contains("Home")));
+    }
+
+    @Test
+    void siblingHeadingReplacesItsLevelInTheBreadcrumb() {
+        String html = "<h1>Guide</h1><h2>One</h2><p>First.</p><h3>Deep</h3><p>Deeper.</p><h2>Two</h2><p>Second.</p>";
+
+        List<HtmlSectionSplitter.Section> sections = HtmlSectionSplitter.split(Jsoup.parse(html).body());
+
+        assertEquals(List.of("Guide > One", "Guide > One > Deep", "Guide > Two"),
+                sections.stream().map(HtmlSectionSplitter.Section::title).toList());
+    }
+
+    @Test
+    void sectionTextReadsBackAsTheSameMarkdownBlocks() {
+        String html = """
+                <h2>Docs</h2>
+                <p># is how the properties file starts a comment.</p>
+                <pre>Write a fence as
+                ```
+                and close it the same way.</pre>
+                <p>1. is not a list here, nor is</p>
+                <p>- this.</p>
+                """;
+
+        HtmlSectionSplitter.Section section = HtmlSectionSplitter.split(Jsoup.parse(html).body()).get(0);
+        List<MarkdownChunker.Chunk> chunks = new MarkdownChunker(1000, 0, 0).chunk(section.text());
+
+        assertEquals("\\# is how the properties file starts a comment.\n\n"
+                        + "````\nWrite a fence as\n```\nand close it the same way.\n````\n\n"
+                        + "1\\. is not a list here, nor is\n\n\\- this.",
+                section.text());
+        // One chunk under the section title: the prose opened no heading and
+        // the code's own fence didn't end the code block early
+        assertEquals(1, chunks.size(), chunks.toString());
+        assertNull(chunks.get(0).title());
+        assertEquals(section.text(), chunks.get(0).text());
+    }
+}
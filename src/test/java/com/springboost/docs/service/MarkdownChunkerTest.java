@@ -0,0 +1,117 @@
+package com.springboost.docs.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies markdown is chunked along headings with breadcrumb titles, that
+ * small sections are packed together rather than dropped, that fenced code
+ * is never split, and that a continued section overlaps the previous chunk.
+ */
+class MarkdownChunkerTest {
+
+    @Test
+    void sectionsAreTitledWithTheirHeadingBreadcrumb() {
+        String markdown = """
+                Intro before any heading, long enough to stand on its own as a chunk of text.
+
+                # Spring Security
+
+                ## OAuth2 Resource Server
+
+                ### JWT
+
+                Configure the JWT decoder with the issuer URI so tokens are validated against the keys.
+
+                ## Method Security
+
+                Enable method security to guard service methods with authorization annotations.
+                """;
+
+        List<MarkdownChunker.Chunk> chunks = new MarkdownChunker(40, 0, 10).chunk(markdown);
+
+        assertEquals(3, chunks.size(), chunks.toString());
+        assertNull(chunks.get(0).title());
+        // Headings stay with the content under them
+        assertEquals("Spring Security > OAuth2 Resource Server > JWT", chunks.get(1).title());
+        assertTrue(chunks.get(1).text().startsWith("# Spring Security\n\n## OAuth2 Resource Server\n\n### JWT\n\nConfigure"));
+        assertEquals("Spring Security > Method Security", chunks.get(2).title());
+        assertTrue(chunks.get(2).text().startsWith("## Method Security"));
+    }
+
+    @Test
+    void smallSectionsArePackedIntoOneChunkInsteadOfDropped() {
+        String markdown = """
+                # Actuator
+
+                ## Health
+
+                Up.
+
+                ## Info
+
+                Build info.
+                """;
+
+        List<MarkdownChunker.Chunk> chunks = new MarkdownChunker(200, 0, 50).chunk(markdown);
+
+        // Titled with what the packed sections have in common
+        assertEquals(1, chunks.size());
+        assertEquals("Actuator", chunks.get(0).title());
+        assertEquals("# Actuator\n\n## Health\n\nUp.\n\n## Info\n\nBuild info.", chunks.get(0).text());
+    }
+
+    @Test
+    void fencedCodeIsNeverSplitAndLongSectionsOverlap() {
+        StringBuilder code = new StringBuilder("```java\n");
+        for (int i = 0; i < 40; i++) {
+            code.append("http.authorizeHttpRequests(auth -> auth.anyRequest().authenticated()); // ").append(i).append('\n');
+        }
+        code.append("```");
+        String markdown = "## Filter Chain\n\n"
+                + "First paragraph about the filter chain.\n\n"
+                + "Second paragraph, carried into the next chunk.\n\n"
+                + code + "\n\n"
+                + "Closing paragraph after the code.\n";
+
+        List<MarkdownChunker.Chunk> chunks = new MarkdownChunker(100, 20, 0).chunk(markdown);
+
+        assertEquals(3, chunks.size(), chunks.toString());
+        assertEquals(List.of("Filter Chain", "Filter Chain", "Filter Chain"),
+                chunks.stream().map(MarkdownChunker.Chunk::title).toList());
+        // The code block is larger than the budget but stays whole
+        assertTrue(chunks.get(1).text().contains(code), chunks.get(1).text());
+        assertTrue(chunks.get(1).tokens() > 100);
+        // The continuation repeats the trailing paragraph that fits the overlap
+        assertTrue(chunks.get(1).text().startsWith("Second paragraph, carried into the next chunk."));
+        assertEquals("Closing paragraph after the code.", chunks.get(2).text());
+        chunks.forEach(chunk -> assertEquals(0, count(chunk.text(), "```") % 2, chunk.text()));
+    }
+
+    @Test
+    void oversizedProseIsSplitBetweenLines() {
+        StringBuilder paragraph = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            paragraph.append("Line ").append(i).append(" of a very long paragraph without blank lines.\n");
+        }
+
+        List<MarkdownChunker.Chunk> chunks = new MarkdownChunker(60, 0, 0).chunk(paragraph.toString());
+
+        assertTrue(chunks.size() > 1);
+        chunks.forEach(chunk -> assertTrue(chunk.tokens() <= 60, chunk.toString()));
+        assertEquals(paragraph.toString().strip(), String.join("\n", chunks.stream().map(MarkdownChunker.Chunk::text).toList()));
+    }
+
+    private static int count(String text, String needle) {
+        int count = 0;
+        for (int i = text.indexOf(needle); i >= 0; i = text.indexOf(needle, i + needle.length())) {
+            count++;
+        }
+        return count;
+    }
+}
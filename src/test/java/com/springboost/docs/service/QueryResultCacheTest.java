@@ -0,0 +1,45 @@
+package com.springboost.docs.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Verifies the query result cache is bounded, least-recently-used first,
+ * and never serves or stores results from an older index generation.
+ */
+class QueryResultCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedPastTheBound() {
+        QueryResultCache<String, String> cache = new QueryResultCache<>(2);
+        cache.put("a", 1, "A");
+        cache.put("b", 1, "B");
+        assertEquals("A", cache.get("a", 1));
+        cache.put("c", 1, "C");
+
+        assertNull(cache.get("b", 1));
+        assertEquals("A", cache.get("a", 1));
+        assertEquals("C", cache.get("c", 1));
+        assertEquals(2, cache.getStats().get("size"));
+        assertEquals(0.75, (double) cache.getStats().get("hitRate"), 1e-9);
+    }
+
+    @Test
+    void newerGenerationDropsEverythingAndStaleResultsAreNotStored() {
+        QueryResultCache<String, String> cache = new QueryResultCache<>(10);
+        cache.put("a", 1, "A");
+        cache.put("b", 1, "B");
+
+        assertNull(cache.get("a", 2));
+        assertEquals(0, cache.getStats().get("size"));
+        assertEquals(1L, cache.getStats().get("invalidations"));
+
+        // Computed before the index moved on to generation 2
+        cache.put("b", 1, "B");
+        assertNull(cache.get("b", 2));
+        cache.put("b", 2, "B2");
+        assertEquals("B2", cache.get("b", 2));
+    }
+}
@@ -0,0 +1,324 @@
+package com.springboost.docs.service;
+
+import com.springboost.config.SpringBoostProperties;
+import com.springboost.docs.model.DocumentChunk;
+import com.springboost.docs.model.ScoredChunk;
+import com.springboost.docs.model.SearchRequest;
+import com.springboost.docs.model.SearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies hybrid search over the bundled guideline corpus merges the
+ * per-mode top-k results into one bounded, ranked, duplicate-free list,
+ * that near-duplicates collapse to one result, and that parallel searches
+ * each see only their own scores, also while the index is compacted.
+ */
+class SearchServiceTest {
+
+    private SearchService searchService;
+    private SpringBoostProperties properties;
+    private DocumentationService documentationService;
+    private EmbeddingsService embeddingsService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SpringBoostProperties();
+        properties.getDocumentation().setPersistIndex(false);
+        embeddingsService = new EmbeddingsService(properties);
+        documentationService = new DocumentationService(embeddingsService, WebClient.builder(), properties);
+        searchService = new SearchService(documentationService, embeddingsService, properties);
+    }
+
+    @Test
+    void hybridSearchReturnsAtMostMaxResultsRankedWithoutDuplicates() {
+        SearchRequest request = SearchRequest.builder()
+                .query("spring security authentication")
+                .maxResults(5)
+                .semanticSearch(true)
+                .keywordSearch(true)
+                .build();
+
+        SearchResult result = searchService.search(request);
+        List<ScoredChunk> hits = result.getResults();
+
+        assertEquals("hybrid", result.getSearchType());
+        assertEquals(5, hits.size());
+        assertEquals(hits.size(), result.getTotalResults());
+        assertTrue(result.getCandidatesScored() > result.getTotalResults(),
+                "expected more candidates scored than returned, got " + result.getCandidatesScored());
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < hits.size(); i++) {
+            ScoredChunk hit = hits.get(i);
+            assertTrue(ids.add(hit.chunk().getId()), "duplicate result " + hit.chunk().getId());
+            assertTrue(hit.score() > 0 && hit.score() <= 1.0, "fused score out of range: " + hit.score());
+            if (i > 0) {
+                assertTrue(hits.get(i - 1).score() >= hit.score());
+            }
+        }
+    }
+
+    @Test
+    void weightedFusionCombinesBothSignalsPerHit() {
+        properties.getDocumentation().getSearch().setHybridFusion("weighted");
+        properties.getDocumentation().getSearch().setHybridSemanticWeight(0.7);
+
+        List<ScoredChunk> hits = searchService.search(hybrid("spring security authentication")).getResults();
+
+        assertEquals(5, hits.size());
+        for (ScoredChunk hit : hits) {
+            assertEquals(0.7 * hit.semanticScore() + 0.3 * hit.keywordScore(), hit.score(), 1e-6);
+        }
+        // Keyword-only hits are scored semantically too, not left at zero
+        assertTrue(hits.stream().allMatch(hit -> hit.semanticScore() > 0));
+    }
+
+    @Test
+    void reciprocalRankFusionFavoursHitsFoundByBothModes() {
+        List<ScoredChunk> hits = searchService.search(hybrid("spring security authentication")).getResults();
+
+        ScoredChunk top = hits.get(0);
+        assertTrue(top.semanticScore() > 0 && top.keywordScore() > 0,
+                "expected the top hit to match both modes: " + top);
+
+        properties.getDocumentation().getSearch().setHybridFusion("max");
+        for (ScoredChunk hit : searchService.search(hybrid("spring security authentication")).getResults()) {
+            assertEquals(Math.max(hit.semanticScore(), hit.keywordScore()), hit.score(), 1e-6);
+        }
+    }
+
+    @Test
+    void keywordSearchAppliesSourceFilterBeforeTopK() {
+        SearchRequest request = SearchRequest.builder()
+                .query("configuration")
+                .source("spring-boot-3.x")
+                .maxResults(3)
+                .semanticSearch(false)
+                .keywordSearch(true)
+                .build();
+
+        SearchResult result = searchService.search(request);
+
+        assertTrue(result.hasResults());
+        assertTrue(result.getResults().stream().allMatch(hit -> "spring-boot-3.x".equals(hit.chunk().getSource())));
+    }
+
+    @Test
+    void hybridSearchAppliesFiltersToBothModes() {
+        SearchRequest request = SearchRequest.builder()
+                .query("configuration")
+                .source("spring-boot-3.x")
+                .maxResults(5)
+                .semanticSearch(true)
+                .keywordSearch(true)
+                .build();
+
+        SearchResult result = searchService.search(request);
+
+        assertTrue(result.hasResults());
+        assertTrue(result.getResults().stream().allMatch(hit -> "spring-boot-3.x".equals(hit.chunk().getSource())));
+
+        SearchRequest noMatches = SearchRequest.builder()
+                .query("configuration")
+                .source("no-such-source")
+                .semanticSearch(true)
+                .keywordSearch(true)
+                .build();
+        assertEquals(0, searchService.search(noMatches).getTotalResults());
+    }
+
+    @Test
+    void repeatedSearchesAreServedFromCacheUntilTheIndexChanges() {
+        SearchRequest request = SearchRequest.builder()
+                .query("jpa repositories")
+                .maxResults(5)
+                .semanticSearch(false)
+                .keywordSearch(true)
+                .build();
+        SearchResult first = searchService.search(request);
+        request.setQuery("  jpa   repositories ");
+        SearchResult second = searchService.search(request);
+
+        assertEquals(first.getResults(), second.getResults());
+        assertEquals(1L, cacheStats().get("hits"));
+
+        DocumentChunk added = DocumentChunk.builder()
+                .title("JPA repositories JPA repositories")
+                .content("jpa repositories jpa repositories jpa repositories")
+                .source("custom")
+                .build();
+        added.setEmbedding(embeddingsService.generateEmbeddings(added.getContent()));
+        documentationService.indexDocument(added);
+        // The vector store holds the only copy of the vector
+        assertNull(added.getEmbedding());
+        assertTrue(documentationService.getVectorStore().contains(documentationService.getOrdinal(added.getId())));
+
+        SearchResult third = searchService.search(request);
+        assertEquals(1L, cacheStats().get("hits"));
+        assertEquals(added.getId(), third.getTopResult().chunk().getId());
+    }
+
+    @Test
+    void nearDuplicatesAcrossVersionsAreCollapsedToTheBestRankedOne() {
+        String section = "Zorblax endpoints expose the zorblax registry of the application. Each zorblax is listed "
+                + "with its name and state, and the endpoint can be secured like any other actuator endpoint.";
+        indexVersion("zorblax-2.7", section + " Requires Java 8 or later.", "2.7.18");
+        indexVersion("zorblax-3.2", section + " Requires Java 17 or later.", "3.2.0");
+        SearchRequest request = SearchRequest.builder()
+                .query("zorblax")
+                .maxResults(5)
+                .semanticSearch(false)
+                .keywordSearch(true)
+                .build();
+
+        assertEquals(1, searchService.search(request).getTotalResults());
+
+        // A version filter still reaches the copy that was collapsed away
+        request.setVersion("2.7.18");
+        assertEquals("zorblax-2.7", searchService.search(request).getTopResult().chunk().getId());
+
+        request.setVersion(null);
+        properties.getDocumentation().getSearch().setCollapseNearDuplicates(false);
+        assertEquals(2, searchService.search(request).getTotalResults());
+    }
+
+    @Test
+    void concurrentSearchesDoNotInterfereWithEachOthersScores() throws Exception {
+        String[] queries = {"spring security authentication", "jpa repositories", "actuator endpoints", "testing"};
+        SearchResult[] expected = new SearchResult[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            expected[i] = searchService.search(hybrid(queries[i]));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<SearchResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String query = queries[i % queries.length];
+                futures.add(pool.submit(() -> searchService.search(hybrid(query))));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(expected[i % queries.length].getResults(), futures.get(i).get().getResults());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void searchesDuringCompactionResolveOrdinalsAgainstOneNumbering() throws Exception {
+        // Every search must go to the index, not to the result cache
+        properties.getDocumentation().getSearch().setResultCacheSize(0);
+        for (int i = 0; i < 40; i++) {
+            indexSource("alpha-" + i, "alpha", "Quuxle alpha setting number " + i + " explained.");
+            indexSource("beta-" + i, "beta", "Quuxle beta setting number " + i + " explained.");
+        }
+        SearchRequest request = SearchRequest.builder()
+                .query("quuxle")
+                .source("alpha")
+                .maxResults(10)
+                .semanticSearch(false)
+                .keywordSearch(true)
+                .build();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicBoolean compacting = new AtomicBoolean(true);
+        try {
+            List<Future<Integer>> searchers = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                searchers.add(pool.submit(() -> {
+                    int searches = 0;
+                    while (compacting.get()) {
+                        searches++;
+                        SearchResult result = searchService.search(request);
+                        assertEquals(10, result.getTotalResults(), "search saw an empty or renumbered index");
+                        assertTrue(result.getResults().stream().allMatch(hit ->
+                                "alpha".equals(hit.chunk().getSource()) && hit.chunk().getContent().contains("Quuxle")));
+                    }
+                    return searches;
+                }));
+            }
+            for (int round = 0; round < 30; round++) {
+                // Tombstone the oldest beta chunks, so compaction shifts every ordinal after them
+                for (int i = 0; i < 5; i++) {
+                    String id = "beta-" + (round * 5 + i);
+                    documentationService.removeDocument(id);
+                    indexSource("beta-" + (200 + round * 5 + i), "beta", "Quuxle beta setting re-added " + id + ".");
+                }
+                documentationService.compactIndex();
+            }
+            compacting.set(false);
+            for (Future<Integer> searcher : searchers) {
+                assertTrue(searcher.get() > 0);
+            }
+        } finally {
+            compacting.set(false);
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void semanticRecallIsMeasuredOncePerIndexGeneration() {
+        // Not measured at all while the index is still loading
+        documentationService.awaitIndex(false);
+        Map<String, Object> recall = searchService.getSemanticRecall(5, 3);
+
+        assertEquals(5, recall.get("sampleQueries"));
+        assertTrue(recall == searchService.getSemanticRecall(5, 3), "unchanged index must not be re-measured");
+        indexSource("recall-probe", "custom", "A chunk that changes the index generation.");
+        assertTrue(recall != searchService.getSemanticRecall(5, 3), "changed index must be re-measured");
+    }
+
+    private void indexSource(String id, String source, String content) {
+        DocumentChunk chunk = DocumentChunk.builder()
+                .id(id)
+                .title("Quuxle Setting")
+                .content(content)
+                .source(source)
+                .build();
+        chunk.setEmbedding(embeddingsService.generateEmbeddings(content));
+        documentationService.indexDocument(chunk);
+    }
+
+    private void indexVersion(String id, String content, String version) {
+        DocumentChunk chunk = DocumentChunk.builder()
+                .id(id)
+                .title("Zorblax Endpoint")
+                .content(content)
+                .source("custom")
+                .version(version)
+                .build();
+        chunk.setEmbedding(embeddingsService.generateEmbeddings(content));
+        documentationService.indexDocument(chunk);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> cacheStats() {
+        return (Map<String, Object>) searchService.getResultCacheStats().get("searchResults");
+    }
+
+    private static SearchRequest hybrid(String query) {
+        return SearchRequest.builder()
+                .query(query)
+                .maxResults(5)
+                .semanticSearch(true)
+                .keywordSearch(true)
+                .build();
+    }
+}
@@ -1,5 +1,10 @@
 package com.springboost.integration;
 
+import com.springboost.docs.embeddings.EmbeddingsProvider;
+import com.springboost.docs.index.QuantizedIndex;
+import com.springboost.docs.index.TopKCollector;
+import com.springboost.docs.index.VectorStore;
+import com.springboost.docs.index.Vectors;
 import com.springboost.docs.service.EmbeddingsService;
 import com.springboost.docs.service.SearchService;
 import com.springboost.docs.model.SearchRequest;
@@ -16,8 +21,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.stream.IntStream;
 
@@ -133,9 +141,9 @@ class PerformanceBenchmarkTest {
         
         for (int i = 0; i < iterations; i++) {
             String text = testTexts[i % testTexts.length];
-            List<Double> embeddings = embeddingsService.generateEmbeddings(text);
+            float[] embeddings = embeddingsService.generateEmbeddings(text);
             assertNotNull(embeddings);
-            assertFalse(embeddings.isEmpty());
+            assertTrue(embeddings.length > 0);
         }
         
         long endTime = System.nanoTime();
@@ -148,6 +156,35 @@ class PerformanceBenchmarkTest {
             "Embeddings generation should complete in less than 100ms on average, was: " + avgTimeMs + "ms");
     }
 
+    @Test
+    @Order(3)
+    void benchmarkEmbeddingThroughput() {
+        // Distinct texts straight to the provider, so the cache can't help
+        List<String> texts = IntStream.range(0, 2000)
+            .mapToObj(i -> "Spring Boot configuration property number " + i + " controls bean " + (i * 31))
+            .toList();
+        EmbeddingsProvider provider = embeddingsService.getProvider();
+        int batchSize = Math.min(provider.getMaxBatchSize(), 256);
+
+        // Warmup
+        provider.embedBatch(texts.subList(0, batchSize));
+
+        long startTime = System.nanoTime();
+        for (int from = 0; from < texts.size(); from += batchSize) {
+            List<float[]> vectors = provider.embedBatch(texts.subList(from, Math.min(from + batchSize, texts.size())));
+            assertFalse(vectors.isEmpty());
+        }
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        double textsPerSecond = texts.size() / seconds;
+
+        System.out.printf("Embedding Throughput (%s) - %.0f texts/s in batches of %d%n",
+            provider.getIdentity(), textsPerSecond, batchSize);
+
+        // Bulk indexing needs at least a few hundred texts per second
+        assertTrue(textsPerSecond > 200.0,
+            "Embedding throughput should exceed 200 texts/s, was: " + textsPerSecond);
+    }
+
     @Test
     @Order(4)
     void benchmarkSemanticSearch() {
@@ -186,6 +223,82 @@ class PerformanceBenchmarkTest {
             "Semantic search should complete in less than 150ms on average, was: " + avgTimeMs + "ms");
     }
 
+    @Test
+    @Order(4)
+    void benchmarkSemanticIndexRecall() {
+        Map<String, Object> recall = searchService.measureSemanticRecall(50, 10);
+        
+        System.out.printf("Semantic Index (%s) - Recall@10: %.3f, Index: %.1f us, Exact: %.1f us%n",
+            recall.get("semanticIndex"), recall.get("recall"),
+            recall.get("avgIndexLatencyMicros"), recall.get("avgExactLatencyMicros"));
+        
+        // Approximate search must still find nearly all of the exact top-k
+        assertTrue((double) recall.get("recall") >= 0.9,
+            "Semantic index recall@10 should be at least 0.9, was: " + recall.get("recall"));
+    }
+
+    @Test
+    @Order(4)
+    void benchmarkQuantizedSemanticIndex() {
+        // Clustered synthetic embeddings, like those of a large scraped corpus
+        int vectors = 20_000;
+        int dimension = 384;
+        Random random = new Random(42);
+        VectorStore exact = new VectorStore();
+        List<float[]> data = new ArrayList<>(vectors);
+        for (int i = 0; i < vectors; i++) {
+            float[] vector = clusteredVector(random, random.nextInt(200), dimension);
+            data.add(vector);
+            exact.add(i, vector);
+        }
+        List<float[]> queries = IntStream.range(0, 100)
+            .mapToObj(i -> clusteredVector(random, random.nextInt(200), dimension))
+            .toList();
+        
+        for (QuantizedIndex.Encoding encoding : QuantizedIndex.Encoding.values()) {
+            QuantizedIndex index = new QuantizedIndex(new VectorStore(), encoding);
+            for (int i = 0; i < vectors; i++) {
+                index.add(i, data.get(i));
+            }
+            
+            // Warmup
+            for (float[] query : queries) {
+                index.topK(query, 10, -1.0, null);
+                exact.topK(query, 10, -1.0, null);
+            }
+            
+            int found = 0;
+            int expected = 0;
+            long indexNanos = 0;
+            long exactNanos = 0;
+            for (float[] query : queries) {
+                long start = System.nanoTime();
+                TopKCollector approximate = index.topK(query, 10, -1.0, null);
+                indexNanos += System.nanoTime() - start;
+                
+                start = System.nanoTime();
+                TopKCollector truth = exact.topK(query, 10, -1.0, null);
+                exactNanos += System.nanoTime() - start;
+                
+                Set<Integer> truthOrdinals = new HashSet<>();
+                truth.drainDescending((ordinal, score) -> truthOrdinals.add(ordinal));
+                expected += truthOrdinals.size();
+                int[] hits = {0};
+                approximate.drainDescending((ordinal, score) -> hits[0] += truthOrdinals.contains(ordinal) ? 1 : 0);
+                found += hits[0];
+            }
+            double recall = (double) found / expected;
+            
+            System.out.printf("Quantized Index (%s) - Recall@10: %.3f, Index: %.1f us, Exact: %.1f us, Codes: %d KB vs %d KB%n",
+                index.getType(), recall, indexNanos / 1000.0 / queries.size(), exactNanos / 1000.0 / queries.size(),
+                index.getMemoryBytes() / 1024, exact.getMemoryBytes() / 1024);
+            
+            // Full-precision re-scoring must recover nearly all of the exact top-k
+            assertTrue(recall >= 0.9,
+                index.getType() + " recall@10 should be at least 0.9, was: " + recall);
+        }
+    }
+
     @Test
     @Order(5)
     void benchmarkConcurrentToolExecution() throws Exception {
@@ -438,6 +551,15 @@ class PerformanceBenchmarkTest {
         assertTrue(true);
     }
 
+    private static float[] clusteredVector(Random random, int cluster, int dimension) {
+        Random centre = new Random(1000 + cluster);
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) (centre.nextGaussian() + 0.6 * random.nextGaussian());
+        }
+        return Vectors.normalize(vector);
+    }
+
     private McpTool findTool(String toolName) {
         return availableTools.stream()
                 .filter(tool -> tool.getName().equals(toolName))
@@ -21,6 +21,18 @@ class DaemonPathsTest {
         assertEquals(DaemonPaths.currentIdentityKey(), DaemonPaths.currentIdentityKey());
     }
 
+    @Test
+    void vectorModuleAddedForTheDaemonDoesNotChangeTheKey() {
+        String launcher = DaemonPaths.identityKey("java", new String[]{"-jar", "spring-boost.jar", "mcp"});
+
+        assertEquals(launcher, DaemonPaths.identityKey("java",
+                new String[]{"--add-modules", "jdk.incubator.vector", "-jar", "spring-boost.jar", "mcp-daemon"}));
+        assertEquals(launcher, DaemonPaths.identityKey("java",
+                new String[]{"--add-modules=jdk.incubator.vector", "-jar", "spring-boost.jar", "mcp-daemon"}));
+        assertNotEquals(launcher, DaemonPaths.identityKey("java", new String[]{"-jar", "other.jar", "mcp"}));
+        assertTrue(DaemonPaths.addsVectorModule(new String[]{"--add-modules=jdk.incubator.vector", "-jar", "x.jar"}));
+    }
+
     @Test
     void keyedFilesLiveUnderHomeAndDifferKeysProduceDifferentFiles() {
         String keyA = "aaaaaaaaaaaaaaaa";
@@ -30,5 +42,7 @@ class DaemonPathsTest {
         assertNotEquals(DaemonPaths.portFile(keyA), DaemonPaths.portFile(keyB));
         assertNotEquals(DaemonPaths.lockFile(keyA), DaemonPaths.portFile(keyA));
         assertNotEquals(DaemonPaths.logFile(keyA), DaemonPaths.portFile(keyA));
+        assertTrue(DaemonPaths.indexFile(keyA).startsWith(DaemonPaths.HOME));
+        assertNotEquals(DaemonPaths.indexFile(keyA), DaemonPaths.indexFile(keyB));
     }
 }